@@ -2,6 +2,7 @@ package org.insiders.backend;
 
 import jakarta.annotation.PreDestroy;
 import org.insiders.backend.logger.FileLogger;
+import org.insiders.backend.logger.LogLevel;
 import org.insiders.backend.logger.LoggerFacade;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -12,7 +13,7 @@ public class Main {
         //String logPath = "/home/ubuntu/application.log";
         String logPath = "backend/src/main/resources/application.log";
 
-        LoggerFacade.addLogger(new FileLogger(logPath));
+        LoggerFacade.addLogger(new FileLogger(logPath), LogLevel.INFO);
         LoggerFacade.info("new version");
         LoggerFacade.info("Application starting up");
 
@@ -0,0 +1,15 @@
+package org.insiders.backend.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a {@link org.insiders.backend.model.UserIdentity} controller parameter to the user of the
+ * request's session token; requests without a valid token get 401.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
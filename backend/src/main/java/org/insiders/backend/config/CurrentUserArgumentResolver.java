@@ -0,0 +1,29 @@
+package org.insiders.backend.config;
+
+import org.insiders.backend.exceptions.UnauthorizedException;
+import org.insiders.backend.model.UserIdentity;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && parameter.getParameterType().equals(UserIdentity.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object user = webRequest.getAttribute(SessionTokenFilter.CURRENT_USER, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            throw new UnauthorizedException("Autentificare necesara: token lipsa, invalid sau expirat");
+        }
+        return user;
+    }
+}
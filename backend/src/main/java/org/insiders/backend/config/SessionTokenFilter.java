@@ -0,0 +1,48 @@
+package org.insiders.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.UserIdentity;
+import org.insiders.backend.service.SessionTokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies the "Authorization: Bearer" token of the request and puts the user it was issued to
+ * into request scope, where {@link CurrentUser} parameters pick it up. Requests without a valid
+ * token go through unchanged; endpoints that need a user reject them.
+ */
+@Component
+public class SessionTokenFilter extends OncePerRequestFilter {
+    public static final String CURRENT_USER = SessionTokenFilter.class.getName() + ".CURRENT_USER";
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService tokenService;
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    public SessionTokenFilter(SessionTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            UserIdentity user = tokenService.verify(header.substring(BEARER.length()).trim());
+            if (user != null) {
+                request.setAttribute(CURRENT_USER, user);
+            } else {
+                logger.log(LogLevel.WARNING, "Rejected session token on {} {}", request.getMethod(), request.getRequestURI());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -1,15 +1,20 @@
 package org.insiders.backend.controller;
 
+import org.insiders.backend.config.CurrentUser;
 import org.insiders.backend.dto.comment.CommentResponseDto;
 import org.insiders.backend.dto.comment.CommentUpdateRequestDto;
 import org.insiders.backend.dto.vote.VoteRequestDto;
 import org.insiders.backend.dto.vote.VoteResponseDto;
+import org.insiders.backend.model.CommentPage;
+import org.insiders.backend.model.UserIdentity;
 import org.insiders.backend.service.CommentService;
 import org.insiders.backend.service.VotingService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -22,23 +27,44 @@ public class CommentController {
     public CommentController(CommentService commentService, VotingService votingService) {
         this.commentService = commentService;
         this.votingService = votingService;
-        logger.log("INFO", "CommentController initialized with endpoints:");
-        logger.log("INFO", "- GET /comments/{commentId}");
-        logger.log("INFO", "- PUT /comments/{commentId}");
-        logger.log("INFO", "- DELETE /comments/{commentId}");
-        logger.log("INFO", "- PUT /comments/{commentId}/vote");
+        logger.log(LogLevel.INFO, "CommentController initialized with endpoints:");
+        logger.log(LogLevel.INFO, "- GET /comments/{commentId}");
+        logger.log(LogLevel.INFO, "- GET /comments/{commentId}/replies?replies=K");
+        logger.log(LogLevel.INFO, "- PUT /comments/{commentId}");
+        logger.log(LogLevel.INFO, "- DELETE /comments/{commentId}");
+        logger.log(LogLevel.INFO, "- PUT /comments/{commentId}/vote");
     }
 
     @GetMapping("/{commentId}")
     public ResponseEntity<ResponseApi<CommentResponseDto>> getCommentWithReplies(@PathVariable UUID commentId,
-                                                                                 @RequestParam(defaultValue = "current_user") String username) {
-        logger.log("INFO", "GET request received for comment ID: " + commentId + " by user: " + username);
+                                                                                 @CurrentUser UserIdentity currentUser,
+                                                                                 @RequestParam(required = false) Integer maxDepth,
+                                                                                 @RequestParam(required = false) Integer maxChildrenPerNode,
+                                                                                 @RequestParam(required = false) String after) {
+        logger.log(LogLevel.INFO, "GET request received for comment ID: {} by user: {}", commentId, currentUser.username());
         try {
-            CommentResponseDto response = commentService.getCommentWithReplies(commentId, username);
-            logger.log("INFO", "Successfully retrieved comment with ID: " + commentId);
+            CommentResponseDto response = commentService.getCommentWithReplies(commentId, currentUser, maxDepth, maxChildrenPerNode, after);
+            logger.log(LogLevel.INFO, "Successfully retrieved comment with ID: {}", commentId);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve comment: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve comment: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @GetMapping("/{commentId}/replies")
+    public ResponseEntity<ResponseApi<List<CommentResponseDto>>> getReplies(@PathVariable UUID commentId,
+                                                                            @CurrentUser UserIdentity currentUser,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(defaultValue = "20") int limit,
+                                                                            @RequestParam(defaultValue = "3") int replies) {
+        logger.log(LogLevel.INFO, "GET request received for replies of comment ID: {} by user: {}", commentId, currentUser.username());
+        try {
+            CommentPage page = commentService.getReplies(commentId, currentUser, cursor, limit, replies);
+            logger.log(LogLevel.INFO, "Successfully retrieved {} replies of comment ID: {}", page.comments().size(), commentId);
+            return ResponseEntity.ok(new ResponseApi<>(true, page.comments(), page.nextCursor()));
+        } catch (Exception e) {
+            logger.log(LogLevel.ERROR, "Failed to retrieve replies: {}", e.getMessage());
             throw e;
         }
     }
@@ -46,27 +72,27 @@ public class CommentController {
     @PutMapping("/{commentId}")
     public ResponseEntity<ResponseApi<CommentResponseDto>> updateComment(@PathVariable UUID commentId,
                                                                          @RequestBody CommentUpdateRequestDto request,
-                                                                         @RequestParam(defaultValue = "current_user") String username) {
-        logger.log("INFO", "PUT request received to update comment ID: " + commentId + " by user: " + username);
+                                                                         @CurrentUser UserIdentity currentUser) {
+        logger.log(LogLevel.INFO, "PUT request received to update comment ID: {} by user: {}", commentId, currentUser.username());
         try {
-            CommentResponseDto response = commentService.updateComment(commentId, request, username);
-            logger.log("INFO", "Successfully updated comment with ID: " + commentId);
+            CommentResponseDto response = commentService.updateComment(commentId, request, currentUser);
+            logger.log(LogLevel.INFO, "Successfully updated comment with ID: {}", commentId);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to update comment: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to update comment: {}", e.getMessage());
             throw e;
         }
     }
 
     @DeleteMapping("/{commentId}")
     public ResponseEntity<ResponseApi<String>> deleteComment(@PathVariable UUID commentId) {
-        logger.log("INFO", "DELETE request received for comment ID: " + commentId);
+        logger.log(LogLevel.INFO, "DELETE request received for comment ID: {}", commentId);
         try {
             commentService.deleteComment(commentId);
-            logger.log("INFO", "Successfully deleted comment with ID: " + commentId);
+            logger.log(LogLevel.INFO, "Successfully deleted comment with ID: {}", commentId);
             return ResponseEntity.ok(new ResponseApi<>(true, "Comentariul a fost sters cu succes"));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to delete comment: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to delete comment: {}", e.getMessage());
             throw e;
         }
     }
@@ -74,16 +100,15 @@ public class CommentController {
     @PutMapping("/{commentId}/vote")
     public ResponseEntity<ResponseApi<VoteResponseDto>> voteComment(@PathVariable UUID commentId,
                                                                     @RequestBody VoteRequestDto request,
-                                                                    @RequestParam(defaultValue = "current_user") String username) {
+                                                                    @CurrentUser UserIdentity currentUser) {
         // Remove the reference to vote type
-        logger.log("INFO", "Vote request received for comment ID: " + commentId +
-                " by user: " + username);
+        logger.log(LogLevel.INFO, "Vote request received for comment ID: {} by user: {}", commentId, currentUser.username());
         try {
-            VoteResponseDto response = votingService.voteComment(commentId, request, username);
-            logger.log("INFO", "Successfully processed vote for comment ID: " + commentId);
+            VoteResponseDto response = votingService.voteComment(commentId, request, currentUser);
+            logger.log(LogLevel.INFO, "Successfully processed vote for comment ID: {}", commentId);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to process vote: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to process vote: {}", e.getMessage());
             throw e;
         }
     }
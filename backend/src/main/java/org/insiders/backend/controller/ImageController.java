@@ -0,0 +1,144 @@
+package org.insiders.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.insiders.backend.exceptions.NotFoundException;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.service.ImageStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves images from the {@link ImageStore}. A key names immutable content (a hash of the source
+ * bytes and the filter), so the key itself is a strong ETag and clients may cache forever. A
+ * derivative that does not exist (yet) is answered with the full image under the full image's
+ * ETag and must be revalidated, so the thumbnail is picked up once it is written.
+ * Bodies are sent with Tomcat's sendfile when the connector supports it, otherwise from a
+ * memory-mapped region of the file; either way the file is never read into a byte array.
+ */
+@RestController
+@RequestMapping("/images")
+public class ImageController {
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+    private static final long MAX_MAPPED_CHUNK = 4L * 1024 * 1024;
+    private static final Set<MediaType> INLINE_TYPES = Set.of(MediaType.IMAGE_JPEG, MediaType.IMAGE_PNG, MediaType.parseMediaType("image/bmp"));
+
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+    private final ImageStore imageStore;
+
+    @Autowired
+    public ImageController(ImageStore imageStore) {
+        this.imageStore = imageStore;
+    }
+
+    @GetMapping("/{key}")
+    public void getImage(@PathVariable String key, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageStore.Located located = imageStore.locate(key)
+                .orElseThrow(() -> new NotFoundException("Imaginea " + key + " nu a fost gasita"));
+        Path file = located.file();
+        boolean exact = located.key().equals(key);
+        logger.log(LogLevel.DEBUG, "GET request received for image: {}", key);
+
+        MediaType contentType = MediaTypeFactory.getMediaType(new FileSystemResource(file))
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        // files stored before uploads were checked may be anything; only raster images are shown inline
+        if (!INLINE_TYPES.contains(contentType)) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString());
+        }
+
+        String etag = "\"" + located.key() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, exact ? CACHE_FOREVER : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            long start = 0;
+            long end = length - 1;
+
+            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(rangeHeader);
+                } catch (IllegalArgumentException e) {
+                    ranges = List.of();
+                }
+                // several ranges would need a multipart body; answering with the whole image is allowed
+                if (ranges.size() == 1) {
+                    HttpRange range = ranges.get(0);
+                    if (length == 0 || range.getRangeStart(length) >= length) {
+                        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                        return;
+                    }
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            }
+
+            long count = end - start + 1;
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(count);
+
+            if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+                request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+                request.setAttribute("org.apache.tomcat.sendfile.start", start);
+                request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position <= end; position += MAX_MAPPED_CHUNK) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPED_CHUNK, end + 1 - position));
+                while (region.hasRemaining()) {
+                    out.write(region);
+                }
+            }
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,6 +4,7 @@ import org.insiders.backend.dto.image.FilterDto;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
 
 import java.util.HashMap;
 import java.util.List;
@@ -49,17 +50,17 @@ public class ImageFilterController {
 
 
     public ImageFilterController() {
-        logger.log("INFO", "- GET /filters");
+        logger.log(LogLevel.INFO, "- GET /filters");
     }
 
     // GET /api/filters  -> return supported filter names
     @GetMapping()
     public ResponseEntity<ResponseApi<List<FilterDto>>> getAvailableFilters() {
         try {
-            logger.log("INFO", "Successfully retrieved " + filters.size() + " available filters");
+            logger.log(LogLevel.INFO, "Successfully retrieved {} available filters", filters.size());
             return ResponseEntity.ok(new ResponseApi<>(true, filters));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve available filters: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve available filters: {}", e.getMessage());
             throw e;
         }
     }
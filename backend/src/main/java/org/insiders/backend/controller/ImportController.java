@@ -0,0 +1,59 @@
+package org.insiders.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.insiders.backend.config.CurrentUser;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.ImportReport;
+import org.insiders.backend.model.UserIdentity;
+import org.insiders.backend.service.BulkImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk import of users, subreddits, posts, comments and votes from an NDJSON request body, read
+ * as it arrives; see {@link BulkImportService} for the line format. Requires the X-Import-Secret
+ * header to match insiders.import.admin-secret.
+ */
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private final BulkImportService bulkImportService;
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    @Autowired
+    public ImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+        logger.log(LogLevel.INFO, "ImportController initialized with endpoints:");
+        logger.log(LogLevel.INFO, "- POST /import?gzip=true|false");
+    }
+
+    @PostMapping()
+    public ResponseEntity<ResponseApi<ImportReport>> importNdjson(@CurrentUser UserIdentity currentUser,
+                                                                  @RequestHeader(value = "X-Import-Secret", required = false) String secret,
+                                                                  @RequestParam(defaultValue = "false") boolean gzip,
+                                                                  HttpServletRequest request) throws IOException {
+        try {
+            logger.log(LogLevel.INFO, "POST request received to import NDJSON by user: {} (gzip: {})", currentUser.username(), gzip);
+
+            bulkImportService.authorize(secret, currentUser);
+            InputStream body = gzip ? new GZIPInputStream(request.getInputStream(), 8192) : request.getInputStream();
+            ImportReport report = bulkImportService.importNdjson(body, currentUser);
+
+            logger.log(LogLevel.INFO, "Import finished: {} rows inserted, {} failed", report.inserted(), report.failed());
+            return ResponseEntity.ok(new ResponseApi<>(true, report));
+        } catch (Exception e) {
+            logger.log(LogLevel.ERROR, "Failed to import NDJSON: {}", e.getMessage());
+            throw e;
+        }
+    }
+}
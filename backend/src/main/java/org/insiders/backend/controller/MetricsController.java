@@ -0,0 +1,60 @@
+package org.insiders.backend.controller;
+
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogStats;
+import org.insiders.backend.model.CacheStats;
+import org.insiders.backend.model.ImageProcessorStats;
+import org.insiders.backend.model.ImageStoreStats;
+import org.insiders.backend.service.ImageProcessorClient;
+import org.insiders.backend.service.ImageStore;
+import org.insiders.backend.service.PostCache;
+import org.insiders.backend.service.UserIdentityCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    private final PostCache postCache;
+    private final ImageStore imageStore;
+    private final ImageProcessorClient imageProcessorClient;
+    private final UserIdentityCache userIdentityCache;
+
+    @Autowired
+    public MetricsController(PostCache postCache, ImageStore imageStore, ImageProcessorClient imageProcessorClient,
+                             UserIdentityCache userIdentityCache) {
+        this.postCache = postCache;
+        this.imageStore = imageStore;
+        this.imageProcessorClient = imageProcessorClient;
+        this.userIdentityCache = userIdentityCache;
+    }
+
+    @GetMapping("/post-cache")
+    public ResponseEntity<ResponseApi<CacheStats>> getPostCacheStats() {
+        return ResponseEntity.ok(new ResponseApi<>(true, postCache.stats()));
+    }
+
+    @GetMapping("/user-cache")
+    public ResponseEntity<ResponseApi<CacheStats>> getUserCacheStats() {
+        return ResponseEntity.ok(new ResponseApi<>(true, userIdentityCache.stats()));
+    }
+
+    @GetMapping("/logging")
+    public ResponseEntity<ResponseApi<LogStats>> getLoggingStats() {
+        return ResponseEntity.ok(new ResponseApi<>(true, AsyncLogManager.getInstance().stats()));
+    }
+
+    @GetMapping("/images")
+    public ResponseEntity<ResponseApi<ImageStoreStats>> getImageStoreStats() {
+        return ResponseEntity.ok(new ResponseApi<>(true, imageStore.stats()));
+    }
+
+    @GetMapping("/image-processor")
+    public ResponseEntity<ResponseApi<ImageProcessorStats>> getImageProcessorStats() {
+        return ResponseEntity.ok(new ResponseApi<>(true, imageProcessorClient.stats()));
+    }
+}
@@ -1,16 +1,22 @@
 package org.insiders.backend.controller;
 
 import jakarta.validation.Valid;
+import org.insiders.backend.config.CurrentUser;
 import org.insiders.backend.dto.comment.CommentCreateRequestDto;
 import org.insiders.backend.dto.comment.CommentResponseDto;
+import org.insiders.backend.dto.image.ImageStatusResponseDto;
 import org.insiders.backend.dto.post.PostCreateRequestDto;
 import org.insiders.backend.dto.post.PostResponseDto;
 import org.insiders.backend.dto.post.PostUpdateRequestDto;
 import org.insiders.backend.dto.vote.VoteRequestDto;
 import org.insiders.backend.dto.vote.VoteResponseDto;
+import org.insiders.backend.exceptions.RateLimitExceededException;
 import org.insiders.backend.logger.LoggerFacade;
 import org.insiders.backend.mapper.PostMapper;
+import org.insiders.backend.model.CommentPage;
+import org.insiders.backend.model.FeedPage;
 import org.insiders.backend.model.PostModel;
+import org.insiders.backend.model.UserIdentity;
 import org.insiders.backend.service.CommentService;
 import org.insiders.backend.service.PostManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +26,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
 
 import java.util.List;
 import java.util.UUID;
@@ -36,32 +43,37 @@ public class PostController {
     public PostController(PostManagementService postManagementService, CommentService commentService) {
         this.postManagementService = postManagementService;
         this.commentService = commentService;
-        logger.log("INFO", "PostController initialized with endpoints:");
-        logger.log("INFO", "- GET /posts");
-        logger.log("INFO", "- POST /posts");
-        logger.log("INFO", "- PUT /posts/{id}");
-        logger.log("INFO", "- DELETE /posts/{id}");
-        logger.log("INFO", "- GET /posts/{id}");
-        logger.log("INFO", "- PUT /posts/{id}/vote");
-        logger.log("INFO", "- GET /posts/{id}/comments");
-        logger.log("INFO", "- POST /posts/{id}/comments");
+        logger.log(LogLevel.INFO, "PostController initialized with endpoints:");
+        logger.log(LogLevel.INFO, "- GET /posts?sort=new|top|hot|comments");
+        logger.log(LogLevel.INFO, "- POST /posts");
+        logger.log(LogLevel.INFO, "- PUT /posts/{id}");
+        logger.log(LogLevel.INFO, "- DELETE /posts/{id}");
+        logger.log(LogLevel.INFO, "- GET /posts/{id}");
+        logger.log(LogLevel.INFO, "- PUT /posts/{id}/vote");
+        logger.log(LogLevel.INFO, "- GET /posts/{id}/comments?sort=new|top&replies=K");
+        logger.log(LogLevel.INFO, "- POST /posts/{id}/comments");
     }
 
     @GetMapping()
     public ResponseEntity<ResponseApi<List<PostResponseDto>>> getAllPosts(@RequestParam(required = false) String subreddit,
-                                                                          @RequestParam(defaultValue = "current_user") String username) {
+                                                                          @CurrentUser UserIdentity currentUser,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "20") int limit,
+                                                                          @RequestParam(required = false) String sort) {
         try {
-            logger.log("INFO", "GET request received for all posts" +
+            logger.log(LogLevel.INFO, () -> "GET request received for all posts" +
                     (subreddit != null ? " in subreddit: " + subreddit : "") +
-                    " by user: " + username);
+                    " by user: " + currentUser.username());
 
-            List<PostModel> posts = postManagementService.getAllPosts(subreddit, username);
-            List<PostResponseDto> dtos = posts.stream().map(PostMapper::postModelToDto).toList();
+            FeedPage page = sort == null || sort.isBlank() || sort.equalsIgnoreCase("new")
+                    ? postManagementService.getAllPosts(subreddit, currentUser, cursor, limit)
+                    : postManagementService.getRankedPosts(subreddit, currentUser, sort, cursor, limit);
+            List<PostResponseDto> dtos = page.posts().stream().map(PostMapper::postModelToDto).toList();
 
-            logger.log("INFO", "Successfully retrieved " + posts.size() + " posts");
-            return ResponseEntity.ok(new ResponseApi<>(true, dtos));
+            logger.log(LogLevel.INFO, "Successfully retrieved {} posts", dtos.size());
+            return ResponseEntity.ok(new ResponseApi<>(true, dtos, page.nextCursor()));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve posts: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve posts: {}", e.getMessage());
             throw e;
         }
     }
@@ -69,49 +81,49 @@ public class PostController {
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, headers = "Content-Type=multipart/form-data")
     public ResponseEntity<ResponseApi<PostResponseDto>> createPostMultipart(@RequestParam("title") String title,
                                                                             @RequestParam(value = "content", required = false) String content,
-                                                                            @RequestParam("author") String author,
                                                                             @RequestParam("subreddit") String subreddit,
                                                                             @RequestPart(value = "image", required = false) MultipartFile image,
-                                                                            @RequestParam(value = "filter", required = false) Integer filterId) {
+                                                                            @RequestParam(value = "filter", required = false) Integer filterId,
+                                                                            @CurrentUser UserIdentity currentUser) throws RateLimitExceededException {
         try {
-            logger.log("INFO", "POST request received to create new post with image by user: " + author + " in subreddit: " + subreddit);
+            logger.log(LogLevel.INFO, "POST request received to create new post with image by user: {} in subreddit: {}", currentUser.username(), subreddit);
 
             PostModel post = postManagementService.createPost(
                     title,
                     content,
-                    author,
+                    currentUser,
                     subreddit,
                     image,
                     filterId
             );
 
-            logger.log("INFO", "Successfully created post with ID: " + post.getId());
+            logger.log(LogLevel.INFO, "Successfully created post with ID: {}", post.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseApi<>(true, PostMapper.postModelToDto(post)));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to create post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to create post: {}", e.getMessage());
             throw e;
         }
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, headers = "Content-Type=application/json")
-    public ResponseEntity<ResponseApi<PostResponseDto>> createPostJson(@RequestBody PostCreateRequestDto requestDto) {
+    public ResponseEntity<ResponseApi<PostResponseDto>> createPostJson(@RequestBody PostCreateRequestDto requestDto,
+                                                                         @CurrentUser UserIdentity currentUser) throws RateLimitExceededException {
         try {
-            logger.log("INFO", "POST request received to create new post by user: " + requestDto.author() +
-                    " in subreddit: " + requestDto.subreddit());
+            logger.log(LogLevel.INFO, "POST request received to create new post by user: {} in subreddit: {}", currentUser.username(), requestDto.subreddit());
 
             PostModel post = postManagementService.createPost(
                     requestDto.title(),
                     requestDto.content(),
-                    requestDto.author(),
+                    currentUser,
                     requestDto.subreddit(),
                     requestDto.image(),
                     requestDto.filterId()
             );
 
-            logger.log("INFO", "Successfully created post with ID: " + post.getId());
+            logger.log(LogLevel.INFO, "Successfully created post with ID: {}", post.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseApi<>(true, PostMapper.postModelToDto(post)));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to create post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to create post: {}", e.getMessage());
             throw e;
         }
     }
@@ -119,17 +131,17 @@ public class PostController {
     @PutMapping("/{id}")
     public ResponseEntity<ResponseApi<PostResponseDto>> updatePost(@PathVariable UUID id,
                                                                    @Valid @RequestBody PostUpdateRequestDto requestDto,
-                                                                   @RequestParam(defaultValue = "current_user") String username) {
+                                                                   @CurrentUser UserIdentity currentUser) {
         try {
-            logger.log("INFO", "PUT request received to update post ID: " + id + " by user: " + username);
+            logger.log(LogLevel.INFO, "PUT request received to update post ID: {} by user: {}", id, currentUser.username());
 
-            PostModel postModel = postManagementService.updatePost(id, requestDto, username);
+            PostModel postModel = postManagementService.updatePost(id, requestDto, currentUser);
             PostResponseDto response = PostMapper.postModelToDto(postModel);
 
-            logger.log("INFO", "Successfully updated post with ID: " + id);
+            logger.log(LogLevel.INFO, "Successfully updated post with ID: {}", id);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to update post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to update post: {}", e.getMessage());
             throw e;
         }
     }
@@ -138,14 +150,14 @@ public class PostController {
     @DeleteMapping("/{postId}")
     public ResponseEntity<ResponseApi<String>> deletePost(@PathVariable UUID postId) {
         try {
-            logger.log("INFO", "DELETE request received for post ID: " + postId);
+            logger.log(LogLevel.INFO, "DELETE request received for post ID: {}", postId);
 
             postManagementService.deletePostById(postId);
 
-            logger.log("INFO", "Successfully deleted post with ID: " + postId);
+            logger.log(LogLevel.INFO, "Successfully deleted post with ID: {}", postId);
             return ResponseEntity.ok(new ResponseApi<>(true, "Postarea a fost stearsa cu succes!"));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to delete post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to delete post: {}", e.getMessage());
             throw e;
         }
     }
@@ -153,66 +165,90 @@ public class PostController {
 
     @GetMapping("/{postId}")
     public ResponseEntity<ResponseApi<PostResponseDto>> getPostById(@PathVariable UUID postId,
-                                                                    @RequestParam(defaultValue = "current_user") String username) {
+                                                                    @CurrentUser UserIdentity currentUser) {
         try {
-            logger.log("INFO", "GET request received for post ID: " + postId + " by user: " + username);
+            logger.log(LogLevel.INFO, "GET request received for post ID: {} by user: {}", postId, currentUser.username());
 
-            PostModel post = postManagementService.getPostByIdModel(postId, username);
+            PostModel post = postManagementService.getPostByIdModel(postId, currentUser);
             PostResponseDto dto = PostMapper.postModelToDto(post);
 
-            logger.log("INFO", "Successfully retrieved post with ID: " + postId);
+            logger.log(LogLevel.INFO, "Successfully retrieved post with ID: {}", postId);
             return ResponseEntity.ok(new ResponseApi<>(true, dto));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve post: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    @GetMapping("/{postId}/image")
+    public ResponseEntity<ResponseApi<ImageStatusResponseDto>> getImageStatus(@PathVariable UUID postId) {
+        try {
+            logger.log(LogLevel.INFO, "GET request received for image status of post ID: {}", postId);
+
+            ImageStatusResponseDto dto = PostMapper.imageStateToDto(postManagementService.getImageState(postId));
+
+            return ResponseEntity.ok(new ResponseApi<>(true, dto));
+        } catch (Exception e) {
+            logger.log(LogLevel.ERROR, "Failed to retrieve image status: {}", e.getMessage());
             throw e;
         }
     }
 
     @PutMapping("/{postId}/vote")
     public ResponseEntity<ResponseApi<VoteResponseDto>> votePost(@PathVariable UUID postId, @RequestBody VoteRequestDto request,
-                                                                 @RequestParam(defaultValue = "current_user") String username) {
+                                                                 @CurrentUser UserIdentity currentUser) {
         try {
-            logger.log("INFO", "PUT request received to vote on post ID: " + postId + " by user: " + username +
-                    " with vote type: " + request.voteType());
+            logger.log(LogLevel.INFO, "PUT request received to vote on post ID: {} by user: {} with vote type: {}", postId, currentUser.username(), request.voteType());
 
-            VoteResponseDto response = postManagementService.votePost(postId, request.voteType(), username);
+            VoteResponseDto response = postManagementService.votePost(postId, request.voteType(), currentUser);
 
-            logger.log("INFO", "Successfully processed vote on post with ID: " + postId);
+            logger.log(LogLevel.INFO, "Successfully processed vote on post with ID: {}", postId);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to process vote on post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to process vote on post: {}", e.getMessage());
             throw e;
         }
     }
 
     @GetMapping("/{postId}/comments")
     public ResponseEntity<ResponseApi<List<CommentResponseDto>>> getCommentsForPost(@PathVariable UUID postId,
-                                                                                    @RequestParam(defaultValue = "current_user") String username) {
+                                                                                    @CurrentUser UserIdentity currentUser,
+                                                                                    @RequestParam(required = false) String sort,
+                                                                                    @RequestParam(required = false) String cursor,
+                                                                                    @RequestParam(defaultValue = "20") int limit,
+                                                                                    @RequestParam(defaultValue = "3") int replies,
+                                                                                    @RequestParam(defaultValue = "false") boolean all) {
         try {
-            logger.log("INFO", "GET request received for comments on post ID: " + postId + " by user: " + username);
+            logger.log(LogLevel.INFO, "GET request received for comments on post ID: {} by user: {}", postId, currentUser.username());
 
-            List<CommentResponseDto> comments = commentService.getCommentsForPost(postId, username);
-            int total = commentService.countCommentsByPostId(postId);
+            if (all) {
+                List<CommentResponseDto> thread = commentService.getThreadForPost(postId, currentUser);
+                logger.log(LogLevel.INFO, "Successfully retrieved the whole thread of post ID: {}", postId);
+                return ResponseEntity.ok(new ResponseApi<>(true, thread));
+            }
+
+            CommentPage page = commentService.getCommentsForPost(postId, currentUser, sort, cursor, limit, replies);
 
-            logger.log("INFO", "Successfully retrieved " + comments.size() + " comments for post ID: " + postId);
-            return ResponseEntity.ok(new ResponseApi<>(true, comments, total));
+            logger.log(LogLevel.INFO, "Successfully retrieved {} comments for post ID: {}", page.comments().size(), postId);
+            return ResponseEntity.ok(new ResponseApi<>(true, page.comments(), page.nextCursor()));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve comments for post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve comments for post: {}", e.getMessage());
             throw e;
         }
     }
 
     @PostMapping("/{postId}/comments")
-    public ResponseEntity<ResponseApi<CommentResponseDto>> createComment(@PathVariable UUID postId, @RequestBody CommentCreateRequestDto request) {
+    public ResponseEntity<ResponseApi<CommentResponseDto>> createComment(@PathVariable UUID postId, @RequestBody CommentCreateRequestDto request,
+                                                                         @CurrentUser UserIdentity currentUser) {
         try {
-            logger.log("INFO", "POST request received to create comment on post ID: " + postId);
-            CommentResponseDto response = commentService.createComment(postId, request);
+            logger.log(LogLevel.INFO, "POST request received to create comment on post ID: {}", postId);
+            CommentResponseDto response = commentService.createComment(postId, request, currentUser);
             int total = commentService.countCommentsByPostId(postId);
 
-            logger.log("INFO", "Successfully created comment on post ID: " + postId);
+            logger.log(LogLevel.INFO, "Successfully created comment on post ID: {}", postId);
             return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseApi<>(true, response, total));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to create comment on post: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to create comment on post: {}", e.getMessage());
             throw e;
         }
     }
@@ -5,6 +5,7 @@ public class ResponseApi<T> {
     private T data;
     private String message;
     private int total;
+    private String nextCursor;
 
     public ResponseApi() {
     }
@@ -25,6 +26,12 @@ public class ResponseApi<T> {
         this.total = total;
     }
 
+    public ResponseApi(boolean success, T data, String nextCursor) {
+        this.success = success;
+        this.data = data;
+        this.nextCursor = nextCursor;
+    }
+
     public boolean isSuccess() {
         return success;
     }
@@ -56,4 +63,12 @@ public class ResponseApi<T> {
     public void setTotal(int total) {
         this.total = total;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
@@ -1,52 +1,69 @@
 package org.insiders.backend.controller;
 
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.insiders.backend.config.CurrentUser;
 import org.insiders.backend.dto.subreddit.SubredditCreateRequestDto;
 import org.insiders.backend.dto.subreddit.SubredditResponseDto;
 import org.insiders.backend.dto.subreddit.SubredditUpdateRequestDto;
+import org.insiders.backend.entity.Subreddit;
 import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.FeedPage;
 import org.insiders.backend.model.PostModel;
+import org.insiders.backend.model.UserIdentity;
 import org.insiders.backend.service.PostManagementService;
+import org.insiders.backend.service.SubredditExportService;
 import org.insiders.backend.service.SubredditService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/subreddits")
 public class SubredditController {
     private final SubredditService subredditService;
     private final PostManagementService postManagementService;
+    private final SubredditExportService exportService;
     private final AsyncLogManager logger = AsyncLogManager.getInstance();
 
     @Autowired
-    public SubredditController(SubredditService subredditService, PostManagementService postManagementService) {
+    public SubredditController(SubredditService subredditService, PostManagementService postManagementService,
+                               SubredditExportService exportService) {
         this.subredditService = subredditService;
         this.postManagementService = postManagementService;
-        logger.log("INFO", "SubredditController initialized with endpoints:");
-        logger.log("INFO", "- GET /subreddits");
-        logger.log("INFO", "- GET /subreddits/{name}");
-        logger.log("INFO", "- POST /subreddits");
-        logger.log("INFO", "- GET /subreddits/{name}/posts");
-        logger.log("INFO", "- PUT /subreddits/{name}");
-        logger.log("INFO", "- DELETE /subreddits/{name}");
+        this.exportService = exportService;
+        logger.log(LogLevel.INFO, "SubredditController initialized with endpoints:");
+        logger.log(LogLevel.INFO, "- GET /subreddits");
+        logger.log(LogLevel.INFO, "- GET /subreddits/{name}");
+        logger.log(LogLevel.INFO, "- POST /subreddits");
+        logger.log(LogLevel.INFO, "- GET /subreddits/{name}/posts");
+        logger.log(LogLevel.INFO, "- GET /subreddits/{name}/export?gzip=true|false");
+        logger.log(LogLevel.INFO, "- PUT /subreddits/{name}");
+        logger.log(LogLevel.INFO, "- DELETE /subreddits/{name}");
     }
 
     @GetMapping()
     public ResponseEntity<ResponseApi<List<SubredditResponseDto>>> getAllSubreddits() {
         try {
-            logger.log("INFO", "GET request received for all subreddits");
+            logger.log(LogLevel.INFO, "GET request received for all subreddits");
 
             List<SubredditResponseDto> response = subredditService.getAllSubreddits();
 
-            logger.log("INFO", "Successfully retrieved " + response.size() + " subreddits");
+            logger.log(LogLevel.INFO, "Successfully retrieved {} subreddits", response.size());
             return ResponseEntity.ok(new ResponseApi<>(true, response, response.size()));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve subreddits: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve subreddits: {}", e.getMessage());
             throw e;
         }
     }
@@ -55,14 +72,14 @@ public class SubredditController {
     @GetMapping("/{name}")
     public ResponseEntity<ResponseApi<SubredditResponseDto>> getSubreddit(@PathVariable String name) {
         try {
-            logger.log("INFO", "GET request received for subreddit: " + name);
+            logger.log(LogLevel.INFO, "GET request received for subreddit: {}", name);
 
             SubredditResponseDto response = subredditService.getSubredditByName(name);
 
-            logger.log("INFO", "Successfully retrieved subreddit: " + name);
+            logger.log(LogLevel.INFO, "Successfully retrieved subreddit: {}", name);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve subreddit: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve subreddit: {}", e.getMessage());
             throw e;
         }
     }
@@ -71,30 +88,63 @@ public class SubredditController {
     @PostMapping()
     public ResponseEntity<ResponseApi<SubredditResponseDto>> createSubreddit(@Valid @RequestBody SubredditCreateRequestDto request) {
         try {
-            logger.log("INFO", "POST request received to create new subreddit");
+            logger.log(LogLevel.INFO, "POST request received to create new subreddit");
 
             SubredditResponseDto response = subredditService.createSubreddit(request);
 
-            logger.log("INFO", "Successfully created subreddit: " + response.name());
+            logger.log(LogLevel.INFO, "Successfully created subreddit: {}", response.name());
             return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to create subreddit: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to create subreddit: {}", e.getMessage());
             throw e;
         }
     }
 
     @GetMapping("/{name}/posts")
     public ResponseEntity<ResponseApi<List<PostModel>>> getPostsFromSubreddit(@PathVariable String name,
-                                                                              @RequestParam(defaultValue = "current_user") String username) {
+                                                                              @CurrentUser UserIdentity currentUser,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = "20") int limit) {
         try {
-            logger.log("INFO", "GET request received for posts in subreddit: " + name + " by user: " + username);
+            logger.log(LogLevel.INFO, "GET request received for posts in subreddit: {} by user: {}", name, currentUser.username());
 
-            List<PostModel> response = postManagementService.getAllPosts(name, username);
+            FeedPage page = postManagementService.getAllPosts(name, currentUser, cursor, limit);
 
-            logger.log("INFO", "Successfully retrieved " + response.size() + " posts from subreddit: " + name);
-            return ResponseEntity.ok(new ResponseApi<>(true, response));
+            logger.log(LogLevel.INFO, "Successfully retrieved {} posts from subreddit: {}", page.posts().size(), name);
+            return ResponseEntity.ok(new ResponseApi<>(true, page.posts(), page.nextCursor()));
+        } catch (Exception e) {
+            logger.log(LogLevel.ERROR, "Failed to retrieve posts from subreddit: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Streams the subreddit as NDJSON straight into the response, optionally gzipped; see {@link SubredditExportService}.
+     */
+    @GetMapping("/{name}/export")
+    public void exportSubreddit(@PathVariable String name,
+                                @RequestParam(defaultValue = "false") boolean gzip,
+                                HttpServletResponse response) throws IOException {
+        try {
+            logger.log(LogLevel.INFO, "GET request received to export subreddit: {} (gzip: {})", name, gzip);
+
+            Subreddit subreddit = exportService.findSubreddit(name);
+            String filename = subreddit.getName() + (gzip ? ".ndjson.gz" : ".ndjson");
+            response.setContentType(gzip ? "application/gzip" : MediaType.APPLICATION_NDJSON_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                // close, not just finish: only close releases the Deflater's native memory
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                    exportService.export(subreddit, compressed);
+                }
+            } else {
+                exportService.export(subreddit, out);
+            }
+            response.flushBuffer();
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve posts from subreddit: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to export subreddit: {}", e.getMessage());
             throw e;
         }
     }
@@ -102,14 +152,14 @@ public class SubredditController {
     @PutMapping("/{name}")
     public ResponseEntity<ResponseApi<SubredditResponseDto>> updateSubreddit(@PathVariable String name, @Valid @RequestBody SubredditUpdateRequestDto request) {
         try {
-            logger.log("INFO", "PUT request received to update subreddit: " + name);
+            logger.log(LogLevel.INFO, "PUT request received to update subreddit: {}", name);
 
             SubredditResponseDto response = subredditService.update(name, request);
 
-            logger.log("INFO", "Successfully updated subreddit: " + name);
+            logger.log(LogLevel.INFO, "Successfully updated subreddit: {}", name);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to update subreddit: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to update subreddit: {}", e.getMessage());
             throw e;
         }
     }
@@ -117,14 +167,14 @@ public class SubredditController {
     @DeleteMapping("/{name}")
     public ResponseEntity<ResponseApi<String>> deleteSubreddit(@PathVariable String name) {
         try {
-            logger.log("INFO", "DELETE request received for subreddit: " + name);
+            logger.log(LogLevel.INFO, "DELETE request received for subreddit: {}", name);
 
             subredditService.delete(name);
 
-            logger.log("INFO", "Successfully deleted subreddit: " + name);
+            logger.log(LogLevel.INFO, "Successfully deleted subreddit: {}", name);
             return ResponseEntity.ok(new ResponseApi<>(true, "Subreddit sters cu succes!"));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to delete subreddit: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to delete subreddit: {}", e.getMessage());
             throw e;
         }
     }
@@ -6,6 +6,7 @@ import org.insiders.backend.dto.user.LoginResponseDto;
 import org.insiders.backend.dto.user.UserCreateRequestDto;
 import org.insiders.backend.dto.user.UserResponseDto;
 import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
 import org.insiders.backend.service.IAuthService;
 import org.insiders.backend.service.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,24 +29,24 @@ public class UserController {
     public UserController(IUserService userManagementService, IAuthService authService) {
         this.userManagementService = userManagementService;
         this.authService = authService;
-        logger.log("INFO", "UserController initialized with endpoints:");
-        logger.log("INFO", "- POST /users");
-        logger.log("INFO", "- GET /users/{userId}");
-        logger.log("INFO", "- GET /users");
-        logger.log("INFO", "- POST /users/login");
+        logger.log(LogLevel.INFO, "UserController initialized with endpoints:");
+        logger.log(LogLevel.INFO, "- POST /users");
+        logger.log(LogLevel.INFO, "- GET /users/{userId}");
+        logger.log(LogLevel.INFO, "- GET /users");
+        logger.log(LogLevel.INFO, "- POST /users/login");
     }
 
     @PostMapping()
     public ResponseEntity<ResponseApi<UserResponseDto>> createUser(@Valid @RequestBody UserCreateRequestDto request) {
         try {
-            logger.log("INFO", "POST request received to create user with username: " + request.username());
+            logger.log(LogLevel.INFO, "POST request received to create user with username: {}", request.username());
 
             UserResponseDto response = userManagementService.saveUser(request.username(), request.email(), request.password());
 
-            logger.log("INFO", "Successfully created user with username: " + request.username());
+            logger.log(LogLevel.INFO, "Successfully created user with username: {}", request.username());
             return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to create user: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to create user: {}", e.getMessage());
             throw e;
         }
     }
@@ -53,14 +54,14 @@ public class UserController {
     @GetMapping("/{userId}")
     public ResponseEntity<ResponseApi<UserResponseDto>> getUser(@PathVariable UUID userId) {
         try {
-            logger.log("INFO", "GET request received for user ID: " + userId);
+            logger.log(LogLevel.INFO, "GET request received for user ID: {}", userId);
 
             UserResponseDto response = userManagementService.getUserById(userId);
 
-            logger.log("INFO", "Successfully retrieved user with ID: " + userId);
+            logger.log(LogLevel.INFO, "Successfully retrieved user with ID: {}", userId);
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve user: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve user: {}", e.getMessage());
             throw e;
         }
     }
@@ -68,14 +69,14 @@ public class UserController {
     @GetMapping()
     public ResponseEntity<ResponseApi<List<UserResponseDto>>> getUsers() {
         try {
-            logger.log("INFO", "GET request received for all users");
+            logger.log(LogLevel.INFO, "GET request received for all users");
 
             List<UserResponseDto> users = userManagementService.getAllUsers();
 
-            logger.log("INFO", "Successfully retrieved " + users.size() + " users");
+            logger.log(LogLevel.INFO, "Successfully retrieved {} users", users.size());
             return ResponseEntity.ok(new ResponseApi<>(true, users));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to retrieve users: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to retrieve users: {}", e.getMessage());
             throw e;
         }
     }
@@ -84,15 +85,15 @@ public class UserController {
     public ResponseEntity<ResponseApi<LoginResponseDto>> login(@Valid @RequestBody LoginRequestDto request) {
         try {
             // Remove reference to username() which doesn't exist
-            logger.log("INFO", "POST request received for login");
+            logger.log(LogLevel.INFO, "POST request received for login");
 
             LoginResponseDto response = authService.login(request);
 
             // Remove reference to username() which doesn't exist
-            logger.log("INFO", "Successfully logged in user");
+            logger.log(LogLevel.INFO, "Successfully logged in user");
             return ResponseEntity.ok(new ResponseApi<>(true, response));
         } catch (Exception e) {
-            logger.log("ERROR", "Failed to log in user: " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Failed to log in user: {}", e.getMessage());
             throw e;
         }
     }
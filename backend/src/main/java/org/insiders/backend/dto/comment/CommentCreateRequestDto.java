@@ -10,9 +10,6 @@ public record CommentCreateRequestDto(
         @Size(max = 1000)
         String content,
 
-        @NotBlank(message = "Username-ul autorului este obligatoriu")
-        String author,
-
         UUID parentId
 ) {
 }
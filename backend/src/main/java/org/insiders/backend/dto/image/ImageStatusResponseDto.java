@@ -0,0 +1,12 @@
+package org.insiders.backend.dto.image;
+
+import java.util.UUID;
+
+public record ImageStatusResponseDto(
+        UUID postId,
+        String status,
+        String imageUrl,
+        int attempts,
+        String error
+) {
+}
@@ -13,11 +13,6 @@ public record PostCreateRequestDto(
         @Size(max = 10000)
         String content,
 
-        @NotBlank(message = "Autorul este obligatoriu")
-        @Size(min = 3, max = 20, message = "Username-ul trebuie sa aiba intre 3 si 20 de caractere")
-        @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "Username-ul poate contine doar caractere alfanumerice si underscore")
-        String author,
-
         @NotBlank(message = "Subreddit-ul este obligatoriu")
         @Size(min = 3, max = 50, message = "Subreddit-ul trebuie sa aiba intre 3 si 50 de caractere")
         @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "Subreddit-ul poate contine doar caractere alfanumerice si underscore")
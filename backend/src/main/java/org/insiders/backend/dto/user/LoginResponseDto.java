@@ -4,6 +4,7 @@ import java.util.UUID;
 
 public record LoginResponseDto(
         UUID userId,
-        String username
+        String username,
+        String token
 ) {
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.insiders.backend.model.CommentPath;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -29,6 +30,16 @@ public class Comment {
     private User user;
     @Column(name = "is_edited", nullable = false)
     private boolean edited = false;
+    // counters are maintained with atomic UPDATEs in CommentRepository, never through the entity
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int upvotes;
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int downvotes;
+    // ancestor chain used for tree-ordered reads, see CommentPath
+    @Column(nullable = false, updatable = false)
+    private String path;
+    @Column(nullable = false, updatable = false)
+    private int depth;
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     @Column
@@ -37,13 +48,15 @@ public class Comment {
     public Comment() {
     }
 
-    public Comment(Post post, Comment parentComment, String content, User user) {
+    public Comment(Post post, Comment parentComment, String content, User user, long pathSequence) {
         this.id = UUID.randomUUID();
         this.post = post;
         this.parentComment = parentComment;
         this.content = content;
         this.user = user;
         this.edited = false;
+        this.path = CommentPath.child(parentComment != null ? parentComment.getPath() : null, pathSequence);
+        this.depth = parentComment != null ? parentComment.getDepth() + 1 : 0;
     }
 
     public UUID getId() {
@@ -74,6 +87,22 @@ public class Comment {
         return edited;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getUpvotes() {
+        return upvotes;
+    }
+
+    public int getDownvotes() {
+        return downvotes;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,6 +1,7 @@
 package org.insiders.backend.entity;
 
 import jakarta.persistence.*;
+import org.insiders.backend.model.ImageStatus;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -23,6 +24,13 @@ public class Post {
     @Column(columnDefinition = "TEXT")
     private String photoPath;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ImageStatus imageStatus;
+
+    @Column(length = 64)
+    private String imageKey;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
@@ -31,6 +39,16 @@ public class Post {
     @JoinColumn(name = "subreddit_id", nullable = false)
     private Subreddit subreddit;
 
+    // counters are maintained with atomic UPDATEs in PostRepository, never through the entity
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int upvotes;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int downvotes;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int commentCount;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -70,6 +88,18 @@ public class Post {
         return subreddit;
     }
 
+    public int getUpvotes() {
+        return upvotes;
+    }
+
+    public int getDownvotes() {
+        return downvotes;
+    }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -94,6 +124,18 @@ public class Post {
         this.photoPath = photoPath;
     }
 
+    public ImageStatus getImageStatus() {
+        return imageStatus;
+    }
+
+    public void setImageStatus(ImageStatus imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+
+    public String getImageKey() {
+        return imageKey;
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -0,0 +1,11 @@
+package org.insiders.backend.exceptions;
+
+public class ImageProcessorUnavailableException extends RuntimeException {
+    public ImageProcessorUnavailableException(String message) {
+        super(message);
+    }
+
+    public ImageProcessorUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
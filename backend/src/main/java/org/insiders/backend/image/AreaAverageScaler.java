@@ -0,0 +1,120 @@
+package org.insiders.backend.image;
+
+import java.util.Arrays;
+
+/**
+ * Downscaling by area averaging: every target pixel is the mean of the source area it covers,
+ * partially covered source pixels weighted by their overlap. Done as a horizontal and a vertical
+ * pass with precomputed weights, so the cost is proportional to the source size.
+ */
+public final class AreaAverageScaler {
+
+    private AreaAverageScaler() {
+    }
+
+    /**
+     * Scales to targetWidth, keeping the aspect ratio. Images already that narrow are returned as is.
+     */
+    public static PixelImage scaleToWidth(PixelImage source, int targetWidth, StripeExecutor executor) {
+        if (targetWidth >= source.width()) {
+            return source;
+        }
+        int targetHeight = (int) Math.max(1, Math.round((double) source.height() * targetWidth / source.width()));
+        return scale(source, targetWidth, targetHeight, executor);
+    }
+
+    public static PixelImage scale(PixelImage source, int targetWidth, int targetHeight, StripeExecutor executor) {
+        int width = source.width();
+        int height = source.height();
+        int[] src = source.pixels();
+        Coverage columns = Coverage.of(width, targetWidth);
+        Coverage rows = Coverage.of(height, targetHeight);
+
+        int[] horizontal = new int[targetWidth * height];
+        executor.forEachStripe(width, height, (fromRow, toRow) -> {
+            for (int y = fromRow; y < toRow; y++) {
+                int in = y * width;
+                int out = y * targetWidth;
+                for (int x = 0; x < targetWidth; x++) {
+                    float r = 0, g = 0, b = 0;
+                    for (int k = 0, j = columns.first[x], w = columns.offset[x]; k < columns.count[x]; k++, j++, w++) {
+                        int rgb = src[in + j];
+                        float weight = columns.weights[w];
+                        r += weight * ((rgb >> 16) & 0xFF);
+                        g += weight * ((rgb >> 8) & 0xFF);
+                        b += weight * (rgb & 0xFF);
+                    }
+                    horizontal[out + x] = PixelImage.pack(r, g, b);
+                }
+            }
+        });
+
+        PixelImage target = PixelImage.create(targetWidth, targetHeight);
+        int[] dst = target.pixels();
+        executor.forEachStripe(targetWidth, targetHeight, (fromRow, toRow) -> {
+            float[] r = new float[targetWidth];
+            float[] g = new float[targetWidth];
+            float[] b = new float[targetWidth];
+            for (int y = fromRow; y < toRow; y++) {
+                Arrays.fill(r, 0);
+                Arrays.fill(g, 0);
+                Arrays.fill(b, 0);
+                for (int k = 0, j = rows.first[y], w = rows.offset[y]; k < rows.count[y]; k++, j++, w++) {
+                    int in = j * targetWidth;
+                    float weight = rows.weights[w];
+                    for (int x = 0; x < targetWidth; x++) {
+                        int rgb = horizontal[in + x];
+                        r[x] += weight * ((rgb >> 16) & 0xFF);
+                        g[x] += weight * ((rgb >> 8) & 0xFF);
+                        b[x] += weight * (rgb & 0xFF);
+                    }
+                }
+                int out = y * targetWidth;
+                for (int x = 0; x < targetWidth; x++) {
+                    dst[out + x] = PixelImage.pack(r[x], g[x], b[x]);
+                }
+            }
+        });
+        return target;
+    }
+
+    /**
+     * For every target index along one axis: the first source index it covers, how many, and
+     * where its normalized weights start in {@code weights}.
+     */
+    private static final class Coverage {
+        final int[] first;
+        final int[] count;
+        final int[] offset;
+        final float[] weights;
+
+        private Coverage(int[] first, int[] count, int[] offset, float[] weights) {
+            this.first = first;
+            this.count = count;
+            this.offset = offset;
+            this.weights = weights;
+        }
+
+        static Coverage of(int sourceSize, int targetSize) {
+            double scale = (double) sourceSize / targetSize;
+            int[] first = new int[targetSize];
+            int[] count = new int[targetSize];
+            int[] offset = new int[targetSize];
+            float[] weights = new float[targetSize * ((int) Math.ceil(scale) + 1)];
+            int next = 0;
+            for (int i = 0; i < targetSize; i++) {
+                double start = i * scale;
+                double end = Math.min((i + 1) * scale, sourceSize);
+                int from = (int) start;
+                int to = Math.min((int) Math.ceil(end), sourceSize);
+                first[i] = from;
+                count[i] = to - from;
+                offset[i] = next;
+                for (int j = from; j < to; j++) {
+                    weights[next++] = (float) ((Math.min(end, j + 1) - Math.max(start, j)) / scale);
+                }
+            }
+            return new Coverage(first, count, offset, weights);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.insiders.backend.image;
+
+/**
+ * Gaussian blur, done as two separable passes.
+ */
+public class BlurFilter implements ImageFilter {
+    private final float[] kernel;
+
+    public BlurFilter() {
+        this(3);
+    }
+
+    public BlurFilter(int radius) {
+        this.kernel = SeparableConvolution.gaussianKernel(radius);
+    }
+
+    @Override
+    public void apply(PixelImage image, StripeExecutor executor) {
+        SeparableConvolution.convolve(image.pixels(), image.pixels(), image.width(), image.height(), kernel, executor);
+    }
+}
@@ -0,0 +1,23 @@
+package org.insiders.backend.image;
+
+/**
+ * Scales every channel by a constant factor through a 256-entry lookup table.
+ */
+public class BrightnessFilter extends PointFilter {
+    private final int[] table = new int[256];
+
+    public BrightnessFilter() {
+        this(1.25f);
+    }
+
+    public BrightnessFilter(float factor) {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = PixelImage.clamp(i * factor);
+        }
+    }
+
+    @Override
+    protected int filter(int rgb) {
+        return (table[(rgb >> 16) & 0xFF] << 16) | (table[(rgb >> 8) & 0xFF] << 8) | table[rgb & 0xFF];
+    }
+}
@@ -0,0 +1,36 @@
+package org.insiders.backend.image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filters applied one after the other to the same pixel buffer.
+ */
+public final class FilterPipeline implements ImageFilter {
+    private final List<ImageFilter> filters;
+
+    private FilterPipeline(List<ImageFilter> filters) {
+        this.filters = List.copyOf(filters);
+    }
+
+    public static FilterPipeline of(ImageFilter... filters) {
+        return new FilterPipeline(List.of(filters));
+    }
+
+    public FilterPipeline then(ImageFilter filter) {
+        List<ImageFilter> next = new ArrayList<>(filters);
+        next.add(filter);
+        return new FilterPipeline(next);
+    }
+
+    public boolean isEmpty() {
+        return filters.isEmpty();
+    }
+
+    @Override
+    public void apply(PixelImage image, StripeExecutor executor) {
+        for (ImageFilter filter : filters) {
+            filter.apply(image, executor);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.insiders.backend.image;
+
+/**
+ * Rec. 601 luma in fixed point: (77 R + 150 G + 29 B) / 256.
+ */
+public class GrayscaleFilter extends PointFilter {
+
+    @Override
+    protected int filter(int rgb) {
+        int luma = (77 * ((rgb >> 16) & 0xFF) + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF)) >> 8;
+        return (luma << 16) | (luma << 8) | luma;
+    }
+}
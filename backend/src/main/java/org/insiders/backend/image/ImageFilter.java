@@ -0,0 +1,14 @@
+package org.insiders.backend.image;
+
+/**
+ * One image operation, applied in place to the pixels of a {@link PixelImage}.
+ * Implementations split their work into row ranges through the given {@link StripeExecutor}.
+ */
+@FunctionalInterface
+public interface ImageFilter {
+    void apply(PixelImage image, StripeExecutor executor);
+
+    default void apply(PixelImage image) {
+        apply(image, StripeExecutor.SEQUENTIAL);
+    }
+}
@@ -0,0 +1,29 @@
+package org.insiders.backend.image;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The filters listed by {@code ImageFilterController}, by the name the remote processor knows
+ * them under, with the engine's default parameters.
+ */
+public final class ImageFilters {
+    private static final Map<String, Supplier<ImageFilter>> BY_NAME = Map.of(
+            "BlurFilter", BlurFilter::new,
+            "BrightnessFilter", BrightnessFilter::new,
+            "GrayscaleFilter", GrayscaleFilter::new,
+            "InvertFilter", InvertFilter::new,
+            "NoiseFilter", NoiseFilter::new,
+            "SepiaFilter", SepiaFilter::new,
+            "SharpenFilter", SharpenFilter::new,
+            "TintFilter", TintFilter::new);
+
+    private ImageFilters() {
+    }
+
+    public static Optional<ImageFilter> byName(String name) {
+        Supplier<ImageFilter> filter = BY_NAME.get(name);
+        return filter == null ? Optional.empty() : Optional.of(filter.get());
+    }
+}
@@ -0,0 +1,11 @@
+package org.insiders.backend.image;
+
+/**
+ * Format and dimensions of an image as its header declares them, read by {@link PixelImage#probe}
+ * without decoding any pixels. format is the file extension images of that format are stored with.
+ */
+public record ImageHeader(String format, int width, int height) {
+    public long pixels() {
+        return (long) width * height;
+    }
+}
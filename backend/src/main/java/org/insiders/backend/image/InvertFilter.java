@@ -0,0 +1,9 @@
+package org.insiders.backend.image;
+
+public class InvertFilter extends PointFilter {
+
+    @Override
+    protected int filter(int rgb) {
+        return ~rgb & 0xFFFFFF;
+    }
+}
@@ -0,0 +1,40 @@
+package org.insiders.backend.image;
+
+import java.util.SplittableRandom;
+
+/**
+ * Adds uniform noise in [-amount, amount] to every channel. Each row gets its own generator
+ * seeded from the row index, so the output is the same however the rows are split into stripes.
+ */
+public class NoiseFilter implements ImageFilter {
+    private final int amount;
+    private final long seed;
+
+    public NoiseFilter() {
+        this(25, 42L);
+    }
+
+    public NoiseFilter(int amount, long seed) {
+        this.amount = amount;
+        this.seed = seed;
+    }
+
+    @Override
+    public void apply(PixelImage image, StripeExecutor executor) {
+        int bound = 2 * amount + 1;
+        int[] pixels = image.pixels();
+        int width = image.width();
+        executor.forEachStripe(width, image.height(), (fromRow, toRow) -> {
+            for (int y = fromRow; y < toRow; y++) {
+                SplittableRandom random = new SplittableRandom(seed * 31 + y);
+                for (int i = y * width, end = i + width; i < end; i++) {
+                    int rgb = pixels[i];
+                    pixels[i] = PixelImage.pack(
+                            ((rgb >> 16) & 0xFF) + random.nextInt(bound) - amount,
+                            ((rgb >> 8) & 0xFF) + random.nextInt(bound) - amount,
+                            (rgb & 0xFF) + random.nextInt(bound) - amount);
+                }
+            }
+        });
+    }
+}
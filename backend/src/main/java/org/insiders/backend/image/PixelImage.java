@@ -0,0 +1,147 @@
+package org.insiders.backend.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An RGB image whose pixels are the packed 0xRRGGBB ints of a TYPE_INT_RGB BufferedImage.
+ * {@link #pixels()} is the raster's own DataBufferInt array, so filters write straight into
+ * the image that gets encoded.
+ */
+public final class PixelImage {
+    // the formats the remote processor accepted, by ImageIO reader name, with the extension they are stored under
+    private static final Map<String, String> RASTER_FORMATS = Map.of("jpeg", "jpg", "png", "png", "bmp", "bmp");
+
+    private final BufferedImage image;
+    private final int[] pixels;
+
+    private PixelImage(BufferedImage image) {
+        this.image = image;
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    public static PixelImage decode(byte[] bytes) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(bytes));
+        if (source == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return of(source);
+    }
+
+    /**
+     * Decodes straight from the file, without reading it into a byte array first.
+     */
+    public static PixelImage decode(Path file) throws IOException {
+        BufferedImage source = ImageIO.read(file.toFile());
+        if (source == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return of(source);
+    }
+
+    /**
+     * Format and dimensions of the file, identified from its content rather than its name; empty
+     * when it is not a readable JPEG, PNG or BMP image.
+     */
+    public static Optional<ImageHeader> probe(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) {
+                return Optional.empty();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            while (readers.hasNext()) {
+                ImageReader reader = readers.next();
+                String format = RASTER_FORMATS.get(reader.getFormatName().toLowerCase(Locale.ROOT));
+                if (format == null) {
+                    continue;
+                }
+                try {
+                    reader.setInput(in, true, true);
+                    return Optional.of(new ImageHeader(format, reader.getWidth(0), reader.getHeight(0)));
+                } catch (IOException | RuntimeException e) {
+                    return Optional.empty();
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static PixelImage create(int width, int height) {
+        return new PixelImage(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    public static PixelImage of(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return new PixelImage(source);
+        }
+        // transparent areas end up white, the same as the JPEG the remote processor returns
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.drawImage(source, 0, 0, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return new PixelImage(rgb);
+    }
+
+    public int width() {
+        return image.getWidth();
+    }
+
+    public int height() {
+        return image.getHeight();
+    }
+
+    public int[] pixels() {
+        return pixels;
+    }
+
+    public BufferedImage toBufferedImage() {
+        return image;
+    }
+
+    public byte[] encodeJpeg() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pixels.length / 4);
+        writeJpeg(out);
+        return out.toByteArray();
+    }
+
+    public void writeJpeg(OutputStream out) throws IOException {
+        if (!ImageIO.write(image, "jpg", out)) {
+            throw new IOException("No JPEG writer available");
+        }
+    }
+
+    static int pack(float r, float g, float b) {
+        return (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    static int pack(int r, int g, int b) {
+        return (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    static int clamp(float value) {
+        return clamp((int) (value + 0.5f));
+    }
+
+    static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+}
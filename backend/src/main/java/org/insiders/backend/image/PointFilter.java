@@ -0,0 +1,23 @@
+package org.insiders.backend.image;
+
+/**
+ * A filter that maps every pixel on its own, without looking at its neighbours.
+ */
+public abstract class PointFilter implements ImageFilter {
+
+    @Override
+    public void apply(PixelImage image, StripeExecutor executor) {
+        int[] pixels = image.pixels();
+        int width = image.width();
+        executor.forEachStripe(width, image.height(), (fromRow, toRow) -> {
+            for (int i = fromRow * width, end = toRow * width; i < end; i++) {
+                pixels[i] = filter(pixels[i]);
+            }
+        });
+    }
+
+    /**
+     * Maps one packed 0xRRGGBB pixel.
+     */
+    protected abstract int filter(int rgb);
+}
@@ -0,0 +1,9 @@
+package org.insiders.backend.image;
+
+/**
+ * Work over the image rows [fromRow, toRow).
+ */
+@FunctionalInterface
+public interface RowRange {
+    void run(int fromRow, int toRow);
+}
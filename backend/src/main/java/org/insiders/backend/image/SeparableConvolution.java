@@ -0,0 +1,103 @@
+package org.insiders.backend.image;
+
+import java.util.Arrays;
+
+/**
+ * Convolution with a symmetric kernel that factors into a horizontal and a vertical 1D pass,
+ * O(k) work per pixel instead of O(k^2). Edges are handled by clamping to the border pixel.
+ */
+public final class SeparableConvolution {
+
+    private SeparableConvolution() {
+    }
+
+    /**
+     * Normalized Gaussian kernel of 2 * radius + 1 taps.
+     */
+    public static float[] gaussianKernel(int radius) {
+        float sigma = Math.max(radius / 2f, 0.5f);
+        float[] kernel = new float[2 * radius + 1];
+        float sum = 0;
+        for (int i = -radius; i <= radius; i++) {
+            float weight = (float) Math.exp(-(i * i) / (2 * sigma * sigma));
+            kernel[i + radius] = weight;
+            sum += weight;
+        }
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] /= sum;
+        }
+        return kernel;
+    }
+
+    /**
+     * Convolves src into dst (both width * height packed RGB). dst may be the same array as src.
+     */
+    public static void convolve(int[] src, int[] dst, int width, int height, float[] kernel) {
+        convolve(src, dst, width, height, kernel, StripeExecutor.SEQUENTIAL);
+    }
+
+    /**
+     * Striped version of {@link #convolve(int[], int[], int, int, float[])}. Every stripe's
+     * vertical pass reads kernel radius rows above and below the stripe (its halo), so the
+     * horizontal pass finishes for all stripes before any vertical pass starts; the vertical
+     * pass only reads the intermediate buffer, which keeps dst == src safe.
+     */
+    public static void convolve(int[] src, int[] dst, int width, int height, float[] kernel, StripeExecutor executor) {
+        int[] horizontal = new int[src.length];
+        executor.forEachStripe(width, height, (from, to) -> horizontalPass(src, horizontal, width, kernel, from, to));
+        executor.forEachStripe(width, height, (from, to) -> verticalPass(horizontal, dst, width, height, kernel, from, to));
+    }
+
+    /**
+     * Horizontal pass over rows [fromRow, toRow).
+     */
+    public static void horizontalPass(int[] src, int[] dst, int width, float[] kernel, int fromRow, int toRow) {
+        int radius = kernel.length / 2;
+        for (int y = fromRow; y < toRow; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                float r = 0, g = 0, b = 0;
+                for (int k = -radius; k <= radius; k++) {
+                    int xx = x + k;
+                    int rgb = src[row + (xx < 0 ? 0 : (xx >= width ? width - 1 : xx))];
+                    float weight = kernel[k + radius];
+                    r += weight * ((rgb >> 16) & 0xFF);
+                    g += weight * ((rgb >> 8) & 0xFF);
+                    b += weight * (rgb & 0xFF);
+                }
+                dst[row + x] = PixelImage.pack(r, g, b);
+            }
+        }
+    }
+
+    /**
+     * Vertical pass producing rows [fromRow, toRow); reads up to radius rows above and below.
+     * Rows are accumulated whole so the inner loop walks memory sequentially.
+     */
+    public static void verticalPass(int[] src, int[] dst, int width, int height, float[] kernel, int fromRow, int toRow) {
+        int radius = kernel.length / 2;
+        float[] r = new float[width];
+        float[] g = new float[width];
+        float[] b = new float[width];
+        for (int y = fromRow; y < toRow; y++) {
+            Arrays.fill(r, 0);
+            Arrays.fill(g, 0);
+            Arrays.fill(b, 0);
+            for (int k = -radius; k <= radius; k++) {
+                int yy = y + k;
+                int row = (yy < 0 ? 0 : (yy >= height ? height - 1 : yy)) * width;
+                float weight = kernel[k + radius];
+                for (int x = 0; x < width; x++) {
+                    int rgb = src[row + x];
+                    r[x] += weight * ((rgb >> 16) & 0xFF);
+                    g[x] += weight * ((rgb >> 8) & 0xFF);
+                    b[x] += weight * (rgb & 0xFF);
+                }
+            }
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                dst[row + x] = PixelImage.pack(r[x], g[x], b[x]);
+            }
+        }
+    }
+}
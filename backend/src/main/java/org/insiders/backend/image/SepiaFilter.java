@@ -0,0 +1,18 @@
+package org.insiders.backend.image;
+
+/**
+ * The usual sepia colour matrix.
+ */
+public class SepiaFilter extends PointFilter {
+
+    @Override
+    protected int filter(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return PixelImage.pack(
+                0.393f * r + 0.769f * g + 0.189f * b,
+                0.349f * r + 0.686f * g + 0.168f * b,
+                0.272f * r + 0.534f * g + 0.131f * b);
+    }
+}
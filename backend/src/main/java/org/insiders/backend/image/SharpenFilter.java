@@ -0,0 +1,41 @@
+package org.insiders.backend.image;
+
+/**
+ * Unsharp mask: adds amount * (original - gaussian blur) back to every pixel, so the only
+ * convolution involved is the separable blur.
+ */
+public class SharpenFilter implements ImageFilter {
+    private final float[] kernel;
+    private final float amount;
+
+    public SharpenFilter() {
+        this(1, 1.5f);
+    }
+
+    public SharpenFilter(int radius, float amount) {
+        this.kernel = SeparableConvolution.gaussianKernel(radius);
+        this.amount = amount;
+    }
+
+    @Override
+    public void apply(PixelImage image, StripeExecutor executor) {
+        int[] pixels = image.pixels();
+        int width = image.width();
+        int[] blurred = new int[pixels.length];
+        SeparableConvolution.convolve(pixels, blurred, width, image.height(), kernel, executor);
+        executor.forEachStripe(width, image.height(), (fromRow, toRow) -> {
+            for (int i = fromRow * width, end = toRow * width; i < end; i++) {
+                int rgb = pixels[i];
+                int soft = blurred[i];
+                pixels[i] = PixelImage.pack(
+                        sharpen((rgb >> 16) & 0xFF, (soft >> 16) & 0xFF),
+                        sharpen((rgb >> 8) & 0xFF, (soft >> 8) & 0xFF),
+                        sharpen(rgb & 0xFF, soft & 0xFF));
+            }
+        });
+    }
+
+    private float sharpen(int value, int blurred) {
+        return value + amount * (value - blurred);
+    }
+}
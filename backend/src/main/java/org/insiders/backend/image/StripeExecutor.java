@@ -0,0 +1,112 @@
+package org.insiders.backend.image;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits an image into horizontal stripes and runs them on a dedicated ForkJoinPool.
+ * A single image never uses more than {@code maxStripesPerImage} stripes, so one huge upload
+ * takes at most that many workers and stripes from other uploads keep getting scheduled.
+ * Small images are not split at all and run on the calling thread.
+ */
+public final class StripeExecutor implements AutoCloseable {
+    public static final StripeExecutor SEQUENTIAL = new StripeExecutor(null, 1, Integer.MAX_VALUE);
+
+    private static final int DEFAULT_MIN_PIXELS_PER_STRIPE = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int maxStripesPerImage;
+    private final int minPixelsPerStripe;
+
+    private StripeExecutor(ForkJoinPool pool, int maxStripesPerImage, int minPixelsPerStripe) {
+        this.pool = pool;
+        this.maxStripesPerImage = maxStripesPerImage;
+        this.minPixelsPerStripe = minPixelsPerStripe;
+    }
+
+    /**
+     * @param threads            pool size, 0 for one thread per available processor
+     * @param maxStripesPerImage upper bound on the stripes (and so the workers) a single image gets
+     */
+    public static StripeExecutor create(int threads, int maxStripesPerImage) {
+        return create(threads, maxStripesPerImage, DEFAULT_MIN_PIXELS_PER_STRIPE);
+    }
+
+    public static StripeExecutor create(int threads, int maxStripesPerImage, int minPixelsPerStripe) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        if (parallelism == 1 || maxStripesPerImage <= 1) {
+            return SEQUENTIAL;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism, StripeExecutor::newWorker, null, false);
+        return new StripeExecutor(pool, Math.min(maxStripesPerImage, parallelism), Math.max(minPixelsPerStripe, 1));
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("image-filter-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public int parallelism() {
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    public int maxStripesPerImage() {
+        return maxStripesPerImage;
+    }
+
+    /**
+     * Runs body over [0, height) split into stripes and returns once every stripe is done.
+     */
+    public void forEachStripe(int width, int height, RowRange body) {
+        int stripes = stripeCount(width, height);
+        if (stripes <= 1) {
+            body.run(0, height);
+            return;
+        }
+
+        List<RecursiveAction> tasks = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int from = (int) ((long) height * i / stripes);
+            int to = (int) ((long) height * (i + 1) / stripes);
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    body.run(from, to);
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+    }
+
+    private int stripeCount(int width, int height) {
+        if (pool == null) {
+            return 1;
+        }
+        long bySize = (long) width * height / minPixelsPerStripe;
+        return (int) Math.max(1, Math.min(Math.min(bySize, maxStripesPerImage), height));
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
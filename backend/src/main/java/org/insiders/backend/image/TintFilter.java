@@ -0,0 +1,34 @@
+package org.insiders.backend.image;
+
+/**
+ * Blends every pixel towards a colour; the default is the blue of the "Blue Tint" filter.
+ */
+public class TintFilter extends PointFilter {
+    private final int red;
+    private final int green;
+    private final int blue;
+    private final float strength;
+
+    public TintFilter() {
+        this(0x3366CC, 0.3f);
+    }
+
+    public TintFilter(int rgb, float strength) {
+        this.red = (rgb >> 16) & 0xFF;
+        this.green = (rgb >> 8) & 0xFF;
+        this.blue = rgb & 0xFF;
+        this.strength = strength;
+    }
+
+    @Override
+    protected int filter(int rgb) {
+        return PixelImage.pack(
+                blend((rgb >> 16) & 0xFF, red),
+                blend((rgb >> 8) & 0xFF, green),
+                blend(rgb & 0xFF, blue));
+    }
+
+    private float blend(int value, int tint) {
+        return value + strength * (tint - value);
+    }
+}
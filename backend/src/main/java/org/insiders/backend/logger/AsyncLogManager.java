@@ -1,75 +1,228 @@
 package org.insiders.backend.logger;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 public class AsyncLogManager {
-    private static AsyncLogManager instance;
-    private final List<ILogger> loggers = new CopyOnWriteArrayList<>();  //lista de logari(ConsoleLogger, FileLogger)
-    private final BlockingQueue<LogEntry> logQueue = new LinkedBlockingQueue<>();  //coada unde sunt stocate logarile(BlockingQueue e Thread-Safe)
+    public static final int CAPACITY = 8192;
+
+    //ce se intampla cand coada e plina: DROP pierde mesajul (si il numara), BLOCK asteapta loc in coada
+    public enum OverflowPolicy { DROP, BLOCK }
+
+    //un logger impreuna cu nivelul minim pe care il primeste
+    private record Registration(ILogger logger, LogLevel minimumLevel) {}
+
+    private final List<Registration> loggers = new CopyOnWriteArrayList<>();  //lista de logari(ConsoleLogger, FileLogger)
+    private volatile LogLevel threshold = LogLevel.DEBUG;  //cel mai mic nivel cerut de vreun logger; sub el mesajul nici nu se construieste
+    private final BlockingQueue<LogEntry> logQueue = new ArrayBlockingQueue<>(CAPACITY);  //buffer circular marginit(Thread-Safe)
+    private final LongAdder dropped = new LongAdder();  //numarul de mesaje pierdute cand coada a fost plina
     private final Thread workerThread;  //thread pentru coada de loguri
     private volatile boolean running = true;   //flag pentru a putea opri threadul
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private volatile int batchSize = 256;
+    private volatile long idleFlushMillis = 200;
 
     //creez un thread care va rula metoda processQueue
     private AsyncLogManager() {
-        workerThread = new Thread(this::processQueue);
+        workerThread = new Thread(this::processQueue, "async-log");
+        workerThread.setDaemon(true);
         workerThread.start();
     }
 
-    public static synchronized AsyncLogManager getInstance() {
-        if(instance == null){
-            instance = new AsyncLogManager();
-        }
-        return instance;
+    //instanta se creeaza la prima folosire a clasei Holder; getInstance nu mai ia niciun lock (un synchronized ar bloca si carrier-ul unui virtual thread)
+    private static final class Holder {
+        private static final AsyncLogManager INSTANCE = new AsyncLogManager();
     }
 
-    //metoda pentru oprire fortata a loggerului
+    public static AsyncLogManager getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    //opreste threadul dupa ce goleste coada; nu il intrerup, un FileChannel intrerupt in timpul scrierii se inchide
     public void shutdown() {
         running = false;
-        workerThread.interrupt();  //trezeste threadul daca e blocat de take()
+        try {
+            workerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public void addLogger(ILogger logger) {
-        loggers.add(logger);
+        addLogger(logger, LogLevel.DEBUG);
+    }
+
+    public void addLogger(ILogger logger, LogLevel minimumLevel) {
+        loggers.add(new Registration(logger, minimumLevel));
+        updateThreshold();
     }
 
     public void removeLogger(ILogger logger) {
-        loggers.remove(logger);
+        loggers.removeIf(registration -> registration.logger() == logger);
+        updateThreshold();
+    }
+
+    //fara niciun logger inregistrat pastrez tot: processQueue nu goleste coada, mesajele asteapta in ea pana apare unul (peste CAPACITY se aplica politica de coada plina)
+    private void updateThreshold() {
+        LogLevel lowest = LogLevel.FATAL;
+        for (Registration registration : loggers) {
+            if (!registration.minimumLevel().isAtLeast(lowest)) {
+                lowest = registration.minimumLevel();
+            }
+        }
+        threshold = loggers.isEmpty() ? LogLevel.DEBUG : lowest;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    //cate mesaje preia threadul dintr-o trezire
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    //cat asteapta threadul dupa mesaje inainte sa faca flush oricum (pentru fsync periodic)
+    public void setIdleFlushMillis(long idleFlushMillis) {
+        this.idleFlushMillis = Math.max(1, idleFlushMillis);
+    }
+
+    public LogStats stats() {
+        return new LogStats(dropped.sum(), logQueue.size(), CAPACITY, overflowPolicy.name());
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.isAtLeast(threshold);
+    }
+
+    public void log(LogLevel level, String message) {
+        if (isEnabled(level)) {
+            enqueue(new LogEntry(level, message));
+        }
+    }
+
+    //variantele cu {} construiesc mesajul doar daca nivelul e activ; cele cu 1-3 argumente nu aloca nici tabloul de varargs
+    public void log(LogLevel level, String pattern, Object arg) {
+        if (isEnabled(level)) {
+            enqueue(new LogEntry(level, format(pattern, arg)));
+        }
     }
 
-    //creeaza o intrare(LogEntry) si o pune in coada
-    public void log(String level, String message) {
-        logQueue.offer(new LogEntry(level, message));
+    public void log(LogLevel level, String pattern, Object arg1, Object arg2) {
+        if (isEnabled(level)) {
+            enqueue(new LogEntry(level, format(pattern, arg1, arg2)));
+        }
+    }
+
+    public void log(LogLevel level, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(level)) {
+            enqueue(new LogEntry(level, format(pattern, arg1, arg2, arg3)));
+        }
+    }
+
+    public void log(LogLevel level, String pattern, Object... args) {
+        if (isEnabled(level)) {
+            enqueue(new LogEntry(level, format(pattern, args)));
+        }
+    }
+
+    public void log(LogLevel level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            enqueue(new LogEntry(level, message.get()));
+        }
+    }
+
+    //inlocuieste pe rand fiecare {} din pattern cu urmatorul argument
+    static String format(String pattern, Object... args) {
+        StringBuilder result = new StringBuilder(pattern.length() + 16 * args.length);
+        int from = 0;
+        for (Object arg : args) {
+            int at = pattern.indexOf("{}", from);
+            if (at < 0) {
+                break;
+            }
+            result.append(pattern, from, at).append(arg);
+            from = at + 2;
+        }
+        return result.append(pattern, from, pattern.length()).toString();
+    }
+
+    //pune intrarea in coada respectand politica pentru coada plina
+    private void enqueue(LogEntry entry) {
+        if (overflowPolicy == OverflowPolicy.BLOCK && running) {
+            try {
+                logQueue.put(entry);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!logQueue.offer(entry)) {
+            dropped.increment();
+        }
     }
 
-    //metoda care ruleaza continuu cat timp flagul este setat la true sau coada nu este goala(ruleaza pe fundal)
+    //preia pana la batchSize mesaje deodata, le scrie la toti logarii si apoi face un singur flush pe lot
     private void processQueue() {
+        List<LogEntry> batch = new ArrayList<>();
         while (running || !logQueue.isEmpty()) {
             try {
-                LogEntry entry = logQueue.take();  //asteapta un mesaj in coada. cand il detecteaza il preia. daca nu e niciun mesaj in coada, take() blocheaza threadul pana apare un log
-                for (ILogger logger : loggers) {  //transmit mesajul catre toti logarii activi(ConsoleLogger, FileLogger)
-                    switch (entry.level) {
-                        case "DEBUG":  logger.logDebug(entry.message); break;
-                        case "INFO":   logger.logInfo(entry.message); break;
-                        case "WARNING":logger.logWarning(entry.message); break;
-                        case "ERROR":  logger.logError(entry.message); break;
-                        case "FATAL":  logger.logFatal(entry.message); break;
+                //fara logari nu scot nimic din coada, altfel mesajele s-ar pierde; la oprire nu mai am cui sa le dau
+                if (loggers.isEmpty()) {
+                    if (!running) {
+                        break;
                     }
-
+                    Thread.sleep(idleFlushMillis);
+                    continue;
+                }
+                LogEntry first = logQueue.poll(idleFlushMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    logQueue.drainTo(batch, batchSize - 1);
+                }
+                for (Registration registration : loggers) {  //transmit mesajele catre toti logarii activi(ConsoleLogger, FileLogger)
+                    for (LogEntry entry : batch) {
+                        if (entry.level.isAtLeast(registration.minimumLevel())) {
+                            dispatch(registration.logger(), entry);
+                        }
+                    }
+                    registration.logger().flush();
                 }
+                batch.clear();
             } catch (InterruptedException ignored) {}
         }
+
+        for (Registration registration : loggers) {
+            registration.logger().close();
+        }
+        if (dropped.sum() > 0) {
+            System.err.println("AsyncLogManager: " + dropped.sum() + " log messages dropped because the queue was full");
+        }
+    }
+
+    private static void dispatch(ILogger logger, LogEntry entry) {
+        switch (entry.level) {
+            case DEBUG -> logger.logDebug(entry.message);
+            case INFO -> logger.logInfo(entry.message);
+            case WARNING -> logger.logWarning(entry.message);
+            case ERROR -> logger.logError(entry.message);
+            case FATAL -> logger.logFatal(entry.message);
+        }
     }
 
     private static class LogEntry {
-        final String level;
+        final LogLevel level;
         final String message;
 
-        LogEntry(String level, String message) {
+        LogEntry(LogLevel level, String message) {
             this.level = level;
             this.message = message;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,31 @@
 package org.insiders.backend.logger;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
-
+/**
+ * Appends to one log file through a channel that stays open for the life of the logger.
+ * Lines are buffered until {@link #flush()}, which AsyncLogManager calls once per batch;
+ * the data is forced to disk at most every fsyncIntervalMillis. Only the logging thread
+ * calls into this class.
+ */
 public class FileLogger implements ILogger {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final String logFile;
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private final long fsyncIntervalNanos;
+    private FileChannel channel;
+    private Writer writer;
+    private long lastSync = System.nanoTime();
 
     @Override
     public void log(String message) {
@@ -17,7 +33,19 @@ public class FileLogger implements ILogger {
     }
 
     public FileLogger(String logFile) {
+        this(logFile, 1000);
+    }
+
+    public FileLogger(String logFile, long fsyncIntervalMillis) {
         this.logFile = logFile;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000L;
+        try {
+            channel = FileChannel.open(Path.of(logFile),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            System.err.println("Failed to open log file " + logFile + ": " + e.getMessage());
+        }
     }
 
     @Override
@@ -45,12 +73,49 @@ public class FileLogger implements ILogger {
         writeToFile("FATAL", message);
     }
 
+    @Override
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            long now = System.nanoTime();
+            if (now - lastSync >= fsyncIntervalNanos) {
+                channel.force(false);
+                lastSync = now;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to flush log file " + logFile + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            channel.force(false);
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close log file " + logFile + ": " + e.getMessage());
+        } finally {
+            writer = null;
+        }
+    }
+
     private void writeToFile(String level, String message) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(logFile, true))) {
+        if (writer == null) {
+            return;
+        }
+        try {
             LocalDateTime now = LocalDateTime.now();
-            writer.println(now.format(formatter) + " " + level + ": " + message);
+            writer.write(now.format(formatter) + " " + level + ": " + message);
+            writer.write(System.lineSeparator());
         } catch (IOException e) {
             System.err.println("Failed to write to log file: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -13,4 +13,12 @@ public interface ILogger {
     void logError(String message);
 
     void logFatal(String message);
+
+    // called after every batch of messages; buffered loggers write out what they hold
+    default void flush() {
+    }
+
+    default void close() {
+        flush();
+    }
 }
@@ -0,0 +1,15 @@
+package org.insiders.backend.logger;
+
+//nivelurile in ordinea importantei; un logger primeste doar mesajele de la nivelul lui minim in sus
+public enum LogLevel {
+    DEBUG, INFO, WARNING, ERROR, FATAL;
+
+    public boolean isAtLeast(LogLevel minimum) {
+        return ordinal() >= minimum.ordinal();
+    }
+
+    public static LogLevel parse(String value) {
+        String normalized = value.trim().toUpperCase();
+        return normalized.equals("WARN") ? WARNING : valueOf(normalized);
+    }
+}
@@ -0,0 +1,4 @@
+package org.insiders.backend.logger;
+
+public record LogStats(long dropped, int queued, int capacity, String overflowPolicy) {
+}
@@ -1,32 +1,58 @@
 package org.insiders.backend.logger;
 
+import java.util.function.Supplier;
+
 public class LoggerFacade {
     private static final AsyncLogManager manager = AsyncLogManager.getInstance();
 
     public static void debug(String message) {
-        manager.log("DEBUG",message);
+        manager.log(LogLevel.DEBUG, message);
     }
 
     public static void info(String message) {
-        manager.log("INFO",message);
+        manager.log(LogLevel.INFO, message);
     }
 
     public static void warning(String message) {
-        manager.log("WARNING",message);
+        manager.log(LogLevel.WARNING, message);
     }
 
     public static void error(String message) {
-        manager.log("ERROR",message);
+        manager.log(LogLevel.ERROR, message);
     }
 
     public static void fatal(String message) {
-        manager.log("FATAL",message);
+        manager.log(LogLevel.FATAL, message);
+    }
+
+    public static void log(LogLevel level, String pattern, Object arg) {
+        manager.log(level, pattern, arg);
+    }
+
+    public static void log(LogLevel level, String pattern, Object arg1, Object arg2) {
+        manager.log(level, pattern, arg1, arg2);
+    }
+
+    public static void log(LogLevel level, String pattern, Object... args) {
+        manager.log(level, pattern, args);
+    }
+
+    public static void log(LogLevel level, Supplier<String> message) {
+        manager.log(level, message);
+    }
+
+    public static boolean isEnabled(LogLevel level) {
+        return manager.isEnabled(level);
     }
 
     public static void addLogger(ILogger logger) {
         manager.addLogger(logger);
     }
 
+    public static void addLogger(ILogger logger, LogLevel minimumLevel) {
+        manager.addLogger(logger, minimumLevel);
+    }
+
     public static void removeLogger(ILogger logger) {
         manager.removeLogger(logger);
     }
@@ -1,5 +1,6 @@
 package org.insiders.backend.logger;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.DisposableBean;
@@ -7,19 +8,37 @@ import org.springframework.beans.factory.DisposableBean;
 @Configuration
 public class LoggingConfig implements InitializingBean, DisposableBean {
 
+    @Value("${insiders.logging.batch-size:256}")
+    private int batchSize;
+
+    @Value("${insiders.logging.overflow:DROP}")
+    private AsyncLogManager.OverflowPolicy overflowPolicy;
+
+    @Value("${insiders.logging.fsync-interval-ms:1000}")
+    private long fsyncIntervalMillis;
+
+    @Value("${insiders.logging.console-level:INFO}")
+    private String consoleLevel;
+
+    @Value("${insiders.logging.file-level:INFO}")
+    private String fileLevel;
+
     @Override
     public void afterPropertiesSet() {
         AsyncLogManager logManager = AsyncLogManager.getInstance();
-        logManager.addLogger(new ConsoleLogger());
-        logManager.addLogger(new FileLogger("application.log"));
+        logManager.setBatchSize(batchSize);
+        logManager.setOverflowPolicy(overflowPolicy);
+        logManager.setIdleFlushMillis(Math.min(fsyncIntervalMillis, 200));
+        logManager.addLogger(new ConsoleLogger(), LogLevel.parse(consoleLevel));
+        logManager.addLogger(new FileLogger("application.log", fsyncIntervalMillis), LogLevel.parse(fileLevel));
 
-        logManager.log("INFO", "Application starting up");
+        logManager.log(LogLevel.INFO, "Application starting up");
     }
 
     @Override
     public void destroy() {
         AsyncLogManager logManager = AsyncLogManager.getInstance();
-        logManager.log("INFO", "Application shutting down");
+        logManager.log(LogLevel.INFO, "Application shutting down");
         logManager.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package org.insiders.backend.mapper;
 
 import org.insiders.backend.dto.comment.CommentResponseDto;
 import org.insiders.backend.entity.Comment;
+import org.insiders.backend.model.CommentNode;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -17,16 +18,27 @@ public class CommentMapper {
             String userVote,
             List<CommentResponseDto> replies
     ) {
-        UUID parentId = comment.getParentComment() != null ? comment.getParentComment().getId() : null;
         String author = (comment.getUser() != null) ? comment.getUser().getUsername() : "[deleted]";
-        String content = (comment.isEdited() && !comment.getContent().contains("[edit]")? "[edit]  ": "") + comment.getContent();
+        return toDto(comment, author, upVotes, downVotes, userVote, replies);
+    }
+
+    // for a comment whose user is only a reference: the author is passed in instead of loading it
+    public CommentResponseDto toDto(
+            Comment comment,
+            String author,
+            int upVotes,
+            int downVotes,
+            String userVote,
+            List<CommentResponseDto> replies
+    ) {
+        UUID parentId = comment.getParentComment() != null ? comment.getParentComment().getId() : null;
         int score = upVotes - downVotes;
 
         return new CommentResponseDto(
                 comment.getId(),
                 comment.getPost().getId(),
                 parentId,
-                content,
+                displayContent(comment.getContent(), comment.isEdited()),
                 author,
                 upVotes,
                 downVotes,
@@ -34,7 +46,39 @@ public class CommentMapper {
                 userVote,
                 comment.getCreatedAt(),
                 comment.getUpdatedAt(),
-                replies
+                replies,
+                replies.size(),
+                null
         );
     }
+
+    public CommentResponseDto toDto(
+            CommentNode node,
+            String userVote,
+            List<CommentResponseDto> replies,
+            String moreReplies
+    ) {
+        String author = node.getAuthor() != null ? node.getAuthor() : "[deleted]";
+
+        return new CommentResponseDto(
+                node.getId(),
+                node.getPostId(),
+                node.getParentId(),
+                displayContent(node.getContent(), node.isEdited()),
+                author,
+                node.getUpvotes(),
+                node.getDownvotes(),
+                node.getUpvotes() - node.getDownvotes(),
+                userVote,
+                node.getCreatedAt(),
+                node.getUpdatedAt(),
+                replies,
+                node.getReplyCount(),
+                moreReplies
+        );
+    }
+
+    private static String displayContent(String content, boolean edited) {
+        return (edited && !content.contains("[edit]") ? "[edit]  " : "") + content;
+    }
 }
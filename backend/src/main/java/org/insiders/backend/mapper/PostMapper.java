@@ -1,8 +1,11 @@
 package org.insiders.backend.mapper;
 
+import org.insiders.backend.dto.image.ImageStatusResponseDto;
 import org.insiders.backend.dto.post.PostResponseDto;
 import org.insiders.backend.entity.Post;
+import org.insiders.backend.model.ImageState;
 import org.insiders.backend.model.PostModel;
+import org.insiders.backend.service.ImageStore;
 
 public class PostMapper {
     public static PostResponseDto postToDto(Post post, int upvotes, int downvotes, int commentCount, String userVote) {
@@ -13,6 +16,7 @@ public class PostMapper {
                 post.getTitle(),
                 post.getContent(),
                 post.getPhotoPath(),
+                ImageStore.derivativeUrls(post.getPhotoPath()),
                 post.getUser().getUsername(),
                 post.getSubreddit().getName(),
                 upvotes,
@@ -31,6 +35,7 @@ public class PostMapper {
                 postModel.getTitle(),
                 postModel.getContent(),
                 postModel.getPhotoPath(),
+                ImageStore.derivativeUrls(postModel.getPhotoPath()),
                 postModel.getAuthor(),
                 postModel.getSubreddit(),
                 postModel.getUpvotes(),
@@ -42,4 +47,14 @@ public class PostMapper {
                 postModel.getUpdatedAt()
         );
     }
+
+    public static ImageStatusResponseDto imageStateToDto(ImageState state) {
+        return new ImageStatusResponseDto(
+                state.postId(),
+                state.status() == null ? "none" : state.status().name().toLowerCase(),
+                state.imageUrl(),
+                state.attempts(),
+                state.error()
+        );
+    }
 }
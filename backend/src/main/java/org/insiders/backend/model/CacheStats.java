@@ -0,0 +1,11 @@
+package org.insiders.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CacheStats(long hits, long misses, long evictions, int size, int maxSize) {
+    @JsonProperty
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,35 @@
+package org.insiders.backend.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of a comment subtree read by CommentRepository in a single native query.
+ * depth is relative to the requested comment; replyCount counts all direct replies,
+ * including the ones the query left out because of the depth or width limits.
+ */
+public interface CommentNode {
+    UUID getId();
+
+    UUID getPostId();
+
+    UUID getParentId();
+
+    String getContent();
+
+    String getAuthor();
+
+    boolean isEdited();
+
+    int getUpvotes();
+
+    int getDownvotes();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    int getDepth();
+
+    int getReplyCount();
+}
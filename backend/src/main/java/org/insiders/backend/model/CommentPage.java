@@ -0,0 +1,11 @@
+package org.insiders.backend.model;
+
+import org.insiders.backend.dto.comment.CommentResponseDto;
+
+import java.util.List;
+
+/**
+ * One page of comments; nextCursor is null on the last page.
+ */
+public record CommentPage(List<CommentResponseDto> comments, String nextCursor) {
+}
@@ -0,0 +1,25 @@
+package org.insiders.backend.model;
+
+/**
+ * Materialized path of a comment (see V13__comments_add_path.sql): one fixed-width hex segment
+ * per level, so sorting by path lists a thread depth-first with the newest reply first under
+ * each parent, and the subtree of a comment is the range [path, end(path)).
+ */
+public final class CommentPath {
+    public static final int SEGMENT_WIDTH = 10;
+    private static final long MAX_SEQUENCE = (1L << 40) - 1;
+
+    private CommentPath() {
+    }
+
+    // n comes from comment_path_seq; later comments get smaller segments and sort first
+    public static String child(String parentPath, long n) {
+        String segment = String.format("%0" + SEGMENT_WIDTH + "x", MAX_SEQUENCE - n);
+        return parentPath == null ? segment : parentPath + segment;
+    }
+
+    // first path after every descendant of path: 'g' sorts after all hex digits
+    public static String end(String path) {
+        return path + "g";
+    }
+}
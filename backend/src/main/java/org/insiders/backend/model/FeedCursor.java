@@ -0,0 +1,35 @@
+package org.insiders.backend.model;
+
+import org.insiders.backend.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a (created_at desc, id desc) ordered listing.
+ * Travels to clients as an opaque url-safe token.
+ */
+public record FeedCursor(LocalDateTime createdAt, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public static FeedCursor after(PostModel post) {
+        return new FeedCursor(post.getCreatedAt(), post.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, split)), UUID.fromString(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor invalid: " + token);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.insiders.backend.model;
+
+import java.util.List;
+
+/**
+ * One page of the post feed; {@code nextCursor} is null on the last page.
+ */
+public record FeedPage(List<PostModel> posts, String nextCursor) {
+}
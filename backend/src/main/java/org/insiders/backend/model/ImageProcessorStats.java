@@ -0,0 +1,5 @@
+package org.insiders.backend.model;
+
+public record ImageProcessorStats(String url, String state, long calls, long failures, long rejected,
+                                  double averageLatencyMs, double maxLatencyMs) {
+}
@@ -0,0 +1,10 @@
+package org.insiders.backend.model;
+
+import java.util.UUID;
+
+/**
+ * Where a post's image is in the processing pipeline; attempts and error are only known while
+ * the job is queued or running, or for recent failures.
+ */
+public record ImageState(UUID postId, ImageStatus status, String imageUrl, int attempts, String error) {
+}
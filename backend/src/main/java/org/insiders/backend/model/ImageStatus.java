@@ -0,0 +1,10 @@
+package org.insiders.backend.model;
+
+/**
+ * State of a post's image; posts without an image have none.
+ */
+public enum ImageStatus {
+    PROCESSING,
+    READY,
+    FAILED
+}
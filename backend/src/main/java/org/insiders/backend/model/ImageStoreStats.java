@@ -0,0 +1,4 @@
+package org.insiders.backend.model;
+
+public record ImageStoreStats(long stored, long reused, long deleted) {
+}
@@ -0,0 +1,8 @@
+package org.insiders.backend.model;
+
+/**
+ * A line the bulk import could not insert. batch is null when the line was rejected before it
+ * reached a batch (invalid JSON, missing field, unknown reference).
+ */
+public record ImportError(Integer batch, long line, String type, String message) {
+}
@@ -0,0 +1,22 @@
+package org.insiders.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: rows inserted per type, users and subreddits that already existed
+ * and were reused, rejected lines (only the first ones are listed in errors) and throughput.
+ */
+public record ImportReport(long lines, long users, long subreddits, long posts, long comments, long votes,
+                           long existing, long failed, int batches, long elapsedMs, List<ImportError> errors) {
+    @JsonProperty
+    public long inserted() {
+        return users + subreddits + posts + comments + votes;
+    }
+
+    @JsonProperty
+    public long rowsPerSecond() {
+        return elapsedMs == 0 ? inserted() : inserted() * 1000 / elapsedMs;
+    }
+}
@@ -21,16 +21,64 @@ public class PostModel {
     private LocalDateTime updatedAt;
 
     public PostModel(Post post) {
+        this(post, post.getUser().getUsername());
+    }
+
+    // for a post whose user is only a reference: the author is passed in instead of loading it
+    public PostModel(Post post, String author) {
         this.id = post.getId();
         this.title = post.getTitle();
         this.content = post.getContent();
         this.photoPath = post.getPhotoPath();
-        this.author = post.getUser().getUsername();
+        this.author = author;
         this.subreddit = post.getSubreddit().getName();
         this.createdAt = post.getCreatedAt();
         this.updatedAt = post.getUpdatedAt();
     }
 
+    /**
+     * Projection constructor used by the feed queries in {@code PostRepository}:
+     * the counts are the post's counter columns and {@code upvote} is the caller's
+     * vote (null when the caller has not voted).
+     */
+    public PostModel(UUID id, String title, String content, String photoPath,
+                     String author, String subreddit,
+                     int upvotes, int downvotes, int commentCount, Boolean upvote,
+                     LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.photoPath = photoPath;
+        this.author = author;
+        this.subreddit = subreddit;
+        this.upvotes = upvotes;
+        this.downvotes = downvotes;
+        this.score = upvotes - downvotes;
+        this.commentCount = commentCount;
+        this.userVote = upvote == null ? "none" : (upvote ? "up" : "down");
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Copy of {@code source} with the given per-user vote, used to serve cached posts.
+     */
+    public PostModel(PostModel source, String userVote) {
+        this.id = source.id;
+        this.title = source.title;
+        this.content = source.content;
+        this.photoPath = source.photoPath;
+        this.author = source.author;
+        this.subreddit = source.subreddit;
+        this.upvotes = source.upvotes;
+        this.downvotes = source.downvotes;
+        this.score = source.score;
+        this.commentCount = source.commentCount;
+        this.userVote = userVote;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+    }
+
     public UUID getId() {
         return id;
     }
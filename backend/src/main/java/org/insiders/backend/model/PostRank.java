@@ -0,0 +1,10 @@
+package org.insiders.backend.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ranking inputs of one post, as loaded by {@code PostRepository.findAllRanks}.
+ */
+public record PostRank(UUID id, String subreddit, LocalDateTime createdAt, int score, int commentCount) {
+}
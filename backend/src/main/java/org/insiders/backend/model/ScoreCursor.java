@@ -0,0 +1,37 @@
+package org.insiders.backend.model;
+
+import org.insiders.backend.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a (score desc, created_at desc, id desc) ordered listing, score being
+ * upvotes - downvotes. Travels to clients as an opaque url-safe token, like {@link FeedCursor}.
+ */
+public record ScoreCursor(int score, LocalDateTime createdAt, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public static ScoreCursor after(CommentNode comment) {
+        return new ScoreCursor(comment.getUpvotes() - comment.getDownvotes(), comment.getCreatedAt(), comment.getId());
+    }
+
+    public String encode() {
+        String raw = score + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScoreCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            return new ScoreCursor(Integer.parseInt(raw.substring(0, first)),
+                    LocalDateTime.parse(raw.substring(first + 1, second)), UUID.fromString(raw.substring(second + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor invalid: " + token);
+        }
+    }
+}
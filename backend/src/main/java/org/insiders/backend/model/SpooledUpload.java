@@ -0,0 +1,10 @@
+package org.insiders.backend.model;
+
+import java.nio.file.Path;
+
+/**
+ * An upload written to the pending directory, with the SHA-256 of its bytes computed while it
+ * was being written.
+ */
+public record SpooledUpload(Path path, String originalFilename, long size, String sha256) {
+}
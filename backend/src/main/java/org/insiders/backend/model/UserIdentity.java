@@ -0,0 +1,9 @@
+package org.insiders.backend.model;
+
+import java.util.UUID;
+
+/**
+ * Id and username of a user: all that most request paths need, without loading the User entity.
+ */
+public record UserIdentity(UUID id, String username) {
+}
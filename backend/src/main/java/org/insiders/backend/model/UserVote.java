@@ -0,0 +1,12 @@
+package org.insiders.backend.model;
+
+import java.util.UUID;
+
+/**
+ * A user's vote on one post or comment, without loading the Vote entity.
+ */
+public record UserVote(UUID targetId, boolean upvote) {
+    public String voteType() {
+        return upvote ? "up" : "down";
+    }
+}
@@ -0,0 +1,17 @@
+package org.insiders.backend.model;
+
+public record VoteCounts(int upvotes, int downvotes) {
+    public static final VoteCounts NONE = new VoteCounts(0, 0);
+
+    public VoteCounts plus(VoteCounts other) {
+        return new VoteCounts(upvotes + other.upvotes, downvotes + other.downvotes);
+    }
+
+    public VoteCounts minus(VoteCounts other) {
+        return new VoteCounts(upvotes - other.upvotes, downvotes - other.downvotes);
+    }
+
+    public int score() {
+        return upvotes - downvotes;
+    }
+}
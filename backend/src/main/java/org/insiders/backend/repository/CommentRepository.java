@@ -2,12 +2,20 @@ package org.insiders.backend.repository;
 
 import jakarta.persistence.QueryHint;
 import org.insiders.backend.entity.Comment;
+import org.insiders.backend.model.CommentNode;
+import org.insiders.backend.model.VoteCounts;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -18,7 +26,140 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     List<Comment> findByParentCommentId(UUID parentCommentId);
     int countByPostId(UUID postId);
 
-    @EntityGraph(attributePaths = {"user", "parentComment"})
+    // the whole thread in display order, one range scan of idx_comments_post_path
+    @EntityGraph(attributePaths = {"user"})
     @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
-    List<Comment> findByPostIdOrderByCreatedAtDesc(UUID postId);
+    List<Comment> findByPostIdOrderByPath(UUID postId);
+
+    @Query(value = "select nextval('comment_path_seq')", nativeQuery = true)
+    long nextPathSequence();
+
+    @Query("select new org.insiders.backend.model.VoteCounts(c.upvotes, c.downvotes) from Comment c where c.id = :commentId")
+    Optional<VoteCounts> findVoteCountsById(@Param("commentId") UUID commentId);
+
+    @Modifying
+    @Query("update Comment c set c.upvotes = c.upvotes + :up, c.downvotes = c.downvotes + :down where c.id = :commentId")
+    int shiftVotes(@Param("commentId") UUID commentId, @Param("up") int up, @Param("down") int down);
+
+    // the comment itself plus every reply below it; they all go away with it through ON DELETE CASCADE
+    @Query(value = """
+            select count(*) from comments c
+            where c.post_id = :postId and c.path >= :path and c.path < :pathEnd
+            """, nativeQuery = true)
+    int countSubtree(@Param("postId") UUID postId, @Param("path") String path, @Param("pathEnd") String pathEnd);
+
+    // CommentNode columns of comment c joined with its author u; every query adds its own "depth"
+    String NODE_COLUMNS = """
+            c.id as "id", c.post_id as "postId", c.parent_comment_id as "parentId", c.content as "content",
+            u.username as "author", c.is_edited as "edited", c.upvotes as "upvotes", c.downvotes as "downvotes",
+            c.created_at as "createdAt", c.updated_at as "updatedAt",
+            (select count(*) from comments r where r.parent_comment_id = c.id) as "replyCount"
+            """;
+
+    // the comment and its replies down to maxDepth, at most maxChildren newest replies under each node;
+    // the lateral LIMIT walks idx_comments_parent_created_at_id so a wide thread is never read in full
+    String SUBTREE_HEAD = """
+            with recursive subtree as (
+                select c.id, 0 as depth from comments c where c.id = :commentId
+                union all
+                select r.id, s.depth + 1
+                from subtree s
+                cross join lateral (
+                    select c.id from comments c
+                    where c.parent_comment_id = s.id
+            """;
+    String SUBTREE_TAIL = """
+                    order by c.created_at desc, c.id desc
+                    limit :maxChildren
+                ) r
+                where s.depth < :maxDepth
+            )
+            select s.depth as "depth",
+            """ + NODE_COLUMNS + """
+            from subtree s
+            join comments c on c.id = s.id
+            left join users u on u.id = c.user_id
+            order by s.depth, c.created_at desc, c.id desc
+            """;
+
+    @Query(value = SUBTREE_HEAD + SUBTREE_TAIL, nativeQuery = true)
+    List<CommentNode> findSubtree(@Param("commentId") UUID commentId,
+                                  @Param("maxDepth") int maxDepth,
+                                  @Param("maxChildren") int maxChildren);
+
+    // same walk, but the direct replies of the requested comment resume after a "load more" cursor
+    @Query(value = SUBTREE_HEAD + """
+                    and (s.depth > 0 or (c.created_at, c.id) < (:afterCreatedAt, :afterId))
+            """ + SUBTREE_TAIL, nativeQuery = true)
+    List<CommentNode> findSubtreeAfter(@Param("commentId") UUID commentId,
+                                       @Param("maxDepth") int maxDepth,
+                                       @Param("maxChildren") int maxChildren,
+                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") UUID afterId);
+
+    String ROOTS = "select 0 as \"depth\", " + NODE_COLUMNS + """
+            from comments c
+            left join users u on u.id = c.user_id
+            where c.post_id = :postId and c.parent_comment_id is null
+            """;
+
+    @Query(value = ROOTS + "order by c.created_at desc, c.id desc limit :limit", nativeQuery = true)
+    List<CommentNode> findRoots(@Param("postId") UUID postId, @Param("limit") int limit);
+
+    @Query(value = ROOTS + """
+            and (c.created_at, c.id) < (:afterCreatedAt, :afterId)
+            order by c.created_at desc, c.id desc limit :limit
+            """, nativeQuery = true)
+    List<CommentNode> findRootsAfter(@Param("postId") UUID postId,
+                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                     @Param("afterId") UUID afterId,
+                                     @Param("limit") int limit);
+
+    // by score, walking idx_comments_roots_post_score_created_at_id; a vote moves a comment
+    // between pages, but never shifts the comments behind the cursor the way an offset would
+    @Query(value = ROOTS + "order by c.upvotes - c.downvotes desc, c.created_at desc, c.id desc limit :limit", nativeQuery = true)
+    List<CommentNode> findTopRoots(@Param("postId") UUID postId, @Param("limit") int limit);
+
+    @Query(value = ROOTS + """
+            and (c.upvotes - c.downvotes, c.created_at, c.id) < (:afterScore, :afterCreatedAt, :afterId)
+            order by c.upvotes - c.downvotes desc, c.created_at desc, c.id desc limit :limit
+            """, nativeQuery = true)
+    List<CommentNode> findTopRootsAfter(@Param("postId") UUID postId,
+                                        @Param("afterScore") int afterScore,
+                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                        @Param("afterId") UUID afterId,
+                                        @Param("limit") int limit);
+
+    // the perParent newest replies of each parent, all parents in one statement
+    @Query(value = "select 1 as \"depth\", " + NODE_COLUMNS + """
+            from comments p
+            cross join lateral (
+                select * from comments r
+                where r.parent_comment_id = p.id
+                order by r.created_at desc, r.id desc
+                limit :perParent
+            ) c
+            left join users u on u.id = c.user_id
+            where p.id in (:parentIds)
+            order by c.created_at desc, c.id desc
+            """, nativeQuery = true)
+    List<CommentNode> findFirstReplies(@Param("parentIds") Collection<UUID> parentIds, @Param("perParent") int perParent);
+
+    String REPLIES = "select 1 as \"depth\", " + NODE_COLUMNS + """
+            from comments c
+            left join users u on u.id = c.user_id
+            where c.parent_comment_id = :parentId
+            """;
+
+    @Query(value = REPLIES + "order by c.created_at desc, c.id desc limit :limit", nativeQuery = true)
+    List<CommentNode> findReplies(@Param("parentId") UUID parentId, @Param("limit") int limit);
+
+    @Query(value = REPLIES + """
+            and (c.created_at, c.id) < (:afterCreatedAt, :afterId)
+            order by c.created_at desc, c.id desc limit :limit
+            """, nativeQuery = true)
+    List<CommentNode> findRepliesAfter(@Param("parentId") UUID parentId,
+                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") UUID afterId,
+                                       @Param("limit") int limit);
 }
@@ -1,16 +1,99 @@
 package org.insiders.backend.repository;
 
 import org.insiders.backend.entity.Post;
+import org.insiders.backend.model.ImageStatus;
+import org.insiders.backend.model.PostModel;
+import org.insiders.backend.model.PostRank;
+import org.insiders.backend.model.VoteCounts;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, UUID> {
+    // post + author + subreddit + counters + the caller's vote in a single round trip
+    String FEED_SELECT = """
+            select new org.insiders.backend.model.PostModel(
+                p.id, p.title, p.content, p.photoPath, u.username, s.name,
+                p.upvotes, p.downvotes, p.commentCount,
+                uv.upvote,
+                p.createdAt, p.updatedAt)
+            from Post p
+                join p.user u
+                join p.subreddit s
+                left join Vote uv on uv.post = p and uv.user.id = :userId
+            """;
+
     Post getPostById(UUID postId);
-    List<Post> findAllByOrderByCreatedAtDesc();
-    List<Post> findBySubreddit_NameOrderByCreatedAtDesc(String name);
     int countBySubreddit_Name(String name);
+
+    // keyset pagination: rows strictly after the cursor in (created_at desc, id desc) order
+    String AFTER_CURSOR = "(p.createdAt, p.id) < (:cursorCreatedAt, :cursorId) ";
+    String NEWEST_FIRST = "order by p.createdAt desc, p.id desc";
+
+    @Query(FEED_SELECT + NEWEST_FIRST)
+    List<PostModel> findFeed(@Param("userId") UUID userId, Limit limit);
+
+    @Query(FEED_SELECT + "where " + AFTER_CURSOR + NEWEST_FIRST)
+    List<PostModel> findFeedAfter(@Param("userId") UUID userId,
+                                  @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                  @Param("cursorId") UUID cursorId,
+                                  Limit limit);
+
+    @Query(FEED_SELECT + "where s.name = :subreddit " + NEWEST_FIRST)
+    List<PostModel> findFeedBySubreddit(@Param("subreddit") String subreddit, @Param("userId") UUID userId, Limit limit);
+
+    @Query(FEED_SELECT + "where s.name = :subreddit and " + AFTER_CURSOR + NEWEST_FIRST)
+    List<PostModel> findFeedBySubredditAfter(@Param("subreddit") String subreddit,
+                                             @Param("userId") UUID userId,
+                                             @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                             @Param("cursorId") UUID cursorId,
+                                             Limit limit);
+
+    @Query(FEED_SELECT + "where p.id = :postId")
+    Optional<PostModel> findFeedItem(@Param("postId") UUID postId, @Param("userId") UUID userId);
+
+    @Query(FEED_SELECT + "where p.id in :postIds")
+    List<PostModel> findFeedItems(@Param("postIds") List<UUID> postIds, @Param("userId") UUID userId);
+
+    @Query("""
+            select new org.insiders.backend.model.PostRank(p.id, s.name, p.createdAt, p.upvotes - p.downvotes, p.commentCount)
+            from Post p join p.subreddit s
+            """)
+    List<PostRank> findAllRanks();
+
+    @Query("select new org.insiders.backend.model.VoteCounts(p.upvotes, p.downvotes) from Post p where p.id = :postId")
+    Optional<VoteCounts> findVoteCountsById(@Param("postId") UUID postId);
+
+    @Query("select p.commentCount from Post p where p.id = :postId")
+    Optional<Integer> findCommentCountById(@Param("postId") UUID postId);
+
+    @Modifying
+    @Query("update Post p set p.upvotes = p.upvotes + :up, p.downvotes = p.downvotes + :down where p.id = :postId")
+    int shiftVotes(@Param("postId") UUID postId, @Param("up") int up, @Param("down") int down);
+
+    @Modifying
+    @Query("update Post p set p.commentCount = p.commentCount + :delta where p.id = :postId")
+    int shiftCommentCount(@Param("postId") UUID postId, @Param("delta") int delta);
+
+    // image jobs run outside any request transaction, so these open their own
+    @Transactional
+    @Modifying
+    @Query("update Post p set p.photoPath = :photoPath, p.imageKey = :imageKey, p.imageStatus = :status where p.id = :postId")
+    int updateImage(@Param("postId") UUID postId, @Param("photoPath") String photoPath,
+                    @Param("imageKey") String imageKey, @Param("status") ImageStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("update Post p set p.imageStatus = :to where p.imageStatus = :from")
+    int updateImageStatus(@Param("from") ImageStatus from, @Param("to") ImageStatus to);
 }
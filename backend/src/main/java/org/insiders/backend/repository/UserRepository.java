@@ -1,7 +1,10 @@
 package org.insiders.backend.repository;
 
 import org.insiders.backend.entity.User;
+import org.insiders.backend.model.UserIdentity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -11,4 +14,7 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    @Query("select new org.insiders.backend.model.UserIdentity(u.id, u.username) from User u where u.username = :username")
+    Optional<UserIdentity> findIdentityByUsername(@Param("username") String username);
 }
@@ -1,20 +1,27 @@
 package org.insiders.backend.repository;
 
 import org.insiders.backend.entity.Vote;
+import org.insiders.backend.model.UserVote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface VoteRepository extends JpaRepository<Vote, UUID> {
     Optional<Vote> findByUserIdAndCommentId(UUID userId, UUID commentId);
-    void deleteByUserIdAndCommentId(UUID id, UUID commentId);
-    int countByCommentIdAndUpvoteTrue(UUID commentId);
-    int countByCommentIdAndUpvoteFalse(UUID commentId);
-    void deleteByUserIdAndPostId(UUID userId, UUID postId);
-    int countByPostIdAndUpvoteTrue(UUID postId);
-    int countByPostIdAndUpvoteFalse(UUID postId);
     Optional<Vote> findByUserIdAndPostId(UUID userId, UUID postId);
+
+    @Query("select new org.insiders.backend.model.UserVote(c.id, v.upvote) " +
+            "from Vote v join v.comment c where v.user.id = :userId and c.post.id = :postId")
+    List<UserVote> findCommentVotesOnPost(@Param("userId") UUID userId, @Param("postId") UUID postId);
+
+    @Query("select new org.insiders.backend.model.UserVote(c.id, v.upvote) " +
+            "from Vote v join v.comment c where v.user.id = :userId and c.id in :commentIds")
+    List<UserVote> findCommentVotesIn(@Param("userId") UUID userId, @Param("commentIds") Collection<UUID> commentIds);
 }
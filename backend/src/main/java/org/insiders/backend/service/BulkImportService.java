@@ -0,0 +1,609 @@
+package org.insiders.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.exceptions.ForbiddenException;
+import org.insiders.backend.exceptions.NotFoundException;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.CommentPath;
+import org.insiders.backend.model.ImportError;
+import org.insiders.backend.model.ImportReport;
+import org.insiders.backend.model.UserIdentity;
+import org.insiders.backend.model.VoteCounts;
+import org.insiders.backend.repository.SubredditRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Bulk import of an NDJSON stream in the format written by {@link SubredditExportService}, plus
+ * "user" lines (username, email, password) and "vote" lines (user, postId or commentId, vote "up" or "down").
+ * <p>
+ * Post, comment and vote lines refer to each other by the ids of the file and to users and subreddits
+ * by name; those references are resolved in memory, new ids are generated for every inserted row.
+ * Users and subreddits that already exist are reused. Posts belong to the last "subreddit" line unless
+ * they name one in "subreddit". Comments of one post are expected together, as the export writes them;
+ * replies must be newer than their parent. Vote counters are derived from the vote lines, the counters
+ * carried by post and comment lines are ignored.
+ * <p>
+ * Rows are inserted with JDBC batches of batch-size rows, each batch in its own transaction. A batch
+ * that fails is retried row by row, so one bad row costs its own insert and is reported with its line.
+ * <p>
+ * The lines act as any user they name, so an import is only accepted with the secret configured in
+ * {@code insiders.import.admin-secret}; while that is empty, importing is disabled.
+ */
+@Service
+public class BulkImportService {
+    private static final String INSERT_USER =
+            "insert into users (id, username, email, hashed_password, created_at) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_SUBREDDIT =
+            "insert into subreddits (id, name, display_name, description, created_at) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_POST =
+            "insert into posts (id, title, content, user_id, subreddit_id, photo_path, created_at, updated_at) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COMMENT =
+            "insert into comments (id, post_id, parent_comment_id, content, user_id, is_edited, path, depth, created_at, updated_at) "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_POST_VOTE =
+            "insert into votes (id, post_id, user_id, is_upvote) values (?, ?, ?, ?)";
+    private static final String INSERT_COMMENT_VOTE =
+            "insert into votes (id, comment_id, user_id, is_upvote) values (?, ?, ?, ?)";
+    private static final String ADD_POST_COMMENTS =
+            "update posts set comment_count = comment_count + ? where id = ?";
+    private static final String SHIFT_POST_COUNTERS =
+            "update posts set upvotes = upvotes + ?, downvotes = downvotes + ? where id = ?";
+    private static final String SHIFT_COMMENT_COUNTERS =
+            "update comments set upvotes = upvotes + ?, downvotes = downvotes + ? where id = ?";
+    private static final String EXISTING_USERS =
+            "select id, username from users where username = any(?)";
+    private static final String EXISTING_SUBREDDITS =
+            "select id, name from subreddits where lower(name) = any(?)";
+    private static final String RESERVE_PATH_SEQUENCE =
+            "select nextval('comment_path_seq') from generate_series(1, ?)";
+
+    private static final int PROGRESS_EVERY_BATCHES = 100;
+    private static final int MAX_MESSAGE_LENGTH = 300;
+
+    private enum Kind {
+        USER, SUBREDDIT, POST, COMMENT, VOTE;
+
+        private final String label = name().toLowerCase(Locale.ROOT);
+
+        private static Kind of(String type) {
+            for (Kind kind : values()) {
+                if (kind.label.equals(type)) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    // one line ready to insert; key is the username or subreddit name checked against existing rows before the insert
+    private record Row(long line, String key, String sql, Object[] values, Runnable committed) {
+    }
+
+    // a subreddit, or a user matched by name, already in the database
+    private record NamedRef(UUID id, String name) {
+    }
+
+    private record PendingComment(long line, String sourceId, String parentId, UUID authorId, String content,
+                                  boolean edited, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    private record PlacedComment(UUID id, String path, int depth) {
+    }
+
+    private record VoteKey(UUID userId, UUID targetId) {
+    }
+
+    // state of one import: references resolved so far, the batch being filled and the counters of the report
+    private static final class Run {
+        private final Map<String, UUID> usersByName = new HashMap<>();
+        private final Map<String, NamedRef> subredditsByName = new HashMap<>();
+        private final Map<String, UUID> postIds = new HashMap<>();
+        private final Map<String, UUID> commentIds = new HashMap<>();
+        private final Set<VoteKey> votes = new HashSet<>();
+        private final long[] inserted = new long[Kind.values().length];
+        private final List<ImportError> errors = new ArrayList<>();
+        private final long start = System.nanoTime();
+
+        private Kind kind;
+        private List<Row> pending = new ArrayList<>();
+        private String currentSubreddit;
+        private String groupPostId;
+        private List<PendingComment> group = new ArrayList<>();
+        // comment_path_seq values reserved ahead, ascending, so a thread does not cost a round trip of its own
+        private final ArrayDeque<Long> pathSequence = new ArrayDeque<>();
+        private long lines;
+        private long existing;
+        private long failed;
+        private int batches;
+
+        private long insertedTotal() {
+            long total = 0;
+            for (long count : inserted) {
+                total += count;
+            }
+            return total;
+        }
+
+        private long elapsedMs() {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserManagementService userManagementService;
+    private final UserIdentityCache identityCache;
+    private final SubredditRepository subredditRepository;
+    private final RankingIndex rankingIndex;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final byte[] adminSecret;
+
+    public BulkImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             UserManagementService userManagementService,
+                             UserIdentityCache identityCache,
+                             SubredditRepository subredditRepository,
+                             RankingIndex rankingIndex,
+                             @Value("${insiders.import.batch-size:1000}") int batchSize,
+                             @Value("${insiders.import.max-reported-errors:100}") int maxReportedErrors,
+                             @Value("${insiders.import.admin-secret:}") String adminSecret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.userManagementService = userManagementService;
+        this.identityCache = identityCache;
+        this.subredditRepository = subredditRepository;
+        this.rankingIndex = rankingIndex;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxReportedErrors = maxReportedErrors;
+        this.adminSecret = adminSecret.isBlank() ? null : adminSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Refuses the import unless secret matches insiders.import.admin-secret; a session token alone is
+     * not enough, since the file can create accounts, post as existing users and vote for them.
+     */
+    public void authorize(String secret, UserIdentity requestedBy) {
+        if (adminSecret == null) {
+            throw new ForbiddenException("Importul este dezactivat");
+        }
+        if (secret == null || !MessageDigest.isEqual(adminSecret, secret.getBytes(StandardCharsets.UTF_8))) {
+            logger.log(LogLevel.WARNING, "Bulk import refused for {}: missing or wrong import secret", requestedBy.username());
+            throw new ForbiddenException("Nu aveti dreptul sa importati date");
+        }
+    }
+
+    public ImportReport importNdjson(InputStream in, UserIdentity requestedBy) throws IOException {
+        Run run = new Run();
+        logger.log(LogLevel.INFO, "Bulk import started by {}", requestedBy.username());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        for (String text; (text = reader.readLine()) != null; ) {
+            run.lines++;
+            if (text.isBlank()) {
+                continue;
+            }
+
+            JsonNode line;
+            try {
+                line = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                reject(run, null, run.lines, null, "JSON invalid: " + e.getOriginalMessage());
+                continue;
+            }
+            String type = line.path("type").asText("");
+            if (type.equals("summary")) {
+                continue;
+            }
+            Kind kind = Kind.of(type);
+            if (kind == null) {
+                reject(run, null, run.lines, type, "Tip de linie necunoscut: " + type);
+                continue;
+            }
+
+            // a batch holds one kind of row, so everything a line refers to has been written before it
+            if (kind != run.kind) {
+                flush(run);
+                run.kind = kind;
+            }
+            try {
+                switch (kind) {
+                    case USER -> readUser(run, line);
+                    case SUBREDDIT -> readSubreddit(run, line);
+                    case POST -> readPost(run, line);
+                    case COMMENT -> readComment(run, line);
+                    case VOTE -> readVote(run, line);
+                }
+            } catch (RuntimeException e) {
+                reject(run, null, run.lines, kind.label, e.getMessage());
+            }
+        }
+        flush(run);
+
+        long elapsedMs = run.elapsedMs();
+        ImportReport report = new ImportReport(run.lines, run.inserted[Kind.USER.ordinal()],
+                run.inserted[Kind.SUBREDDIT.ordinal()], run.inserted[Kind.POST.ordinal()],
+                run.inserted[Kind.COMMENT.ordinal()], run.inserted[Kind.VOTE.ordinal()], run.existing, run.failed,
+                run.batches, elapsedMs, List.copyOf(run.errors));
+        logger.log(LogLevel.INFO, "Bulk import by {} finished: {} rows in {} ms ({} rows/s), {} existing, {} failed",
+                requestedBy.username(), report.inserted(), elapsedMs, report.rowsPerSecond(), run.existing, run.failed);
+        return report;
+    }
+
+    private void readUser(Run run, JsonNode line) {
+        String username = required(line, "username");
+        String email = required(line, "email");
+        String password = text(line, "password");
+        // without a password the account gets a random one and cannot be logged into
+        int hashedPassword = (password != null ? password : UUID.randomUUID().toString()).hashCode();
+        LocalDateTime createdAt = localTime(line, "createdAt");
+
+        UUID id = UUID.randomUUID();
+        add(run, new Row(run.lines, username, INSERT_USER,
+                new Object[]{id, username, email, hashedPassword, createdAt != null ? createdAt : LocalDateTime.now()},
+                () -> {
+                    run.usersByName.put(username, id);
+                    identityCache.put(new UserIdentity(id, username));
+                }));
+    }
+
+    private void readSubreddit(Run run, JsonNode line) {
+        String name = required(line, "name").trim().toLowerCase();
+        String displayName = text(line, "displayName");
+        String createdAt = text(line, "createdAt");
+        run.currentSubreddit = name;
+
+        UUID id = UUID.randomUUID();
+        add(run, new Row(run.lines, name, INSERT_SUBREDDIT,
+                new Object[]{id, name, displayName != null ? displayName : name, text(line, "description"),
+                        OffsetDateTime.ofInstant(createdAt != null ? Instant.parse(createdAt) : Instant.now(), ZoneOffset.UTC)},
+                () -> run.subredditsByName.put(name, new NamedRef(id, name))));
+    }
+
+    private void readPost(Run run, JsonNode line) {
+        String named = text(line, "subreddit");
+        String subredditName = named != null ? named.trim().toLowerCase() : run.currentSubreddit;
+        if (subredditName == null) {
+            throw new BadRequestException("Postarea nu are subreddit");
+        }
+        NamedRef subreddit = subreddit(run, subredditName);
+        UUID authorId = userId(run, required(line, "author"));
+        String title = required(line, "title");
+        String sourceId = text(line, "id");
+        LocalDateTime createdAt = localTime(line, "createdAt");
+        LocalDateTime created = createdAt != null ? createdAt : LocalDateTime.now();
+
+        UUID id = UUID.randomUUID();
+        add(run, new Row(run.lines, null, INSERT_POST,
+                new Object[]{id, title, text(line, "content"), authorId, subreddit.id(), text(line, "photoPath"),
+                        created, localTime(line, "updatedAt")},
+                () -> {
+                    if (sourceId != null) {
+                        run.postIds.put(sourceId, id);
+                    }
+                    rankingIndex.addPost(id, subreddit.name(), created);
+                }));
+    }
+
+    private void readComment(Run run, JsonNode line) {
+        String postId = required(line, "postId");
+        if (!postId.equals(run.groupPostId)) {
+            closeGroup(run);
+            run.groupPostId = postId;
+        }
+        LocalDateTime createdAt = localTime(line, "createdAt");
+        run.group.add(new PendingComment(run.lines, text(line, "id"), text(line, "parentId"),
+                userId(run, required(line, "author")), required(line, "content"), line.path("edited").asBoolean(false),
+                createdAt != null ? createdAt : LocalDateTime.now(), localTime(line, "updatedAt")));
+    }
+
+    /**
+     * Places the comments of one post in its thread: path segments are reserved from comment_path_seq
+     * and handed out oldest first, which is what keeps "newest reply first" ordering by path.
+     */
+    private void closeGroup(Run run) {
+        if (run.group.isEmpty()) {
+            return;
+        }
+        List<PendingComment> comments = run.group;
+        String sourcePostId = run.groupPostId;
+        run.group = new ArrayList<>();
+        run.groupPostId = null;
+
+        UUID postId = run.postIds.get(sourcePostId);
+        if (postId == null) {
+            for (PendingComment comment : comments) {
+                reject(run, null, comment.line(), Kind.COMMENT.label, "Postarea " + sourcePostId + " nu a fost gasita");
+            }
+            return;
+        }
+
+        if (run.pathSequence.size() < comments.size()) {
+            List<Long> reserved = new ArrayList<>(jdbcTemplate.queryForList(RESERVE_PATH_SEQUENCE, Long.class,
+                    Math.max(comments.size() - run.pathSequence.size(), batchSize)));
+            reserved.sort(Comparator.naturalOrder());
+            run.pathSequence.addAll(reserved);
+        }
+        comments.sort(Comparator.comparing(PendingComment::createdAt).thenComparingLong(PendingComment::line));
+
+        Map<String, PlacedComment> placed = new HashMap<>();
+        for (PendingComment comment : comments) {
+            PlacedComment parent = null;
+            if (comment.parentId() != null) {
+                parent = placed.get(comment.parentId());
+                if (parent == null) {
+                    reject(run, null, comment.line(), Kind.COMMENT.label,
+                            "Comentariul parinte " + comment.parentId() + " nu a fost gasit");
+                    continue;
+                }
+            }
+
+            UUID id = UUID.randomUUID();
+            String path = CommentPath.child(parent == null ? null : parent.path(), run.pathSequence.poll());
+            int depth = parent == null ? 0 : parent.depth() + 1;
+            if (comment.sourceId() != null) {
+                placed.put(comment.sourceId(), new PlacedComment(id, path, depth));
+            }
+            String sourceId = comment.sourceId();
+            add(run, new Row(comment.line(), null, INSERT_COMMENT,
+                    new Object[]{id, postId, parent == null ? null : parent.id(), comment.content(), comment.authorId(),
+                            comment.edited(), path, depth, comment.createdAt(), comment.updatedAt()},
+                    () -> {
+                        if (sourceId != null) {
+                            run.commentIds.put(sourceId, id);
+                        }
+                        rankingIndex.shiftCommentCount(postId, 1);
+                    }));
+        }
+    }
+
+    private void readVote(Run run, JsonNode line) {
+        UUID userId = userId(run, required(line, "user"));
+        String vote = required(line, "vote");
+        if (!vote.equals("up") && !vote.equals("down")) {
+            throw new BadRequestException("Tip de vot invalid: " + vote);
+        }
+        boolean upvote = vote.equals("up");
+
+        String postId = text(line, "postId");
+        String commentId = text(line, "commentId");
+        if ((postId == null) == (commentId == null)) {
+            throw new BadRequestException("Votul trebuie sa aiba exact unul dintre postId si commentId");
+        }
+        UUID targetId = postId != null ? run.postIds.get(postId) : run.commentIds.get(commentId);
+        if (targetId == null) {
+            throw new NotFoundException(postId != null
+                    ? "Postarea " + postId + " nu a fost gasita"
+                    : "Comentariul " + commentId + " nu a fost gasit");
+        }
+        if (!run.votes.add(new VoteKey(userId, targetId))) {
+            throw new BadRequestException("Vot duplicat");
+        }
+
+        add(run, new Row(run.lines, null, postId != null ? INSERT_POST_VOTE : INSERT_COMMENT_VOTE,
+                new Object[]{UUID.randomUUID(), targetId, userId, upvote},
+                () -> {
+                    if (postId != null) {
+                        rankingIndex.shiftScore(targetId, upvote ? 1 : -1);
+                    }
+                }));
+    }
+
+    private UUID userId(Run run, String username) {
+        UUID id = run.usersByName.get(username);
+        if (id == null) {
+            id = userManagementService.findIdentity(username).id();
+            run.usersByName.put(username, id);
+        }
+        return id;
+    }
+
+    private NamedRef subreddit(Run run, String name) {
+        NamedRef ref = run.subredditsByName.get(name);
+        if (ref == null) {
+            ref = subredditRepository.findByNameIgnoreCase(name)
+                    .map(subreddit -> new NamedRef(subreddit.getId(), subreddit.getName()))
+                    .orElseThrow(() -> new NotFoundException("Subreddit " + name + " nu a fost gasit"));
+            run.subredditsByName.put(name, ref);
+        }
+        return ref;
+    }
+
+    private void add(Run run, Row row) {
+        run.pending.add(row);
+        if (run.pending.size() >= batchSize) {
+            writePending(run);
+        }
+    }
+
+    private void flush(Run run) {
+        closeGroup(run);
+        writePending(run);
+    }
+
+    private void writePending(Run run) {
+        if (run.pending.isEmpty()) {
+            return;
+        }
+        Kind kind = run.kind;
+        List<Row> rows = kind == Kind.USER || kind == Kind.SUBREDDIT ? dropExisting(run, kind, run.pending) : run.pending;
+        run.pending = new ArrayList<>();
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        int batch = ++run.batches;
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(kind, rows));
+            committed(run, kind, rows);
+        } catch (RuntimeException e) {
+            logger.log(LogLevel.WARNING, "Import batch {} of {} {} rows failed, retrying one by one: {}",
+                    batch, rows.size(), kind.label, describe(e));
+            for (Row row : rows) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(kind, List.of(row)));
+                    committed(run, kind, List.of(row));
+                } catch (RuntimeException rowError) {
+                    reject(run, batch, row.line(), kind.label, describe(rowError));
+                }
+            }
+        }
+
+        if (batch % PROGRESS_EVERY_BATCHES == 0) {
+            long elapsedMs = run.elapsedMs();
+            logger.log(LogLevel.INFO, "Bulk import: {} rows in {} batches, {} ms ({} rows/s)", run.insertedTotal(),
+                    batch, elapsedMs, elapsedMs == 0 ? run.insertedTotal() : run.insertedTotal() * 1000 / elapsedMs);
+        }
+    }
+
+    // one query per batch instead of one per name; existing users and subreddits are reused, not inserted
+    private List<Row> dropExisting(Run run, Kind kind, List<Row> rows) {
+        String[] names = rows.stream().map(Row::key).distinct().toArray(String[]::new);
+        Map<String, NamedRef> existing = new HashMap<>();
+        RowCallbackHandler collect = rs -> {
+            String name = rs.getString(2);
+            // usernames are case-sensitive, subreddit names are not
+            existing.put(kind == Kind.USER ? name : name.toLowerCase(), new NamedRef(rs.getObject(1, UUID.class), name));
+        };
+        jdbcTemplate.query(kind == Kind.USER ? EXISTING_USERS : EXISTING_SUBREDDITS, collect, (Object) names);
+        if (existing.isEmpty()) {
+            return rows;
+        }
+
+        List<Row> fresh = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            NamedRef found = existing.get(row.key());
+            if (found == null) {
+                fresh.add(row);
+                continue;
+            }
+            if (kind == Kind.USER) {
+                run.usersByName.put(row.key(), found.id());
+            } else {
+                run.subredditsByName.put(row.key(), found);
+            }
+            run.existing++;
+        }
+        return fresh;
+    }
+
+    private void write(Kind kind, List<Row> rows) {
+        Map<String, List<Object[]>> inserts = new LinkedHashMap<>();
+        for (Row row : rows) {
+            inserts.computeIfAbsent(row.sql(), sql -> new ArrayList<>()).add(row.values());
+        }
+        inserts.forEach(this::execute);
+
+        // counters move in the same transaction as the rows they count, sorted so concurrent writers lock in the same order
+        if (kind == Kind.COMMENT) {
+            Map<UUID, Integer> comments = new TreeMap<>();
+            for (Row row : rows) {
+                comments.merge((UUID) row.values()[1], 1, Integer::sum);
+            }
+            List<Object[]> shifts = new ArrayList<>();
+            comments.forEach((postId, count) -> shifts.add(new Object[]{count, postId}));
+            execute(ADD_POST_COMMENTS, shifts);
+        } else if (kind == Kind.VOTE) {
+            Map<UUID, VoteCounts> posts = new TreeMap<>();
+            Map<UUID, VoteCounts> comments = new TreeMap<>();
+            for (Row row : rows) {
+                VoteCounts delta = (Boolean) row.values()[3] ? new VoteCounts(1, 0) : new VoteCounts(0, 1);
+                (row.sql().equals(INSERT_POST_VOTE) ? posts : comments).merge((UUID) row.values()[1], delta, VoteCounts::plus);
+            }
+            execute(SHIFT_POST_COUNTERS, counterShifts(posts));
+            execute(SHIFT_COMMENT_COUNTERS, counterShifts(comments));
+        }
+    }
+
+    private List<Object[]> counterShifts(Map<UUID, VoteCounts> shifts) {
+        List<Object[]> rows = new ArrayList<>();
+        shifts.forEach((id, delta) -> rows.add(new Object[]{delta.upvotes(), delta.downvotes(), id}));
+        return rows;
+    }
+
+    // a single row goes through a plain update so its error names the row instead of the whole batch
+    private void execute(String sql, List<Object[]> rows) {
+        if (rows.size() == 1) {
+            jdbcTemplate.update(sql, rows.get(0));
+        } else if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private void committed(Run run, Kind kind, List<Row> rows) {
+        run.inserted[kind.ordinal()] += rows.size();
+        for (Row row : rows) {
+            row.committed().run();
+        }
+    }
+
+    private void reject(Run run, Integer batch, long line, String type, String message) {
+        run.failed++;
+        if (run.errors.size() < maxReportedErrors) {
+            run.errors.add(new ImportError(batch, line, type, message));
+        }
+    }
+
+    private static String describe(RuntimeException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) {
+            return e.getClass().getSimpleName();
+        }
+        return message.length() <= MAX_MESSAGE_LENGTH ? message : message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+    }
+
+    private static String text(JsonNode line, String field) {
+        JsonNode value = line.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String required(JsonNode line, String field) {
+        String value = text(line, field);
+        if (value == null || value.isBlank()) {
+            throw new BadRequestException("Campul " + field + " lipseste");
+        }
+        return value;
+    }
+
+    private static LocalDateTime localTime(JsonNode line, String field) {
+        String value = text(line, field);
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+}
@@ -5,230 +5,426 @@ import org.insiders.backend.dto.comment.CommentResponseDto;
 import org.insiders.backend.dto.comment.CommentUpdateRequestDto;
 import org.insiders.backend.entity.Comment;
 import org.insiders.backend.entity.Post;
-import org.insiders.backend.entity.User;
+import org.insiders.backend.exceptions.BadRequestException;
 import org.insiders.backend.exceptions.NotFoundException;
 import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
 import org.insiders.backend.mapper.CommentMapper;
+import org.insiders.backend.model.CommentNode;
+import org.insiders.backend.model.CommentPage;
+import org.insiders.backend.model.CommentPath;
+import org.insiders.backend.model.FeedCursor;
+import org.insiders.backend.model.ScoreCursor;
+import org.insiders.backend.model.UserIdentity;
 import org.insiders.backend.repository.CommentRepository;
 import org.insiders.backend.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class CommentService {
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
     private final UserManagementService userManagementService;
     private final PostRepository postRepository;
     private final VotingService votingService;
+    private final PostCache postCache;
+    private final RankingIndex rankingIndex;
+    private final int maxTreeDepth;
+    private final int maxTreeChildren;
     private final AsyncLogManager logger = AsyncLogManager.getInstance();
 
     public CommentService(CommentRepository commentRepository,
                           CommentMapper commentMapper,
                           UserManagementService userManagementService,
                           PostRepository postRepository,
-                          VotingService votingService) {
+                          VotingService votingService,
+                          PostCache postCache,
+                          RankingIndex rankingIndex,
+                          @Value("${insiders.comments.max-depth:10}") int maxTreeDepth,
+                          @Value("${insiders.comments.max-children-per-node:100}") int maxTreeChildren) {
         this.commentRepository = commentRepository;
         this.commentMapper = commentMapper;
         this.userManagementService = userManagementService;
         this.postRepository = postRepository;
         this.votingService = votingService;
+        this.postCache = postCache;
+        this.rankingIndex = rankingIndex;
+        this.maxTreeDepth = maxTreeDepth;
+        this.maxTreeChildren = maxTreeChildren;
     }
 
     @Transactional(readOnly = true)
     public Comment getCommentById(UUID id){
-        logger.log("INFO", "Fetching comment with ID: " + id);
+        logger.log(LogLevel.INFO, "Fetching comment with ID: {}", id);
         try {
             Comment comment = commentRepository.findById(id)
                     .orElseThrow(() -> {
-                        logger.log("WARN", "Comment not found with ID: " + id);
+                        logger.log(LogLevel.WARNING, "Comment not found with ID: {}", id);
                         return new NotFoundException("Comentariul nu a fost gasit");
                     });
-            logger.log("INFO", "Retrieved comment with ID: " + id);
+            logger.log(LogLevel.INFO, "Retrieved comment with ID: {}", id);
             return comment;
         } catch (Exception e) {
             if (!(e instanceof NotFoundException)) {
-                logger.log("ERROR", "Error retrieving comment with ID " + id + ": " + e.getMessage());
+                logger.log(LogLevel.ERROR, "Error retrieving comment with ID {}: {}", id, e.getMessage());
             }
             throw e;
         }
     }
 
+    /**
+     * The complete thread of a post, read in path order with one range scan. Unbounded, so it is
+     * only served on request; the regular view is {@link #getCommentsForPost(UUID, UserIdentity, String, String, int, int)}.
+     */
     @Transactional(readOnly = true)
-    public List<CommentResponseDto> getCommentsForPost(UUID postId, String currentUsername) {
-        logger.log("INFO", "Fetching comments for post with ID: " + postId + ", current user: " + currentUsername);
+    public List<CommentResponseDto> getThreadForPost(UUID postId, UserIdentity currentUser) {
+        logger.log(LogLevel.INFO, "Fetching comments for post with ID: {}, current user: {}", postId, currentUser.username());
         try {
-            List<Comment> allComments = commentRepository.findByPostIdOrderByCreatedAtDesc(postId);
-            logger.log("INFO", "Found " + allComments.size() + " comments for post ID: " + postId);
+            List<Comment> thread = commentRepository.findByPostIdOrderByPath(postId);
+            logger.log(LogLevel.INFO, "Found {} comments for post ID: {}", thread.size(), postId);
+
+            Map<UUID, String> userVotes = getUserVotes(postId, currentUser);
+
+            // rows arrive depth-first in display order: a comment is complete once a row at its depth or above shows up
+            List<CommentResponseDto> result = new ArrayList<>();
+            Deque<TreeFrame> open = new ArrayDeque<>();
+            for (Comment comment : thread) {
+                while (!open.isEmpty() && open.peek().comment().getDepth() >= comment.getDepth()) {
+                    close(open, result, userVotes);
+                }
+                open.push(new TreeFrame(comment, new ArrayList<>()));
+            }
+            while (!open.isEmpty()) {
+                close(open, result, userVotes);
+            }
+            logger.log(LogLevel.INFO, "Successfully built comment tree with {} root comments", result.size());
+            return result;
+        } catch (Exception e) {
+            logger.log(LogLevel.ERROR, "Error fetching comments for post {}: {}", postId, e.getMessage());
+            throw e;
+        }
+    }
 
-            Map<UUID,List<Comment>> childrenByParent = allComments.stream()
-                    .filter(c -> c.getParentComment()!=null)
-                    .collect(Collectors.groupingBy(c->c.getParentComment().getId()));
+    /**
+     * One page of top-level comments, newest first ("new") or by score ("top"); either way the cursor
+     * is the keyset position of the last comment served. Each comment carries at most repliesPerComment
+     * newest replies, read for the whole page in one query; the rest continue through {@link #getReplies}.
+     */
+    @Transactional(readOnly = true)
+    public CommentPage getCommentsForPost(UUID postId, UserIdentity currentUser, String sort, String cursor,
+                                          int limit, int repliesPerComment) {
+        logger.log(LogLevel.INFO, "Fetching comment page for post with ID: {}, sort: {}, current user: {}", postId, sort, currentUser.username());
+        try {
+            boolean top = parseSort(sort);
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            int width = Math.max(0, Math.min(repliesPerComment, maxTreeChildren));
+
+            List<CommentNode> roots;
+            if (top && (cursor == null || cursor.isBlank())) {
+                roots = commentRepository.findTopRoots(postId, pageSize + 1);
+            } else if (top) {
+                ScoreCursor after = ScoreCursor.decode(cursor);
+                roots = commentRepository.findTopRootsAfter(postId, after.score(), after.createdAt(), after.id(), pageSize + 1);
+            } else if (cursor == null || cursor.isBlank()) {
+                roots = commentRepository.findRoots(postId, pageSize + 1);
+            } else {
+                FeedCursor after = FeedCursor.decode(cursor);
+                roots = commentRepository.findRootsAfter(postId, after.createdAt(), after.id(), pageSize + 1);
+            }
 
-            List<Comment> rootComments = allComments.stream()
-                    .filter(c -> c.getParentComment() == null)
-                    .sorted(BY_DATE_DESC)
+            // one extra row tells us whether another page exists
+            boolean hasMore = roots.size() > pageSize;
+            if (hasMore) {
+                roots = roots.subList(0, pageSize);
+            }
+
+            List<CommentNode> replies = firstReplies(roots, width);
+            Map<UUID, List<CommentNode>> childrenByParent = byParent(replies);
+
+            Map<UUID, String> userVotes = getUserVotes(currentUser, roots, replies);
+            List<CommentResponseDto> comments = roots.stream()
+                    .map(root -> buildSubtreeDto(root, childrenByParent, userVotes, false, width))
                     .toList();
-            logger.log("INFO", "Filtered " + rootComments.size() + " root comments for post ID: " + postId);
 
-            // Fix: Make currentUserId effectively final by initializing it with its final value
-            final UUID currentUserId = currentUsername != null
-                    ? userManagementService.findByUsername(currentUsername).getId()
-                    : null;
+            String nextCursor = null;
+            if (hasMore) {
+                CommentNode last = roots.get(roots.size() - 1);
+                nextCursor = top ? ScoreCursor.after(last).encode() : new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+            }
+            logger.log(LogLevel.INFO, "Loaded {} comments and {} replies for post ID: {}", comments.size(), replies.size(), postId);
+            return new CommentPage(comments, nextCursor);
+        } catch (Exception e) {
+            logger.log(LogLevel.ERROR, "Error fetching comments for post {}: {}", postId, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * One page of the direct replies of a comment, newest first, continuing a moreReplies cursor.
+     * Each reply carries at most repliesPerComment of its own newest replies, read for the whole
+     * page in one query, with a moreReplies cursor when there are more.
+     */
+    @Transactional(readOnly = true)
+    public CommentPage getReplies(UUID commentId, UserIdentity currentUser, String cursor, int limit, int repliesPerComment) {
+        logger.log(LogLevel.INFO, "Fetching replies of comment ID: {}", commentId);
+        try {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            int width = Math.max(0, Math.min(repliesPerComment, maxTreeChildren));
+            List<CommentNode> replies;
+            if (cursor == null || cursor.isBlank()) {
+                replies = commentRepository.findReplies(commentId, pageSize + 1);
+            } else {
+                FeedCursor after = FeedCursor.decode(cursor);
+                replies = commentRepository.findRepliesAfter(commentId, after.createdAt(), after.id(), pageSize + 1);
+            }
+            if (replies.isEmpty() && !commentRepository.existsById(commentId)) {
+                logger.log(LogLevel.WARNING, "Comment not found with ID: {}", commentId);
+                throw new NotFoundException("Comentariul nu a fost gasit");
+            }
 
-            if (currentUserId != null) {
-                logger.log("INFO", "Current user ID resolved: " + currentUserId);
+            boolean hasMore = replies.size() > pageSize;
+            if (hasMore) {
+                replies = replies.subList(0, pageSize);
             }
 
-            List<CommentResponseDto> result = rootComments.stream()
-                    .map(c -> buildTreeDto(c, childrenByParent, currentUserId))
+            List<CommentNode> grandchildren = firstReplies(replies, width);
+            Map<UUID, List<CommentNode>> childrenByParent = byParent(grandchildren);
+
+            Map<UUID, String> userVotes = getUserVotes(currentUser, replies, grandchildren);
+            List<CommentResponseDto> comments = replies.stream()
+                    .map(reply -> buildSubtreeDto(reply, childrenByParent, userVotes, false, width))
                     .toList();
-            logger.log("INFO", "Successfully built comment tree with " + result.size() + " root comments");
-            return result;
+
+            String nextCursor = null;
+            if (hasMore) {
+                CommentNode last = replies.get(replies.size() - 1);
+                nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+            }
+            logger.log(LogLevel.INFO, "Loaded {} replies and {} of their replies for comment ID: {}", comments.size(), grandchildren.size(), commentId);
+            return new CommentPage(comments, nextCursor);
         } catch (Exception e) {
-            logger.log("ERROR", "Error fetching comments for post " + postId + ": " + e.getMessage());
+            if (!(e instanceof NotFoundException)) {
+                logger.log(LogLevel.ERROR, "Error fetching replies of comment {}: {}", commentId, e.getMessage());
+            }
             throw e;
         }
     }
 
     @Transactional(rollbackFor = Exception.class)
-    public CommentResponseDto createComment(UUID postId, CommentCreateRequestDto request) {
-        logger.log("INFO", "Creating comment for post ID: " + postId + " by user: " + request.author());
+    public CommentResponseDto createComment(UUID postId, CommentCreateRequestDto request, UserIdentity user) {
+        logger.log(LogLevel.INFO, "Creating comment for post ID: {} by user: {}", postId, user.username());
         try {
-            User user = userManagementService.findByUsername(request.author());
             Post post = postRepository.findById(postId)
                     .orElseThrow(() -> {
-                        logger.log("WARN", "Post not found with ID: " + postId);
+                        logger.log(LogLevel.WARNING, "Post not found with ID: {}", postId);
                         return new NotFoundException("Postarea nu a fost gasita");
                     });
 
             Comment parent = null;
             if (request.parentId() != null) {
-                logger.log("INFO", "Comment has parent ID: " + request.parentId());
+                logger.log(LogLevel.INFO, "Comment has parent ID: {}", request.parentId());
                 parent = getCommentById(request.parentId());
             }
 
-            Comment savedComment = commentRepository.save(new Comment(post, parent, request.content(), user));
-            logger.log("INFO", "Comment created successfully with ID: " + savedComment.getId());
+            Comment savedComment = commentRepository.save(new Comment(post, parent, request.content(),
+                    userManagementService.getReference(user.id()), commentRepository.nextPathSequence()));
+            postRepository.shiftCommentCount(postId, 1);
+            postCache.invalidate(postId);
+            rankingIndex.shiftCommentCount(postId, 1);
+            logger.log(LogLevel.INFO, "Comment created successfully with ID: {}", savedComment.getId());
 
             int up = 0, down = 0;
             String userVote = null;
-            return commentMapper.toDto(savedComment, up, down, userVote, List.of());
+            return commentMapper.toDto(savedComment, user.username(), up, down, userVote, List.of());
         } catch (Exception e) {
-            logger.log("ERROR", "Error creating comment for post " + postId + ": " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Error creating comment for post {}: {}", postId, e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * The comment and its replies, read with one recursive query that stops at maxDepth levels
+     * below the comment and keeps the maxChildrenPerNode newest replies of every node (both
+     * capped by configuration; null means the cap). A node whose replies were cut by width
+     * carries a moreReplies cursor that continues them through the after parameter; a node cut
+     * by depth has replyCount > 0 and no replies, and is expanded by requesting it directly.
+     */
     @Transactional(readOnly = true)
-    public CommentResponseDto getCommentWithReplies(UUID commentId, String currentUsername) {
-        logger.log("INFO", "Fetching comment tree for comment ID: " + commentId);
+    public CommentResponseDto getCommentWithReplies(UUID commentId, UserIdentity currentUser,
+                                                    Integer maxDepth, Integer maxChildrenPerNode, String after) {
+        logger.log(LogLevel.INFO, "Fetching comment tree for comment ID: {}", commentId);
         try {
-            Comment mainComment = getCommentById(commentId);
-
-            List<Comment> allComments = commentRepository.findByPostIdOrderByCreatedAtDesc(mainComment.getPost().getId());
-            logger.log("INFO", "Found " + allComments.size() + " comments in post for building comment tree");
-
-            Map<UUID, List<Comment>> childrenByParent = allComments.stream()
-                    .filter(c -> c.getParentComment() != null)
-                    .collect(Collectors.groupingBy(c -> c.getParentComment().getId()));
-
-            UUID currentUserId = null;
-            if (currentUsername != null) {
-                currentUserId = userManagementService.findByUsername(currentUsername).getId();
-                logger.log("INFO", "Current user ID resolved: " + currentUserId);
+            int depth = maxDepth == null ? maxTreeDepth : Math.max(0, Math.min(maxDepth, maxTreeDepth));
+            int width = maxChildrenPerNode == null ? maxTreeChildren : Math.max(1, Math.min(maxChildrenPerNode, maxTreeChildren));
+            FeedCursor cursor = after == null || after.isBlank() ? null : FeedCursor.decode(after);
+
+            List<CommentNode> nodes = cursor == null
+                    ? commentRepository.findSubtree(commentId, depth, width)
+                    : commentRepository.findSubtreeAfter(commentId, depth, width, cursor.createdAt(), cursor.id());
+            if (nodes.isEmpty()) {
+                logger.log(LogLevel.WARNING, "Comment not found with ID: {}", commentId);
+                throw new NotFoundException("Comentariul nu a fost gasit");
+            }
+            logger.log(LogLevel.INFO, "Loaded {} comments of the subtree of comment ID: {}", nodes.size(), commentId);
+
+            // rows come ordered by depth, then newest first, so each child list is already in display order
+            Map<UUID, List<CommentNode>> childrenByParent = new HashMap<>();
+            for (CommentNode node : nodes) {
+                if (node.getDepth() > 0) {
+                    childrenByParent.computeIfAbsent(node.getParentId(), k -> new ArrayList<>()).add(node);
+                }
             }
 
-            CommentResponseDto result = buildTreeDto(mainComment, childrenByParent, currentUserId);
-            logger.log("INFO", "Successfully built comment tree for comment ID: " + commentId);
+            Map<UUID, String> userVotes = getUserVotes(currentUser, nodes, List.of());
+
+            CommentResponseDto result = buildSubtreeDto(nodes.get(0), childrenByParent, userVotes, cursor != null, width);
+            logger.log(LogLevel.INFO, "Successfully built comment tree for comment ID: {}", commentId);
             return result;
         } catch (Exception e) {
-            logger.log("ERROR", "Error fetching comment tree for " + commentId + ": " + e.getMessage());
+            if (!(e instanceof NotFoundException)) {
+                logger.log(LogLevel.ERROR, "Error fetching comment tree for {}: {}", commentId, e.getMessage());
+            }
             throw e;
         }
     }
 
     @Transactional(rollbackFor = Exception.class)
-    public CommentResponseDto updateComment(UUID commentId, CommentUpdateRequestDto request, String currentUsername) {
-        logger.log("INFO", "Updating comment with ID: " + commentId + ", user: " + currentUsername);
+    public CommentResponseDto updateComment(UUID commentId, CommentUpdateRequestDto request, UserIdentity currentUser) {
+        logger.log(LogLevel.INFO, "Updating comment with ID: {}, user: {}", commentId, currentUser.username());
         try {
             Comment comment = getCommentById(commentId);
 
             comment.setContent(request.content());
             comment.setEdited(true);
             Comment updatedComment = commentRepository.save(comment);
-            logger.log("INFO", "Comment updated successfully, ID: " + updatedComment.getId());
+            logger.log(LogLevel.INFO, "Comment updated successfully, ID: {}", updatedComment.getId());
 
-            int up = votingService.countUpvotesForComment(updatedComment.getId());
-            int down = votingService.countDownvotesForComment(updatedComment.getId());
-            String userVote = null;
+            String userVote = votingService.getVoteTypeForUser(currentUser.id(), null, updatedComment.getId());
 
-            if (currentUsername != null) {
-                UUID userId = userManagementService.findByUsername(currentUsername).getId();
-                userVote = votingService.getVoteTypeForUser(userId, null, updatedComment.getId());
-            }
-
-            return commentMapper.toDto(updatedComment, up, down, userVote, List.of());
+            return commentMapper.toDto(updatedComment, updatedComment.getUpvotes(), updatedComment.getDownvotes(), userVote, List.of());
         } catch (Exception e) {
-            logger.log("ERROR", "Error updating comment " + commentId + ": " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Error updating comment {}: {}", commentId, e.getMessage());
             throw e;
         }
     }
 
     @Transactional(rollbackFor = Exception.class)
     public void deleteComment(UUID commentId) {
-        logger.log("INFO", "Deleting comment with ID: " + commentId);
+        logger.log(LogLevel.INFO, "Deleting comment with ID: {}", commentId);
         try {
             Comment comment = getCommentById(commentId);
+            // replies are removed by ON DELETE CASCADE, so the post loses the whole subtree
+            int removed = commentRepository.countSubtree(comment.getPost().getId(), comment.getPath(), CommentPath.end(comment.getPath()));
             commentRepository.delete(comment);
-            logger.log("INFO", "Comment deleted successfully, ID: " + commentId);
+            postRepository.shiftCommentCount(comment.getPost().getId(), -removed);
+            postCache.invalidate(comment.getPost().getId());
+            rankingIndex.shiftCommentCount(comment.getPost().getId(), -removed);
+            logger.log(LogLevel.INFO, "Comment deleted successfully, ID: {}", commentId);
         } catch (Exception e) {
-            logger.log("ERROR", "Error deleting comment " + commentId + ": " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Error deleting comment {}: {}", commentId, e.getMessage());
             throw e;
         }
     }
 
     @Transactional(readOnly = true)
     public int countCommentsByPostId(UUID postId) {
-        logger.log("INFO", "Counting comments for post ID: " + postId);
+        logger.log(LogLevel.INFO, "Counting comments for post ID: {}", postId);
         try {
-            int count = commentRepository.countByPostId(postId);
-            logger.log("INFO", "Post ID: " + postId + " has " + count + " comments");
+            int count = postRepository.findCommentCountById(postId).orElse(0);
+            logger.log(LogLevel.INFO, "Post ID: {} has {} comments", postId, count);
             return count;
         } catch (Exception e) {
-            logger.log("ERROR", "Error counting comments for post " + postId + ": " + e.getMessage());
+            logger.log(LogLevel.ERROR, "Error counting comments for post {}: {}", postId, e.getMessage());
             throw e;
         }
     }
 
-    private CommentResponseDto buildTreeDto(Comment node, Map<UUID,List<Comment>> childrenByParent, UUID currentUserId) {
-        int up = votingService.countUpvotesForComment(node.getId());
-        int down = votingService.countDownvotesForComment(node.getId());
-        String userVote = null;
-        if (currentUserId != null) {
-            userVote = votingService.getVoteTypeForUser(currentUserId, null, node.getId());
+    // the caller's votes on every comment of the post, fetched once per tree; null when there is no caller
+    private Map<UUID, String> getUserVotes(UUID postId, UserIdentity currentUser) {
+        if (currentUser == null) {
+            return null;
         }
+        return votingService.getCommentVoteTypesForUser(currentUser.id(), postId);
+    }
 
-        List<Comment> children = childrenByParent
-                .getOrDefault(node.getId(), List.of())
-                .stream()
-                .sorted(BY_DATE_DESC)
-                .toList();
+    // the caller's votes on the given comments only; null when there is no caller
+    private Map<UUID, String> getUserVotes(UserIdentity currentUser, List<CommentNode> nodes, List<CommentNode> moreNodes) {
+        if (currentUser == null) {
+            return null;
+        }
+        UUID currentUserId = currentUser.id();
+        List<UUID> ids = new ArrayList<>(nodes.size() + moreNodes.size());
+        nodes.forEach(n -> ids.add(n.getId()));
+        moreNodes.forEach(n -> ids.add(n.getId()));
+        return ids.isEmpty() ? Map.of() : votingService.getCommentVoteTypesForUser(currentUserId, ids);
+    }
+
+    // the width newest replies of each of the given comments, in one query
+    private List<CommentNode> firstReplies(List<CommentNode> parents, int width) {
+        return width == 0 || parents.isEmpty()
+                ? List.of()
+                : commentRepository.findFirstReplies(parents.stream().map(CommentNode::getId).toList(), width);
+    }
+
+    // rows arrive newest first, so each child list is already in display order
+    private static Map<UUID, List<CommentNode>> byParent(List<CommentNode> replies) {
+        Map<UUID, List<CommentNode>> childrenByParent = new HashMap<>();
+        for (CommentNode reply : replies) {
+            childrenByParent.computeIfAbsent(reply.getParentId(), k -> new ArrayList<>()).add(reply);
+        }
+        return childrenByParent;
+    }
+
+    // true for "top", false for "new" (the default)
+    private static boolean parseSort(String sort) {
+        if (sort == null || sort.isBlank() || sort.equalsIgnoreCase("new")) {
+            return false;
+        }
+        if (sort.equalsIgnoreCase("top")) {
+            return true;
+        }
+        throw new BadRequestException("Sortare invalida: " + sort);
+    }
+
+    private void close(Deque<TreeFrame> open, List<CommentResponseDto> roots, Map<UUID, String> userVotes) {
+        TreeFrame frame = open.pop();
+        Comment node = frame.comment();
+        String userVote = userVotes != null ? userVotes.getOrDefault(node.getId(), "none") : null;
+        CommentResponseDto dto = commentMapper.toDto(node, node.getUpvotes(), node.getDownvotes(), userVote, frame.replies());
+        (open.isEmpty() ? roots : open.peek().replies()).add(dto);
+    }
+
+    private record TreeFrame(Comment comment, List<CommentResponseDto> replies) {
+    }
+
+    // resumed is set for the root of an "after" request: its replies before the cursor are not in the
+    // result, so replyCount says nothing and only a full page of width replies may have a successor
+    private CommentResponseDto buildSubtreeDto(CommentNode node, Map<UUID, List<CommentNode>> childrenByParent,
+                                               Map<UUID, String> userVotes, boolean resumed, int width) {
+        String userVote = userVotes != null ? userVotes.getOrDefault(node.getId(), "none") : null;
+        List<CommentNode> children = childrenByParent.getOrDefault(node.getId(), List.of());
 
         List<CommentResponseDto> replies = children.stream()
-                .map(ch -> buildTreeDto(ch, childrenByParent, currentUserId))
+                .map(ch -> buildSubtreeDto(ch, childrenByParent, userVotes, false, width))
                 .toList();
 
-        return commentMapper.toDto(node, up, down, userVote, replies);
+        String moreReplies = null;
+        if (!children.isEmpty() && (resumed ? children.size() == width : children.size() < node.getReplyCount())) {
+            CommentNode last = children.get(children.size() - 1);
+            moreReplies = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return commentMapper.toDto(node, userVote, replies, moreReplies);
     }
-
-    private static final Comparator<Comment> BY_DATE_DESC =
-            Comparator.comparing(Comment::getCreatedAt).reversed()
-                    .thenComparing(Comment::getId);
 }
\ No newline at end of file
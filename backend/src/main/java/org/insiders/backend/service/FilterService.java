@@ -1,121 +1,230 @@
 package org.insiders.backend.service;
 
+import jakarta.annotation.PreDestroy;
 import org.insiders.backend.controller.ImageFilterController;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.image.AreaAverageScaler;
+import org.insiders.backend.image.FilterPipeline;
+import org.insiders.backend.image.ImageHeader;
+import org.insiders.backend.image.ImageFilters;
+import org.insiders.backend.image.PixelImage;
+import org.insiders.backend.image.StripeExecutor;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.SpooledUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-
+import java.util.stream.Stream;
+
+/**
+ * Spools uploads and renders them into the image store, applying the selected filter. Filters run in-process
+ * ({@link org.insiders.backend.image}) unless {@code insiders.images.processor-url} points
+ * at the remote processor, reached through {@link ImageProcessorClient}.
+ */
+@Service
 public class FilterService {
-    public static String createImage(MultipartFile image, Integer filterId) {
-        String uploadsDir = "/home/ubuntu/images/";
-
-        File dir = new File(uploadsDir);
-        if (!dir.exists() && !dir.mkdirs()) {
-            throw new RuntimeException("Could not create upload directory!");
-        }
+    private final String uploadsDir;
+    private final ImageProcessorClient processorClient;
+    private final StripeExecutor executor;
+    private final int maxWidth;
+    private final int maxHeight;
+    private final long maxPixels;
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    public FilterService(@Value("${insiders.images.dir:/home/ubuntu/images/}") String uploadsDir,
+                         ImageProcessorClient processorClient,
+                         @Value("${insiders.images.filter-threads:0}") int filterThreads,
+                         @Value("${insiders.images.max-stripes-per-image:4}") int maxStripesPerImage,
+                         @Value("${insiders.images.max-width:6000}") int maxWidth,
+                         @Value("${insiders.images.max-height:6000}") int maxHeight,
+                         @Value("${insiders.images.max-pixels:16000000}") long maxPixels) {
+        this.uploadsDir = uploadsDir.endsWith("/") ? uploadsDir : uploadsDir + "/";
+        this.processorClient = processorClient;
+        this.executor = StripeExecutor.create(filterThreads, maxStripesPerImage);
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.maxPixels = maxPixels;
+    }
 
-        String filename = UUID.randomUUID() + "_" + image.getOriginalFilename();
-        File file = new File(dir, filename);
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
 
+    /**
+     * Streams the upload into the pending directory so the request can return before any
+     * filtering happens, hashing it on the way. transferFrom copies through a small buffer, so
+     * the heap never holds more than that of an upload.
+     */
+    public SpooledUpload spool(MultipartFile image) {
+        Path dir = Path.of(uploadsDir, "pending");
         try {
-            byte[] finalBytes = image.getBytes();
-
-            String filterName = ImageFilterController.getNameById(filterId);
-            if (filterName != null && !filterName.isBlank() && !filterName.equalsIgnoreCase("none")) {
-                finalBytes = filterImage(finalBytes, filename, filterName);
-                filename = filename.replaceAll("\\.(png|jpeg|jpg)$", "") + ".jpg";
+            Files.createDirectories(dir);
+            Path upload = dir.resolve(UUID.randomUUID() + "_" + image.getOriginalFilename());
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(image.getInputStream(), sha256));
+                 FileChannel out = FileChannel.open(upload, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                size = out.transferFrom(in, 0, Long.MAX_VALUE);
             }
+            return new SpooledUpload(upload, image.getOriginalFilename(), size, HexFormat.of().formatHex(sha256.digest()));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not store upload", e);
+        }
+    }
 
-            Files.write(Path.of(uploadsDir + filename), finalBytes);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * Drops uploads spooled by a previous run whose jobs were lost.
+     */
+    public void discardPending() {
+        try (Stream<Path> uploads = Files.list(Path.of(uploadsDir, "pending"))) {
+            uploads.forEach(this::discard);
+        } catch (IOException ignored) {
         }
+    }
 
-        return "http://ec2-3-74-161-90.eu-central-1.compute.amazonaws.com/images/" + filename;
+    public void discard(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException ignored) {
+        }
     }
 
-    private static byte[] filterImage(byte[] imageBytes, String originalFilename, String filterName) {
-//        try {
-//            // Build the JSON array of operations
-//            String operations = "[{ \"Type\": \"" + filterName + "\", \"Parameters\": {} }]";
-//            String boundary = "----JavaBoundary-" + UUID.randomUUID();
-//
-//            // Build multipart/form-data body
-//            var sb = new StringBuilder();
-//            sb.append("--").append(boundary).append("\r\n");
-//            sb.append("Content-Disposition: form-data; name=\"Operations\"\r\n\r\n");
-//            sb.append(operations).append("\r\n");
-//
-//            // File header
-//            sb.append("--").append(boundary).append("\r\n");
-//            sb.append("Content-Disposition: form-data; name=\"Image\"; filename=\"")
-//                    .append(originalFilename).append("\"\r\n");
-//            sb.append("Content-Type: image/jpeg\r\n\r\n");
-//
-//            byte[] headerBytes = sb.toString().getBytes();
-//            byte[] endBytes = ("\r\n--" + boundary + "--\r\n").getBytes();
-//
-//            // concatenate => header + image + ending
-//            byte[] body = new byte[headerBytes.length + imageBytes.length + endBytes.length];
-//            System.arraycopy(headerBytes, 0, body, 0, headerBytes.length);
-//            System.arraycopy(imageBytes, 0, body, headerBytes.length, imageBytes.length);
-//            System.arraycopy(endBytes, 0, body, headerBytes.length + imageBytes.length, endBytes.length);
-//
-//            // Send request to C# EC2
-//            HttpRequest request = HttpRequest.newBuilder()
-//                    .uri(new URI("http://16.170.234.239/api/"))
-//                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
-//                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
-//                    .build();
-//
-//            HttpClient client = HttpClient.newHttpClient();
-//            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
-//            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-//                return response.body(); // Response is binary JPEG
-//            } else {
-//                throw new RuntimeException("Filtering server returned status: " + response.statusCode());
-//            }
-//        } catch (IOException | InterruptedException | URISyntaxException e) {
-//            throw new RuntimeException("Failed to process image through C# server", e);
-//        }
+    /**
+     * False while the remote processor is configured but its circuit breaker is open.
+     */
+    public boolean canFilter() {
+        return !processorClient.isEnabled() || processorClient.isAvailable();
+    }
 
-        try {
-            RestTemplate restTemplate = new RestTemplate();
+    /**
+     * Format and size of the upload read from its content; uploads that are not JPEG, PNG or BMP
+     * are refused, whatever their file name says.
+     */
+    public ImageHeader verify(SpooledUpload upload) throws IOException {
+        return verify(upload.path());
+    }
 
-            String operationsJson = "[{ \"Type\": \"" + filterName + "\", \"Parameters\": {} }]";
+    private ImageHeader verify(Path image) throws IOException {
+        return PixelImage.probe(image)
+                .orElseThrow(() -> new BadRequestException("Formatul imaginii nu este suportat (doar JPG, PNG, BMP)"));
+    }
 
-            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("Image", new ByteArrayResource(imageBytes) {
-                @Override public String getFilename() { return originalFilename; }
-            });
-            body.add("Operations", operationsJson);
+    /**
+     * Whether the image may be decoded. ImageIO.read has no limit of its own, so a small, highly
+     * compressible PNG declaring a huge size would otherwise be expanded into an int per pixel.
+     */
+    private boolean withinLimits(ImageHeader header) {
+        return header.width() <= maxWidth && header.height() <= maxHeight && header.pixels() <= maxPixels;
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+    /**
+     * Name of the filter behind filterId, null when the image is stored as uploaded.
+     */
+    public String filterName(Integer filterId) {
+        String filterName = ImageFilterController.getNameById(filterId);
+        if (filterName == null || filterName.isBlank() || filterName.equalsIgnoreCase("none")) {
+            return null;
+        }
+        return filterName;
+    }
 
-            HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
-            ResponseEntity<byte[]> response = restTemplate.postForEntity("http://16.170.234.239/api/", request, byte[].class);
+    /**
+     * Writes the upload with filterName applied (JPEG) to target. Unfiltered uploads are renamed
+     * into place rather than copied; filtered ones go through a .part file moved into place once
+     * complete, so target never holds a partial image.
+     */
+    public void render(SpooledUpload upload, String filterName, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        if (filterName == null) {
+            Files.move(upload.path(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        }
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                return response.getBody(); // JPEG bytes from C# server
+        Path partial = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+            if (processorClient.isEnabled()) {
+                processorClient.process(upload.path(), upload.originalFilename(), filterName, out);
             } else {
-                throw new RuntimeException("C# server returned status: " + response.getStatusCode());
+                filterLocal(upload.path(), filterName, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            discard(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes area-averaged JPEG downscales of source, one per width it is wider than. Each one
+     * is scaled from the next larger, so the full image is only read once. Sources that are not a
+     * JPEG, PNG or BMP within the decode limits get no derivatives and are served as they are.
+     */
+    public void renderDerivatives(Path source, Map<Integer, Path> targetsByWidth) throws IOException {
+        Optional<ImageHeader> header = PixelImage.probe(source);
+        if (header.isEmpty() || !withinLimits(header.get())) {
+            logger.log(LogLevel.INFO, "No derivatives for {}: {}", source.getFileName(),
+                    header.map(h -> h.width() + "x" + h.height() + " is over the decode limit").orElse("not a supported image"));
+            return;
+        }
+        PixelImage current = PixelImage.decode(source);
+        List<Integer> widths = new ArrayList<>(targetsByWidth.keySet());
+        widths.sort(Comparator.reverseOrder());
+        for (int width : widths) {
+            if (width >= current.width()) {
+                continue;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to send image to C# server", e);
+            current = AreaAverageScaler.scaleToWidth(current, width, executor);
+            Path target = targetsByWidth.get(width);
+            Path partial = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                current.writeJpeg(out);
+            } catch (IOException | RuntimeException e) {
+                discard(partial);
+                throw e;
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void filterLocal(Path upload, String filterName, OutputStream out) throws IOException {
+        FilterPipeline pipeline = FilterPipeline.of(ImageFilters.byName(filterName)
+                .orElseThrow(() -> new BadRequestException("Filtrul " + filterName + " nu este suportat")));
+
+        ImageHeader header = verify(upload);
+        if (!withinLimits(header)) {
+            throw new BadRequestException("Imaginea de " + header.width() + "x" + header.height() + " depaseste limita de "
+                    + maxWidth + "x" + maxHeight + " si " + maxPixels + " pixeli");
+        }
+        PixelImage pixels;
+        try {
+            pixels = PixelImage.decode(upload);
+        } catch (IOException e) {
+            throw new BadRequestException("Imaginea nu a putut fi citita");
         }
+        pipeline.apply(pixels, executor);
+        pixels.writeJpeg(out);
     }
 }
@@ -2,6 +2,7 @@ package org.insiders.backend.service;
 
 import org.insiders.backend.dto.user.UserResponseDto;
 import org.insiders.backend.entity.User;
+import org.insiders.backend.model.UserIdentity;
 
 import java.util.List;
 import java.util.UUID;
@@ -11,5 +12,7 @@ public interface IUserService {
     User findById(UUID id);
     List<UserResponseDto> getAllUsers();
     User findByUsername(String username);
+    UserIdentity findIdentity(String username);
+    User getReference(UUID id);
     UserResponseDto getUserById(UUID id);
 }
@@ -0,0 +1,298 @@
+package org.insiders.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.exceptions.ImageProcessorUnavailableException;
+import org.insiders.backend.exceptions.RateLimitExceededException;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.ImageStatus;
+import org.insiders.backend.model.SpooledUpload;
+import org.insiders.backend.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filters and stores post images off the request thread. createPost spools the upload and
+ * commits with the post in {@link ImageStatus#PROCESSING}; a worker later stores the image in
+ * the {@link ImageStore} (skipping the filter when the same upload was already stored), sets
+ * photo_path and marks it READY, retrying with exponential backoff before giving up with
+ * FAILED. At most queue-capacity images are queued or running at once, beyond that uploads are
+ * refused with 429. With spring.threads.virtual.enabled the workers are virtual threads, so a
+ * worker waiting on the processor or the disk does not hold a platform thread.
+ */
+@Service
+public class ImagePipeline {
+    private static final int MAX_RECENT_FAILURES = 1000;
+
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    private final FilterService filterService;
+    private final ImageStore imageStore;
+    private final PostRepository postRepository;
+    private final PostCache postCache;
+    private final Semaphore slots;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final ScheduledThreadPoolExecutor workers;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<UUID, Job> recentFailures = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Job> eldest) {
+            return size() > MAX_RECENT_FAILURES;
+        }
+    };
+
+    private static final class Job {
+        final UUID postId;
+        final SpooledUpload upload;
+        final Integer filterId;
+        volatile String imageKey;
+        volatile String imagePath;
+        volatile boolean unfiltered;
+        volatile int attempts;
+        volatile String lastError;
+
+        Job(UUID postId, SpooledUpload upload, Integer filterId) {
+            this.postId = postId;
+            this.upload = upload;
+            this.filterId = filterId;
+        }
+    }
+
+    public ImagePipeline(FilterService filterService,
+                         ImageStore imageStore,
+                         PostRepository postRepository,
+                         PostCache postCache,
+                         Environment environment,
+                         @Value("${insiders.images.workers:2}") int workerCount,
+                         @Value("${insiders.images.queue-capacity:32}") int queueCapacity,
+                         @Value("${insiders.images.max-attempts:3}") int maxAttempts,
+                         @Value("${insiders.images.retry-delay-ms:1000}") long retryDelayMs) {
+        this.filterService = filterService;
+        this.imageStore = imageStore;
+        this.postRepository = postRepository;
+        this.postCache = postCache;
+        this.slots = new Semaphore(Math.max(queueCapacity, 1));
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryDelayMs = retryDelayMs;
+
+        ThreadFactory threads;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            threads = new VirtualThreadTaskExecutor("image-worker-").getVirtualThreadFactory();
+        } else {
+            AtomicInteger threadIndex = new AtomicInteger();
+            threads = r -> {
+                Thread thread = new Thread(r, "image-worker-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        // the pool size still caps how many images are processed at once, virtual or not
+        this.workers = new ScheduledThreadPoolExecutor(Math.max(workerCount, 1), threads);
+        this.workers.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Jobs live in memory only; images left PROCESSING by a previous run will never finish.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        int interrupted = postRepository.updateImageStatus(ImageStatus.PROCESSING, ImageStatus.FAILED);
+        if (interrupted > 0) {
+            logger.log(LogLevel.WARNING, "Marked {} images interrupted by the last shutdown as FAILED", interrupted);
+        }
+        filterService.discardPending();
+    }
+
+    /**
+     * Spools the upload and queues its processing for after the current transaction commits.
+     * On rollback the upload is dropped again.
+     */
+    public void submit(UUID postId, MultipartFile image, Integer filterId) throws RateLimitExceededException {
+        if (!slots.tryAcquire()) {
+            throw new RateLimitExceededException("Prea multe imagini in procesare, incearca din nou mai tarziu");
+        }
+
+        Job job;
+        try {
+            job = new Job(postId, filterService.spool(image), filterId);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        jobs.put(postId, job);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            workers.execute(() -> run(job));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(job, 0, "Procesarea imaginilor a fost oprita");
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(job);
+                }
+            }
+        });
+    }
+
+    public int attempts(UUID postId) {
+        Job job = find(postId);
+        return job == null ? 0 : job.attempts;
+    }
+
+    public String lastError(UUID postId) {
+        Job job = find(postId);
+        return job == null ? null : job.lastError;
+    }
+
+    public int queued() {
+        return jobs.size();
+    }
+
+    private Job find(UUID postId) {
+        Job job = jobs.get(postId);
+        if (job != null) {
+            return job;
+        }
+        synchronized (recentFailures) {
+            return recentFailures.get(postId);
+        }
+    }
+
+    private void run(Job job) {
+        job.attempts++;
+        try {
+            String filterName = job.unfiltered ? null : filterService.filterName(job.filterId);
+            if (filterName != null && job.imageKey == null && !filterService.canFilter()) {
+                logger.log(LogLevel.WARNING, "Image processor unavailable, storing the image of post {} unfiltered", job.postId);
+                job.unfiltered = true;
+                filterName = null;
+            }
+            if (job.imageKey == null) {
+                String key = imageStore.keyFor(job.upload.sha256(), filterName);
+                // stored as uploaded only once the content is known to be an image, under the extension of its real format
+                String extension = filterName == null ? filterService.verify(job.upload).format() : "jpg";
+                job.imagePath = imageStore.acquire(key, imageStore.pathFor(key, extension));
+                job.imageKey = key;
+            }
+            String filter = filterName;
+            imageStore.store(job.imagePath, target -> filterService.render(job.upload, filter, target));
+            storeDerivatives(job);
+
+            if (postRepository.updateImage(job.postId, imageStore.urlFor(job.imagePath), job.imageKey, ImageStatus.READY) == 0) {
+                logger.log(LogLevel.WARNING, "Post {} was deleted while its image was processed", job.postId);
+                imageStore.release(job.imageKey);
+            }
+            postCache.invalidate(job.postId);
+            release(job);
+        } catch (BadRequestException e) {
+            fail(job, e.getMessage());
+        } catch (ImageProcessorUnavailableException e) {
+            // the reference was taken on the filtered key, the unfiltered image has its own
+            logger.log(LogLevel.WARNING, "Image processor failed for post {}, storing the image unfiltered: {}", job.postId, e.getMessage());
+            imageStore.release(job.imageKey);
+            job.imageKey = null;
+            job.imagePath = null;
+            job.unfiltered = true;
+            job.attempts--;
+            submit(job, 0, e.getMessage());
+        } catch (Exception e) {
+            job.lastError = e.getMessage();
+            if (job.attempts >= maxAttempts || workers.isShutdown()) {
+                fail(job, e.getMessage());
+                return;
+            }
+            long delay = retryDelayMs << (job.attempts - 1);
+            logger.log(LogLevel.WARNING, "Image for post {} failed (attempt {}), retrying in {} ms: {}", job.postId, job.attempts, delay, e.getMessage());
+            submit(job, delay, e.getMessage());
+        }
+    }
+
+    // a shut down pool refuses new work; the job then fails, so its slot and spooled upload are released
+    private void submit(Job job, long delayMs, String error) {
+        if (!workers.isShutdown()) {
+            try {
+                workers.schedule(() -> run(job), delayMs, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException ignored) {
+            }
+        }
+        fail(job, error);
+    }
+
+    /**
+     * Thumbnails are optional: without them the full image is served in their place.
+     */
+    private void storeDerivatives(Job job) {
+        try {
+            imageStore.storeDerivatives(job.imagePath, filterService::renderDerivatives);
+        } catch (IOException | RuntimeException e) {
+            logger.log(LogLevel.WARNING, "Could not create thumbnails for post {}: {}", job.postId, e.getMessage());
+        }
+    }
+
+    private void fail(Job job, String error) {
+        job.lastError = error;
+        logger.log(LogLevel.ERROR, "Image for post {} failed after {} attempts: {}", job.postId, job.attempts, error);
+        try {
+            postRepository.updateImage(job.postId, null, null, ImageStatus.FAILED);
+            postCache.invalidate(job.postId);
+        } catch (RuntimeException e) {
+            logger.log(LogLevel.ERROR, "Could not mark image of post {} as failed: {}", job.postId, e.getMessage());
+        }
+        if (job.imageKey != null) {
+            imageStore.release(job.imageKey);
+        }
+        synchronized (recentFailures) {
+            recentFailures.put(job.postId, job);
+        }
+        release(job);
+    }
+
+    private void release(Job job) {
+        jobs.remove(job.postId, job);
+        filterService.discard(job.upload.path());
+        slots.release();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
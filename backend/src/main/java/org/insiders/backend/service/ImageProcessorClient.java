@@ -0,0 +1,126 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.exceptions.ImageProcessorUnavailableException;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.ImageProcessorStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client of the remote image processor (the C# ProcessingController: a multipart POST with an
+ * "Image" file and an "Operations" JSON array, answered with the JPEG). One RestTemplate over a
+ * shared JDK HttpClient keeps connections alive between uploads. Timeouts and 5xx responses
+ * count towards a {@link CircuitBreaker}; while it is open calls fail fast with
+ * {@link ImageProcessorUnavailableException} and images are stored unfiltered instead.
+ */
+@Component
+public class ImageProcessorClient {
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    private final String url;
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker breaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public ImageProcessorClient(@Value("${insiders.images.processor-url:}") String url,
+                                @Value("${insiders.images.processor-connect-timeout-ms:2000}") long connectTimeoutMs,
+                                @Value("${insiders.images.processor-read-timeout-ms:15000}") long readTimeoutMs,
+                                @Value("${insiders.images.processor-failure-threshold:5}") int failureThreshold,
+                                @Value("${insiders.images.processor-open-ms:30000}") long openMs) {
+        this.url = url.isBlank() ? null : url;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.breaker = new CircuitBreaker(failureThreshold, openMs);
+    }
+
+    public boolean isEnabled() {
+        return url != null;
+    }
+
+    public boolean isAvailable() {
+        return !breaker.isOpen();
+    }
+
+    /**
+     * Sends the upload through the processor and streams the filtered JPEG into out.
+     */
+    public void process(Path upload, String filename, String filterName, OutputStream out) {
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            throw new ImageProcessorUnavailableException("Procesorul de imagini nu este disponibil");
+        }
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("Image", new FileSystemResource(upload) {
+            @Override public String getFilename() { return filename; }
+        });
+        body.add("Operations", "[{ \"Type\": \"" + filterName + "\", \"Parameters\": {} }]");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
+
+        long start = System.nanoTime();
+        try {
+            restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(request, byte[].class), response -> {
+                response.getBody().transferTo(out);
+                return null;
+            });
+            breaker.onSuccess();
+        } catch (HttpClientErrorException e) {
+            // the processor is up, it just refused this image
+            breaker.onSuccess();
+            throw new BadRequestException("Procesorul de imagini a respins imaginea: " + e.getStatusCode());
+        } catch (RestClientException | CancellationException e) {
+            // a read timeout cancels the JDK client's future, which surfaces as a CancellationException
+            // rather than a ResourceAccessException depending on who notices first
+            failures.increment();
+            breaker.onFailure();
+            logger.log(LogLevel.WARNING, "Image processor call failed ({}): {}", breaker.state(), e.getMessage());
+            throw new ImageProcessorUnavailableException("Procesorul de imagini nu a raspuns", e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            calls.increment();
+            totalNanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+        }
+    }
+
+    public ImageProcessorStats stats() {
+        long count = calls.sum();
+        return new ImageProcessorStats(url, breaker.state().name(), count, failures.sum(), rejected.sum(),
+                count == 0 ? 0 : totalNanos.sum() / 1e6 / count, maxNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,266 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.ImageStoreStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stored images, addressed by a hash of the source bytes and the filter applied to them, so an
+ * image uploaded again with the same filter reuses the existing file. Files live under
+ * {@code <dir>/ab/cd/<key>.<ext>}; the images table counts the posts using each one.
+ *
+ * A file is deleted only while holding the row lock of an images row whose count is 0, and
+ * {@link #acquire} increments under that same lock, so a file that has just been reused is
+ * never removed.
+ */
+@Service
+public class ImageStore {
+    private static final String ACQUIRE =
+            "insert into images (key, path, ref_count) values (?, ?, 1) " +
+            "on conflict (key) do update set ref_count = images.ref_count + 1 returning path";
+    private static final String RELEASE =
+            "update images set ref_count = ref_count - 1 where key = ? and ref_count > 0";
+    private static final String LOCK_UNUSED =
+            "select path from images where key = ? and ref_count = 0 for update";
+    private static final String DELETE =
+            "delete from images where key = ?";
+
+    /**
+     * Widths of the JPEG derivatives stored next to every image, e.g. {@code <key>_w160.jpg}.
+     */
+    public static final List<Integer> DERIVATIVE_WIDTHS = List.of(1080, 480, 160);
+
+    private static final Pattern KEY = Pattern.compile("([0-9a-f]{64})(_w\\d+)?");
+    private static final Pattern STORED_URL = Pattern.compile(".*/[0-9a-f]{64}");
+
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path root;
+    private final String baseUrl;
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+
+    @FunctionalInterface
+    public interface ImageWriter {
+        void write(Path target) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface DerivativeWriter {
+        void write(Path source, Map<Integer, Path> targetsByWidth) throws IOException;
+    }
+
+    public ImageStore(JdbcTemplate jdbcTemplate,
+                      TransactionTemplate transactionTemplate,
+                      @Value("${insiders.images.dir:/home/ubuntu/images/}") String uploadsDir,
+                      @Value("${insiders.images.base-url:http://ec2-3-74-161-90.eu-central-1.compute.amazonaws.com:8080/images/}") String baseUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.root = Path.of(uploadsDir);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    /**
+     * Key of the image produced by applying filterName (null for none) to the source bytes.
+     */
+    public String keyFor(String sourceSha256, String filterName) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(sourceSha256.getBytes(StandardCharsets.US_ASCII));
+            sha256.update((byte) ':');
+            sha256.update((filterName == null ? "none" : filterName).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Relative path a new image with this key would get: two levels of two hex characters.
+     */
+    public String pathFor(String key, String extension) {
+        return key.substring(0, 2) + "/" + key.substring(2, 4) + "/" + key + "." + extension;
+    }
+
+    /**
+     * Takes a reference on key, registering it at path if it is new, and returns the relative
+     * path the image is stored under. The file may not exist yet; see {@link #store}.
+     */
+    public String acquire(String key, String path) {
+        return jdbcTemplate.queryForObject(ACQUIRE, String.class, key, path);
+    }
+
+    /**
+     * Writes the image at path unless an earlier upload already produced it.
+     */
+    public void store(String path, ImageWriter writer) throws IOException {
+        Path target = resolve(path);
+        if (Files.exists(target)) {
+            reused.increment();
+            return;
+        }
+        writer.write(target);
+        stored.increment();
+    }
+
+    /**
+     * Writes the derivatives of the image at path that don't exist yet. The writer skips widths
+     * the image is already narrower than; {@link #locate} serves the image itself for those.
+     */
+    public void storeDerivatives(String path, DerivativeWriter writer) throws IOException {
+        Map<Integer, Path> missing = new LinkedHashMap<>();
+        for (int width : DERIVATIVE_WIDTHS) {
+            Path derivative = resolve(derivativePath(path, width));
+            if (!Files.exists(derivative)) {
+                missing.put(width, derivative);
+            }
+        }
+        if (!missing.isEmpty()) {
+            writer.write(resolve(path), missing);
+        }
+    }
+
+    private static String derivativePath(String path, int width) {
+        return path.substring(0, path.lastIndexOf('.')) + "_w" + width + ".jpg";
+    }
+
+    /**
+     * URLs of the derivatives of a stored image by width, null for images outside the store.
+     */
+    public static Map<Integer, String> derivativeUrls(String imageUrl) {
+        if (imageUrl == null || !STORED_URL.matcher(imageUrl).matches()) {
+            return null;
+        }
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        for (int i = DERIVATIVE_WIDTHS.size() - 1; i >= 0; i--) {
+            int width = DERIVATIVE_WIDTHS.get(i);
+            urls.put(width, imageUrl + "_w" + width);
+        }
+        return urls;
+    }
+
+    /**
+     * A file found by {@link #locate}; key is the one it is stored under, which differs from the
+     * requested key when a missing derivative fell back to the image itself.
+     */
+    public record Located(String key, Path file) {
+    }
+
+    /**
+     * File stored under key, found from the shard directories alone without a database lookup.
+     * {@code <key>_w<width>} names a derivative, falling back to the image itself when that
+     * derivative was never produced (the image is narrower, could not be decoded, or is not done yet).
+     */
+    public Optional<Located> locate(String key) {
+        Matcher matcher = KEY.matcher(key);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        Optional<Path> file = find(key);
+        if (file.isEmpty() && matcher.group(2) != null) {
+            String imageKey = matcher.group(1);
+            return find(imageKey).map(image -> new Located(imageKey, image));
+        }
+        return file.map(found -> new Located(key, found));
+    }
+
+    private Optional<Path> find(String name) {
+        Path shard = root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, name + ".*")) {
+            for (Path file : files) {
+                if (!file.getFileName().toString().endsWith(".part")) {
+                    return Optional.of(file);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Optional.empty();
+    }
+
+    public Path resolve(String path) {
+        return root.resolve(path);
+    }
+
+    /**
+     * Public URL of a stored image, served by {@code ImageController} as {@code /images/{key}}.
+     */
+    public String urlFor(String path) {
+        String filename = Path.of(path).getFileName().toString();
+        return baseUrl + filename.substring(0, filename.indexOf('.'));
+    }
+
+    /**
+     * Drops a reference on key. Inside a transaction the file is only collected after commit.
+     */
+    public void release(String key) {
+        jdbcTemplate.update(RELEASE, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    collect(key);
+                }
+            });
+        } else {
+            collect(key);
+        }
+    }
+
+    private void collect(String key) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<String> unused = jdbcTemplate.queryForList(LOCK_UNUSED, String.class, key);
+                if (unused.isEmpty()) {
+                    return;
+                }
+                try {
+                    Files.deleteIfExists(resolve(unused.get(0)));
+                    for (int width : DERIVATIVE_WIDTHS) {
+                        Files.deleteIfExists(resolve(derivativePath(unused.get(0), width)));
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                jdbcTemplate.update(DELETE, key);
+                deleted.increment();
+            });
+        } catch (RuntimeException e) {
+            logger.log(LogLevel.ERROR, "Could not delete unused image {}: {}", key, e.getMessage());
+        }
+    }
+
+    public ImageStoreStats stats() {
+        return new ImageStoreStats(stored.sum(), reused.sum(), deleted.sum());
+    }
+}
@@ -0,0 +1,135 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.model.CacheStats;
+import org.insiders.backend.model.PostModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of the user-independent part of {@link PostModel} (content, author,
+ * counts), keyed by post id. Entries expire after ttl-seconds; the caller's userVote is
+ * never cached and has to be merged in per request.
+ */
+@Component
+public class PostCache {
+
+    private record Entry(PostModel post, long expiresAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<UUID, Entry> entries;
+    // bumped on every invalidation; a load stamped before a later invalidation of its post is not cached
+    private final AtomicLong version = new AtomicLong();
+    // stamp of the latest invalidation of recently written posts, at most max-size of them; the
+    // stamps dropped from it are folded into invalidationFloor, which then applies to every post
+    private final Map<UUID, Long> invalidations;
+    private long invalidationFloor;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PostCache(@Value("${insiders.cache.posts.max-size:1000}") int maxSize,
+                     @Value("${insiders.cache.posts.ttl-seconds:30}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > PostCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidations = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                if (size() > PostCache.this.maxSize) {
+                    invalidationFloor = Math.max(invalidationFloor, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached post without userVote, or null on a miss. The returned model is shared and
+     * must be copied before being changed.
+     */
+    public PostModel get(UUID postId) {
+        synchronized (entries) {
+            Entry entry = entries.get(postId);
+            if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.post();
+            }
+            if (entry != null) {
+                entries.remove(postId);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stamp to take before loading a post from the database and hand back to {@link #put}.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Caches the post unless it was invalidated after loadedAt; writes to other posts do not
+     * get in the way.
+     */
+    public void put(UUID postId, PostModel post, long loadedAt) {
+        synchronized (entries) {
+            if (invalidations.getOrDefault(postId, invalidationFloor) <= loadedAt) {
+                entries.put(postId, new Entry(post, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+
+    /**
+     * Drops the post now and, inside a transaction, once more after commit so a reader
+     * cannot cache the pre-commit row in between.
+     */
+    public void invalidate(UUID postId) {
+        evict(postId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(postId);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maxSize);
+        }
+    }
+
+    private void evict(UUID postId) {
+        synchronized (entries) {
+            // removed first so a post invalidated again moves to the young end of the insertion order
+            invalidations.remove(postId);
+            invalidations.put(postId, version.incrementAndGet());
+            entries.remove(postId);
+        }
+    }
+}
@@ -7,16 +7,23 @@ import org.insiders.backend.dto.post.PostUpdateRequestDto;
 import org.insiders.backend.dto.vote.VoteResponseDto;
 import org.insiders.backend.entity.Post;
 import org.insiders.backend.entity.Subreddit;
-import org.insiders.backend.entity.User;
 import org.insiders.backend.exceptions.InvalidVoteTypeException;
 import org.insiders.backend.exceptions.NotFoundException;
+import org.insiders.backend.exceptions.RateLimitExceededException;
+import org.insiders.backend.logger.LogLevel;
 import org.insiders.backend.logger.LoggerFacade;
+import org.insiders.backend.model.FeedCursor;
+import org.insiders.backend.model.FeedPage;
+import org.insiders.backend.model.ImageState;
+import org.insiders.backend.model.ImageStatus;
 import org.insiders.backend.model.PostModel;
+import org.insiders.backend.model.UserIdentity;
+import org.insiders.backend.model.VoteCounts;
 import org.insiders.backend.repository.PostRepository;
 import org.insiders.backend.repository.SubredditRepository;
-import org.insiders.backend.service.FilterService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -32,9 +39,12 @@ import java.awt.image.ImageFilter;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -50,65 +60,102 @@ import java.nio.file.Path;
 
 @Service
 public class PostManagementService {
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final PostRepository postRepository;
-    private final CommentService commentService;
     private final VotingService votingService;
     private final UserManagementService userManagementService;
     private final SubredditRepository subredditRepository;
+    private final PostCache postCache;
+    private final RankingIndex rankingIndex;
+    private final ImagePipeline imagePipeline;
+    private final ImageStore imageStore;
 
     @Autowired
-    public PostManagementService(PostRepository postRepository, CommentService commentService, VotingService votingService, UserManagementService userManagementService,SubredditRepository subredditRepository) {
+    public PostManagementService(PostRepository postRepository, VotingService votingService, UserManagementService userManagementService,SubredditRepository subredditRepository, PostCache postCache, RankingIndex rankingIndex, ImagePipeline imagePipeline, ImageStore imageStore) {
         this.postRepository = postRepository;
-        this.commentService = commentService;
         this.votingService = votingService;
         this.userManagementService = userManagementService;
         this.subredditRepository = subredditRepository;
+        this.postCache = postCache;
+        this.rankingIndex = rankingIndex;
+        this.imagePipeline = imagePipeline;
+        this.imageStore = imageStore;
     }
 
-    private List<Post> getBasePosts(String subreddit) {
-        if (subreddit == null || subreddit.isBlank()) {
-            return postRepository.findAllByOrderByCreatedAtDesc();
+    private List<PostModel> getFeed(String subreddit, UUID userId, FeedCursor cursor, Limit limit) {
+        boolean allSubreddits = subreddit == null || subreddit.isBlank();
+        if (cursor == null) {
+            return allSubreddits
+                    ? postRepository.findFeed(userId, limit)
+                    : postRepository.findFeedBySubreddit(subreddit, userId, limit);
         }
-        return postRepository.findBySubreddit_NameOrderByCreatedAtDesc(subreddit);
+        return allSubreddits
+                ? postRepository.findFeedAfter(userId, cursor.createdAt(), cursor.id(), limit)
+                : postRepository.findFeedBySubredditAfter(subreddit, userId, cursor.createdAt(), cursor.id(), limit);
     }
 
-    private PostModel buildPostModel(PostModel post, String username) {
-
-        int upVotes = votingService.countUpvotesForPost(post.getId());
-        int downVotes = votingService.countDownvotesForPost(post.getId());
-        int commentCount = commentService.countCommentsByPostId(post.getId());
-
-        User currentUser = userManagementService.findByUsername(username);
-        String voteType = votingService.getVoteTypeForUser(currentUser.getId(),post.getId(), null);
-
-        post.setUpvotes(upVotes);
-        post.setDownvotes(downVotes);
-        post.setScore(upVotes - downVotes);
-        post.setCommentCount(commentCount);
-        post.setUserVote(voteType);
-
-        return post;
+    private PostModel getFeedItem(UUID postId, UUID userId) {
+        return postRepository.findFeedItem(postId, userId)
+                .orElseThrow(() -> new NotFoundException("Postarea cu ID-ul " + postId + " nu a fost gasita"));
     }
 
     @Transactional(readOnly = true)
-    public List<PostModel> getAllPosts(String subreddit, String username) {
-        List<Post> basePosts = getBasePosts(subreddit);
-
-        List<PostModel> finalPosts = new LinkedList<>();
+    public FeedPage getAllPosts(String subreddit, UserIdentity currentUser, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        FeedCursor after = cursor == null || cursor.isBlank() ? null : FeedCursor.decode(cursor);
+
+        // one extra row tells us whether another page exists without a COUNT(*)
+        List<PostModel> rows = getFeed(subreddit, currentUser.id(), after, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new FeedPage(rows, null);
+        }
+        List<PostModel> page = rows.subList(0, pageSize);
+        return new FeedPage(page, FeedCursor.after(page.get(pageSize - 1)).encode());
+    }
 
-        basePosts.forEach(post -> {
-            finalPosts.add(buildPostModel(new PostModel(post), username));
-        });
+    /**
+     * One page of posts ranked by the in-memory index (top, hot or comments). The cursor is the
+     * keyset position of the last post served, see {@link RankingIndex#page}; only the page
+     * itself is read from the database.
+     */
+    @Transactional(readOnly = true)
+    public FeedPage getRankedPosts(String subreddit, UserIdentity currentUser, String sort, String cursor, int limit) {
+        RankingIndex.Sort order = RankingIndex.Sort.parse(sort);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        RankingIndex.Cursor after = cursor == null || cursor.isBlank() ? null : RankingIndex.Cursor.decode(cursor, order);
+
+        RankingIndex.Page ranked = rankingIndex.page(order, subreddit, after, pageSize);
+        List<UUID> ids = ranked.ids();
+        String nextCursor = ranked.next() == null ? null : ranked.next().encode();
+        if (ids.isEmpty()) {
+            return new FeedPage(List.of(), null);
+        }
 
-        return finalPosts;
+        Map<UUID, PostModel> rows = postRepository.findFeedItems(ids, currentUser.id()).stream()
+                .collect(Collectors.toMap(PostModel::getId, Function.identity()));
+        // a post deleted since the snapshot was taken is simply left out of the page
+        List<PostModel> page = ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new FeedPage(page, nextCursor);
     }
 
     @Transactional(readOnly = true)
-    public PostModel getPostByIdModel(UUID postId, String username) {
-        Post basePost = postRepository.findById(postId)
-                .orElseThrow(() -> new NotFoundException("Postarea cu ID-ul " + postId + " nu a fost gasita"));
+    public PostModel getPostByIdModel(UUID postId, UserIdentity currentUser) {
+        PostModel cached = postCache.get(postId);
+        if (cached != null) {
+            return new PostModel(cached, votingService.getVoteTypeForUser(currentUser.id(), postId, null));
+        }
+
+        long version = postCache.version();
+        PostModel post = getFeedItem(postId, currentUser.id());
+        postCache.put(postId, new PostModel(post, null), version);
+        return post;
+    }
 
-        return buildPostModel(new PostModel(basePost), username);
+    public ImageState getImageState(UUID postId) {
+        Post post = getPostById(postId);
+        return new ImageState(postId, post.getImageStatus(), post.getPhotoPath(),
+                imagePipeline.attempts(postId), imagePipeline.lastError(postId));
     }
 
     public Post getPostById(UUID postId) {
@@ -128,47 +175,44 @@ public class PostManagementService {
     }
 
     @Transactional
-    public PostModel createPost(String title, String content, String author, String subredditName, MultipartFile image, Integer filterId) {
-        User user = userManagementService.findByUsername(author);
+    public PostModel createPost(String title, String content, UserIdentity user, String subredditName, MultipartFile image, Integer filterId) throws RateLimitExceededException {
         String normalizedSubredditName = subredditName.trim().toLowerCase();
         Subreddit subreddit = subredditRepository.findByNameIgnoreCase(normalizedSubredditName).orElseThrow
                 (() -> new NotFoundException("Subreddit " + normalizedSubredditName+" nu a fost gasit"));
 
-        String imagePath = null;
-
+        Post post = new Post(title, content, userManagementService.getReference(user.id()), subreddit, null);
         if (image != null && !image.isEmpty()) {
-            imagePath = FilterService.createImage(image, filterId);
+            post.setImageStatus(ImageStatus.PROCESSING);
+            imagePipeline.submit(post.getId(), image, filterId);
         }
 
-        Post post = postRepository.saveAndFlush(new Post(title, content, user, subreddit, imagePath));
+        post = postRepository.saveAndFlush(post);
+        rankingIndex.addPost(post.getId(), subreddit.getName(), post.getCreatedAt());
 
-        return buildPostModelDefault(new PostModel(post));
+        return buildPostModelDefault(new PostModel(post, user.username()));
     }
 
     @Transactional
-    public VoteResponseDto votePost(UUID postId, String voteType, String username) {
+    public VoteResponseDto votePost(UUID postId, String voteType, UserIdentity user) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new NotFoundException("Postarea nu a fost gasita"));
 
-        User user = userManagementService.findByUsername(username);
-
         switch (voteType.toLowerCase()) {
-            case "up" -> votingService.createVote(user.getId(), post.getId(), null, true);
-            case "down" -> votingService.createVote(user.getId(), post.getId(), null, false);
-            case "none" -> votingService.deleteVoteForPost(post, user);
+            case "up" -> votingService.createVote(user.id(), post.getId(), null, true);
+            case "down" -> votingService.createVote(user.id(), post.getId(), null, false);
+            case "none" -> votingService.deleteVoteForPost(post, user.id());
             default -> throw new InvalidVoteTypeException("Tip de vot invalid: " + voteType);
         }
+        postCache.invalidate(postId);
 
-        int upvotes = votingService.countUpvotesForPost(post.getId());
-        int downvotes = votingService.countDownvotesForPost(post.getId());
-        int score = upvotes - downvotes;
-        String userVote = votingService.getVoteTypeForUser(user.getId(), postId, null);
+        VoteCounts counts = votingService.getVoteCountsForPost(post.getId());
+        String userVote = votingService.getVoteTypeForUser(user.id(), postId, null);
 
-        return new VoteResponseDto(upvotes, downvotes, score, userVote);
+        return new VoteResponseDto(counts.upvotes(), counts.downvotes(), counts.score(), userVote);
     }
 
     @Transactional
-    public PostModel updatePost(UUID id, PostUpdateRequestDto requestDto, String username) {
+    public PostModel updatePost(UUID id, PostUpdateRequestDto requestDto, UserIdentity currentUser) {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Postarea cu ID-ul " + id + " nu a fost gasita."));
 
@@ -180,16 +224,22 @@ public class PostManagementService {
             post.setContent(requestDto.content());
         }
 
-        post = postRepository.saveAndFlush(post);
-        return buildPostModel(new PostModel(post), username);
+        postRepository.saveAndFlush(post);
+        postCache.invalidate(id);
+        return getFeedItem(id, currentUser.id());
     }
 
+    @Transactional
     public void deletePostById(UUID postId) {
-        if (!postRepository.existsById(postId)) {
-            throw new NotFoundException("Postarea nu a fost gasita");
-        }
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new NotFoundException("Postarea nu a fost gasita"));
 
-        postRepository.deleteById(postId);
-        LoggerFacade.info("Postarea a fost stearsa din baza de date: " + postId);
+        postRepository.delete(post);
+        if (post.getImageKey() != null) {
+            imageStore.release(post.getImageKey());
+        }
+        postCache.invalidate(postId);
+        rankingIndex.removePost(postId);
+        LoggerFacade.log(LogLevel.INFO, "Postarea a fost stearsa din baza de date: {}", postId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,346 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.PostRank;
+import org.insiders.backend.repository.PostRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory ranking of every post by score ("top"), Reddit-style hot decay ("hot") and
+ * comment count ("comments"). Votes and comments move the counters with atomic field
+ * updates; readers page through an immutable sorted snapshot, ranked site-wide and per
+ * subreddit, that is rebuilt at most once a second when something changed, so ranking never
+ * reaches Postgres. One reader rebuilds a stale snapshot while the others keep serving the
+ * previous one. The index is loaded from the posts table once the application is ready.
+ * <p>
+ * Reads take no lock. Counter updates take the read side of {@code swapLock}, which only ever
+ * waits while {@link #rebuild()} swaps a reloaded map in; without it an update could land on
+ * the old map after its journal was replayed and be lost.
+ */
+@Component
+public class RankingIndex {
+
+    /**
+     * Keyset position after a post in one ordering: the value it was ranked by (score, hot or
+     * comment count), then its creation time and id. Travels to clients as an opaque token.
+     */
+    public record Cursor(Sort sort, double value, long createdAtMillis, UUID id) {
+        private static final String SEPARATOR = "|";
+
+        public String encode() {
+            String raw = sort.name() + SEPARATOR + value + SEPARATOR + createdAtMillis + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token, Sort sort) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+                if (parts.length == 4 && parts[0].equals(sort.name())) {
+                    return new Cursor(sort, Double.parseDouble(parts[1]), Long.parseLong(parts[2]), UUID.fromString(parts[3]));
+                }
+            } catch (RuntimeException ignored) {
+            }
+            throw new BadRequestException("Cursor invalid: " + token);
+        }
+    }
+
+    /**
+     * Ids of one page in ranking order and the cursor of the page after it, null on the last page.
+     */
+    public record Page(List<UUID> ids, Cursor next) {
+    }
+
+    public enum Sort {
+        TOP, HOT, COMMENTS;
+
+        public static Sort parse(String value) {
+            for (Sort sort : values()) {
+                if (sort.name().equalsIgnoreCase(value)) {
+                    return sort;
+                }
+            }
+            throw new BadRequestException("Sortare invalida: " + value);
+        }
+    }
+
+    // 2005-12-08, the epoch of Reddit's hot formula; 45000 s of age weigh as much as a 10x score
+    private static final long HOT_EPOCH_SECONDS = 1134028003L;
+    private static final double HOT_DECAY_SECONDS = 45000d;
+    private static final long REBUILD_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static final class Entry {
+        private final UUID id;
+        private final String subreddit;
+        private final long createdAtMillis;
+        private volatile int score;
+        private volatile int commentCount;
+
+        private Entry(UUID id, String subreddit, long createdAtMillis, int score, int commentCount) {
+            this.id = id;
+            this.subreddit = subreddit;
+            this.createdAtMillis = createdAtMillis;
+            this.score = score;
+            this.commentCount = commentCount;
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<Entry> SCORE =
+            AtomicIntegerFieldUpdater.newUpdater(Entry.class, "score");
+    private static final AtomicIntegerFieldUpdater<Entry> COMMENT_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(Entry.class, "commentCount");
+
+    // values frozen at snapshot time, so sorting never sees a counter move underneath it
+    private record Ranked(UUID id, String subreddit, long createdAtMillis, int score, int commentCount, double hot) {
+    }
+
+    // rankings over every post and over the posts of each subreddit, in the same orders
+    private record Snapshot(long version, long builtAt, Map<Sort, List<Ranked>> rankings,
+                            Map<String, Map<Sort, List<Ranked>>> bySubreddit) {
+    }
+
+    private static final Comparator<Ranked> NEWEST_FIRST =
+            Comparator.comparingLong(Ranked::createdAtMillis).reversed().thenComparing(Ranked::id);
+
+    private static final Map<Sort, Comparator<Ranked>> ORDER = Map.of(
+            Sort.TOP, Comparator.comparingInt(Ranked::score).reversed().thenComparing(NEWEST_FIRST),
+            Sort.HOT, Comparator.comparingDouble(Ranked::hot).reversed().thenComparing(NEWEST_FIRST),
+            Sort.COMMENTS, Comparator.comparingInt(Ranked::commentCount).reversed().thenComparing(NEWEST_FIRST));
+
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+    private final PostRepository postRepository;
+    private volatile ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    // changes take the read lock, so they run concurrently; rebuild() takes the write lock to
+    // start its journal and to swap the new map in
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // changes made while rebuild() reads the posts table, replayed on the new map; null outside a rebuild.
+    // One committed just before the read is counted twice, the window is a single query wide
+    private Queue<Consumer<Map<UUID, Entry>>> journal;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(emptySnapshot());
+
+    public RankingIndex(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        swapLock.writeLock().lock();
+        try {
+            journal = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        List<PostRank> ranks = null;
+        // filled aside and swapped in whole, so readers and writers never see a half-loaded index
+        ConcurrentHashMap<UUID, Entry> loaded = new ConcurrentHashMap<>();
+        try {
+            List<PostRank> rows = postRepository.findAllRanks();
+            for (PostRank rank : rows) {
+                loaded.put(rank.id(), new Entry(rank.id(), rank.subreddit(), epochMillis(rank.createdAt()),
+                        rank.score(), rank.commentCount()));
+            }
+            ranks = rows;
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                // on failure the previous index stays in place
+                if (ranks != null) {
+                    journal.forEach(change -> change.accept(loaded));
+                    entries = loaded;
+                }
+                journal = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        snapshot.set(build(version.incrementAndGet()));
+        logger.log(LogLevel.INFO, "Ranking index rebuilt with {} posts in {} ms", ranks.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * One page of posts in the given order, optionally limited to one subreddit, starting after
+     * the cursor (null for the first page). The cursor is found by binary search in the current
+     * snapshot, so a post whose rank changed between two pages may be shown twice or skipped,
+     * but no other post moves across the page boundary because of it.
+     */
+    public Page page(Sort sort, String subreddit, Cursor after, int limit) {
+        Snapshot current = currentSnapshot();
+        List<Ranked> ranking = subreddit == null || subreddit.isBlank()
+                ? current.rankings().get(sort)
+                : current.bySubreddit().getOrDefault(subreddit, Map.of()).getOrDefault(sort, List.of());
+
+        int from = 0;
+        if (after != null) {
+            int found = Collections.binarySearch(ranking, key(after), ORDER.get(sort));
+            from = found >= 0 ? found + 1 : -(found + 1);
+        }
+        int to = Math.min(from + limit, ranking.size());
+        List<UUID> ids = new ArrayList<>(Math.max(to - from, 0));
+        for (Ranked ranked : ranking.subList(Math.min(from, to), to)) {
+            ids.add(ranked.id());
+        }
+        Cursor next = to < ranking.size() && !ids.isEmpty() ? cursor(sort, ranking.get(to - 1)) : null;
+        return new Page(ids, next);
+    }
+
+    private static Cursor cursor(Sort sort, Ranked ranked) {
+        double value = switch (sort) {
+            case TOP -> ranked.score();
+            case HOT -> ranked.hot();
+            case COMMENTS -> ranked.commentCount();
+        };
+        return new Cursor(sort, value, ranked.createdAtMillis(), ranked.id());
+    }
+
+    // a probe that compares like the post the cursor was taken from, under the cursor's own order
+    private static Ranked key(Cursor cursor) {
+        int count = (int) cursor.value();
+        return new Ranked(cursor.id(), null, cursor.createdAtMillis(), count, count, cursor.value());
+    }
+
+    public void addPost(UUID postId, String subreddit, LocalDateTime createdAt) {
+        afterCommit(() -> change(index -> index.put(postId, new Entry(postId, subreddit, epochMillis(createdAt), 0, 0))));
+    }
+
+    public void removePost(UUID postId) {
+        afterCommit(() -> change(index -> index.remove(postId)));
+    }
+
+    public void shiftScore(UUID postId, int delta) {
+        if (delta != 0) {
+            afterCommit(() -> change(index -> shift(index, SCORE, postId, delta)));
+        }
+    }
+
+    public void shiftCommentCount(UUID postId, int delta) {
+        if (delta != 0) {
+            afterCommit(() -> change(index -> shift(index, COMMENT_COUNT, postId, delta)));
+        }
+    }
+
+    private void change(Consumer<Map<UUID, Entry>> change) {
+        swapLock.readLock().lock();
+        try {
+            change.accept(entries);
+            Queue<Consumer<Map<UUID, Entry>>> pending = journal;
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        version.incrementAndGet();
+    }
+
+    private static void shift(Map<UUID, Entry> index, AtomicIntegerFieldUpdater<Entry> counter, UUID postId, int delta) {
+        Entry entry = index.get(postId);
+        if (entry != null) {
+            counter.addAndGet(entry, delta);
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot.get();
+        long latest = version.get();
+        if (current.version() == latest || System.nanoTime() - current.builtAt() < REBUILD_INTERVAL_NANOS) {
+            return current;
+        }
+        // one reader sorts, the rest serve the snapshot they have until it is published
+        if (!building.compareAndSet(false, true)) {
+            return current;
+        }
+        try {
+            Snapshot rebuilt = build(latest);
+            snapshot.set(rebuilt);
+            return rebuilt;
+        } finally {
+            building.set(false);
+        }
+    }
+
+    private static Snapshot emptySnapshot() {
+        Map<Sort, List<Ranked>> rankings = new EnumMap<>(Sort.class);
+        for (Sort sort : Sort.values()) {
+            rankings.put(sort, List.of());
+        }
+        return new Snapshot(-1, 0, rankings, Map.of());
+    }
+
+    private Snapshot build(long atVersion) {
+        List<Ranked> rows = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            int score = entry.score;
+            rows.add(new Ranked(entry.id, entry.subreddit, entry.createdAtMillis, score, entry.commentCount,
+                    hot(score, entry.createdAtMillis)));
+        }
+
+        Map<Sort, List<Ranked>> rankings = new EnumMap<>(Sort.class);
+        Map<String, Map<Sort, List<Ranked>>> bySubreddit = new HashMap<>();
+        for (Sort sort : Sort.values()) {
+            List<Ranked> sorted = new ArrayList<>(rows);
+            sorted.sort(ORDER.get(sort));
+            rankings.put(sort, List.copyOf(sorted));
+            // split in ranking order, so every subreddit's list comes out sorted too
+            for (Ranked ranked : sorted) {
+                bySubreddit.computeIfAbsent(ranked.subreddit(), name -> new EnumMap<>(Sort.class))
+                        .computeIfAbsent(sort, order -> new ArrayList<>())
+                        .add(ranked);
+            }
+        }
+        return new Snapshot(atVersion, System.nanoTime(), rankings, bySubreddit);
+    }
+
+    private static double hot(int score, long createdAtMillis) {
+        double order = Math.log10(Math.max(Math.abs(score), 1));
+        return Integer.signum(score) * order + (createdAtMillis / 1000d - HOT_EPOCH_SECONDS) / HOT_DECAY_SECONDS;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // index changes follow the database: applied after commit, dropped on rollback
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.UserIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Stateless session tokens: base64url(user id, expiry, username) "." base64url(HMAC-SHA256 of that payload).
+ * Verifying one needs no database access; the signature is compared in constant time.
+ */
+@Component
+public class SessionTokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    // user id (16 bytes) and expiry in epoch seconds (8 bytes), the username follows
+    private static final int FIXED_PAYLOAD = 24;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final long ttlSeconds;
+    // Mac is not thread-safe; cloning an initialised one is cheap and, unlike a ThreadLocal, is not lost with every virtual thread
+    private final Mac prototype;
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    public SessionTokenService(@Value("${insiders.auth.token-secret:}") String secret,
+                               @Value("${insiders.auth.token-ttl-seconds:86400}") long ttlSeconds) {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+            logger.log(LogLevel.WARNING, "insiders.auth.token-secret is not set, session tokens will not survive a restart");
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.ttlSeconds = ttlSeconds;
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secretBytes, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponibil: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            return ((Mac) prototype.clone()).doFinal(payload);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC indisponibil: " + e.getMessage(), e);
+        }
+    }
+
+    public String issue(UserIdentity user) {
+        byte[] name = user.username().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = ByteBuffer.allocate(FIXED_PAYLOAD + name.length)
+                .putLong(user.id().getMostSignificantBits())
+                .putLong(user.id().getLeastSignificantBits())
+                .putLong(Instant.now().getEpochSecond() + ttlSeconds)
+                .put(name)
+                .array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * The user the token was issued to, or null when it is malformed, forged or expired.
+     */
+    public UserIdentity verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length <= FIXED_PAYLOAD || !MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        UUID userId = new UUID(buffer.getLong(), buffer.getLong());
+        if (buffer.getLong() < Instant.now().getEpochSecond()) {
+            return null;
+        }
+        String username = new String(Arrays.copyOfRange(payload, FIXED_PAYLOAD, payload.length), StandardCharsets.UTF_8);
+        return new UserIdentity(userId, username);
+    }
+}
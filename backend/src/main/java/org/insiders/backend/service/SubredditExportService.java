@@ -0,0 +1,193 @@
+package org.insiders.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.insiders.backend.entity.Subreddit;
+import org.insiders.backend.exceptions.NotFoundException;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.repository.SubredditRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes a subreddit as NDJSON: one "subreddit" line, its posts oldest first, their comments
+ * grouped by post in thread order, and a closing "summary" line with the totals. Every post and
+ * comment line carries its vote counters. Rows are read through forward-only cursors of
+ * fetch-size rows and written as they arrive, so memory does not grow with the subreddit.
+ */
+@Service
+public class SubredditExportService {
+    private static final String POSTS = """
+            select p.id, p.title, p.content, u.username, p.photo_path, p.upvotes, p.downvotes,
+                   p.comment_count, p.created_at, p.updated_at
+            from posts p
+            left join users u on u.id = p.user_id
+            where p.subreddit_id = ?
+            order by p.created_at, p.id
+            """;
+
+    private static final String COMMENTS = """
+            select c.id, c.post_id, c.parent_comment_id, u.username, c.content, c.is_edited, c.depth,
+                   c.upvotes, c.downvotes, c.created_at, c.updated_at
+            from comments c
+            join posts p on p.id = c.post_id
+            left join users u on u.id = c.user_id
+            where p.subreddit_id = ?
+            order by c.post_id, c.path
+            """;
+
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+
+    private final SubredditRepository subredditRepository;
+    private final ObjectMapper objectMapper;
+    // a template of its own: the fetch size is what makes the driver stream instead of buffering the result
+    private final JdbcTemplate cursorTemplate;
+
+    public SubredditExportService(SubredditRepository subredditRepository,
+                                  ObjectMapper objectMapper,
+                                  DataSource dataSource,
+                                  @Value("${insiders.export.fetch-size:500}") int fetchSize) {
+        this.subredditRepository = subredditRepository;
+        this.objectMapper = objectMapper;
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(Math.max(fetchSize, 1));
+    }
+
+    private static final class Totals {
+        long posts;
+        long comments;
+        long upvotes;
+        long downvotes;
+    }
+
+    /**
+     * Fails with {@link NotFoundException} before anything is written when the subreddit does not exist.
+     */
+    public Subreddit findSubreddit(String name) {
+        return subredditRepository.findByNameIgnoreCase(name)
+                .orElseThrow(() -> new NotFoundException("Subreddit-ul nu a fost gasit"));
+    }
+
+    // the transaction keeps one connection with autocommit off, which PostgreSQL needs to use a cursor;
+    // repeatable read makes the posts and comments queries see one snapshot, so the summary matches the lines
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void export(Subreddit subreddit, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Totals totals = new Totals();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // lines are ended by hand, without the space Jackson puts between root values
+            json.setRootValueSeparator(null);
+
+            json.writeStartObject();
+            json.writeStringField("type", "subreddit");
+            json.writeStringField("id", subreddit.getId().toString());
+            json.writeStringField("name", subreddit.getName());
+            json.writeStringField("displayName", subreddit.getDisplayName());
+            json.writeStringField("description", subreddit.getDescription());
+            json.writeStringField("createdAt", subreddit.getCreatedAt().toString());
+            json.writeEndObject();
+            json.writeRaw('\n');
+
+            try {
+                RowCallbackHandler posts = rs -> writePost(json, rs, totals);
+                RowCallbackHandler comments = rs -> writeComment(json, rs, totals);
+                cursorTemplate.query(POSTS, posts, subreddit.getId());
+                cursorTemplate.query(COMMENTS, comments, subreddit.getId());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            json.writeStartObject();
+            json.writeStringField("type", "summary");
+            json.writeNumberField("posts", totals.posts);
+            json.writeNumberField("comments", totals.comments);
+            json.writeNumberField("upvotes", totals.upvotes);
+            json.writeNumberField("downvotes", totals.downvotes);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            logger.log(LogLevel.WARNING, "Export of subreddit {} aborted after {} posts and {} comments: {}",
+                    subreddit.getName(), totals.posts, totals.comments, e.getMessage());
+            throw e;
+        }
+        logger.log(LogLevel.INFO, "Exported subreddit {}: {} posts, {} comments in {} ms", subreddit.getName(),
+                totals.posts, totals.comments, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void writePost(JsonGenerator json, ResultSet rs, Totals totals) throws SQLException {
+        int upvotes = rs.getInt("upvotes");
+        int downvotes = rs.getInt("downvotes");
+        try {
+            json.writeStartObject();
+            json.writeStringField("type", "post");
+            json.writeStringField("id", rs.getString("id"));
+            json.writeStringField("title", rs.getString("title"));
+            json.writeStringField("content", rs.getString("content"));
+            json.writeStringField("author", rs.getString("username"));
+            json.writeStringField("photoPath", rs.getString("photo_path"));
+            json.writeNumberField("upvotes", upvotes);
+            json.writeNumberField("downvotes", downvotes);
+            json.writeNumberField("score", upvotes - downvotes);
+            json.writeNumberField("commentCount", rs.getInt("comment_count"));
+            writeTimestamp(json, "createdAt", rs.getObject("created_at", LocalDateTime.class));
+            writeTimestamp(json, "updatedAt", rs.getObject("updated_at", LocalDateTime.class));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        totals.posts++;
+        totals.upvotes += upvotes;
+        totals.downvotes += downvotes;
+    }
+
+    private void writeComment(JsonGenerator json, ResultSet rs, Totals totals) throws SQLException {
+        int upvotes = rs.getInt("upvotes");
+        int downvotes = rs.getInt("downvotes");
+        try {
+            json.writeStartObject();
+            json.writeStringField("type", "comment");
+            json.writeStringField("id", rs.getString("id"));
+            json.writeStringField("postId", rs.getString("post_id"));
+            json.writeStringField("parentId", rs.getString("parent_comment_id"));
+            json.writeStringField("author", rs.getString("username"));
+            json.writeStringField("content", rs.getString("content"));
+            json.writeBooleanField("edited", rs.getBoolean("is_edited"));
+            json.writeNumberField("depth", rs.getInt("depth"));
+            json.writeNumberField("upvotes", upvotes);
+            json.writeNumberField("downvotes", downvotes);
+            json.writeNumberField("score", upvotes - downvotes);
+            writeTimestamp(json, "createdAt", rs.getObject("created_at", LocalDateTime.class));
+            writeTimestamp(json, "updatedAt", rs.getObject("updated_at", LocalDateTime.class));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        totals.comments++;
+        totals.upvotes += upvotes;
+        totals.downvotes += downvotes;
+    }
+
+    private static void writeTimestamp(JsonGenerator json, String field, LocalDateTime value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeStringField(field, value.toString());
+        }
+    }
+}
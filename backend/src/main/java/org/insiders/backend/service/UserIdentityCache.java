@@ -0,0 +1,64 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.model.CacheStats;
+import org.insiders.backend.model.UserIdentity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of username to {@link UserIdentity}. Users are never renamed or deleted,
+ * so entries need no invalidation; new users are written through by UserManagementService
+ * and BulkImportService.
+ */
+@Component
+public class UserIdentityCache {
+
+    private final int maxSize;
+    private final Map<String, UserIdentity> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserIdentityCache(@Value("${insiders.cache.users.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserIdentity> eldest) {
+                if (size() > UserIdentityCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public UserIdentity get(String username) {
+        UserIdentity identity;
+        synchronized (entries) {
+            identity = entries.get(username);
+        }
+        if (identity == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return identity;
+    }
+
+    public void put(UserIdentity identity) {
+        synchronized (entries) {
+            entries.put(identity.username(), identity);
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maxSize);
+        }
+    }
+}
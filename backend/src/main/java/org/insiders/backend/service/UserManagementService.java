@@ -4,10 +4,13 @@ import org.insiders.backend.dto.user.UserResponseDto;
 import org.insiders.backend.entity.User;
 import org.insiders.backend.exceptions.NotFoundException;
 import org.insiders.backend.mapper.UserMapper;
+import org.insiders.backend.model.UserIdentity;
 import org.insiders.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,10 +23,12 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class UserManagementService implements IUserService {
     private final UserRepository userRepository;
+    private final UserIdentityCache identityCache;
 
     @Autowired
-    public UserManagementService(UserRepository userRepository) {
+    public UserManagementService(UserRepository userRepository, UserIdentityCache identityCache) {
         this.userRepository = userRepository;
+        this.identityCache = identityCache;
     }
 
     @Override
@@ -31,6 +36,30 @@ public class UserManagementService implements IUserService {
         return userRepository.findByUsername(username).orElseThrow(() -> new NotFoundException("Utilizatorul " + username + " nu a fost gasit"));
     }
 
+    /**
+     * Id and username of the user, served from {@link UserIdentityCache} after the first lookup.
+     * Prefer this to findByUsername wherever the entity itself is not needed.
+     */
+    @Override
+    public UserIdentity findIdentity(String username) {
+        UserIdentity cached = identityCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        UserIdentity identity = userRepository.findIdentityByUsername(username)
+                .orElseThrow(() -> new NotFoundException("Utilizatorul " + username + " nu a fost gasit"));
+        identityCache.put(identity);
+        return identity;
+    }
+
+    /**
+     * A lazy reference for the foreign key of a new row; it is not loaded unless one of its fields is read.
+     */
+    @Override
+    public User getReference(UUID userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
     @Override
     public User findById(UUID userId) {
         return userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Utilizatorul cu id= " + userId + " nu a fost gasit"));
@@ -47,6 +76,13 @@ public class UserManagementService implements IUserService {
     public UserResponseDto saveUser(String username, String email, String password) {
         int hashedPassword = password.hashCode();
         User savedUser = userRepository.saveAndFlush(new User(username, email, hashedPassword));
+        UserIdentity identity = new UserIdentity(savedUser.getId(), savedUser.getUsername());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                identityCache.put(identity);
+            }
+        });
         return UserMapper.toDto(savedUser);
     }
 
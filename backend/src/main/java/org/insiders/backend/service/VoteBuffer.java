@@ -0,0 +1,550 @@
+package org.insiders.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.LogLevel;
+import org.insiders.backend.model.VoteCounts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Opt-in write-behind buffer for votes (insiders.votes.write-behind.enabled).
+ *
+ * Each (user, target) pair keeps only its latest state, split over lock stripes. A single
+ * flusher thread writes the buffered states to votes and shifts the post/comment counters
+ * in one JDBC batch transaction, every flush-interval-ms or as soon as max-pending entries
+ * are waiting. Until a state is flushed, {@link #voteTypeOf} and {@link #withPending} let
+ * readers see it on top of what the database holds.
+ *
+ * Inside a transaction a change is only staged and reaches the buffer after the commit, so a
+ * rolled back vote is never flushed; the staging transaction already sees its own changes.
+ *
+ * A vote state is a Boolean: TRUE for up, FALSE for down, null for no vote.
+ */
+@Component
+public class VoteBuffer {
+
+    private static final int STRIPES = 16;
+
+    private static final String INSERT_POST_VOTE =
+            "insert into votes (id, post_id, user_id, is_upvote) values (?, ?, ?, ?)";
+    private static final String INSERT_COMMENT_VOTE =
+            "insert into votes (id, comment_id, user_id, is_upvote) values (?, ?, ?, ?)";
+    private static final String UPDATE_POST_VOTE =
+            "update votes set is_upvote = ? where post_id = ? and user_id = ?";
+    private static final String UPDATE_COMMENT_VOTE =
+            "update votes set is_upvote = ? where comment_id = ? and user_id = ?";
+    private static final String DELETE_POST_VOTE =
+            "delete from votes where post_id = ? and user_id = ?";
+    private static final String DELETE_COMMENT_VOTE =
+            "delete from votes where comment_id = ? and user_id = ?";
+    private static final String SHIFT_POST_COUNTERS =
+            "update posts set upvotes = upvotes + ?, downvotes = downvotes + ? where id = ?";
+    private static final String SHIFT_COMMENT_COUNTERS =
+            "update comments set upvotes = upvotes + ?, downvotes = downvotes + ? where id = ?";
+
+    private record Key(UUID userId, UUID targetId, boolean comment) {
+    }
+
+    private static final class Pending {
+        private final Boolean persisted;
+        private Boolean current;
+
+        private Pending(Boolean persisted) {
+            this.persisted = persisted;
+            this.current = persisted;
+        }
+    }
+
+    // a change made inside a transaction, applied to the buffer once it commits
+    private static final class Staged {
+        private final Supplier<Boolean> loadPersisted;
+        private UnaryOperator<Boolean> change;
+        private Boolean state;
+        private VoteCounts delta = VoteCounts.NONE;
+
+        private Staged(UnaryOperator<Boolean> change, Supplier<Boolean> loadPersisted) {
+            this.change = change;
+            this.loadPersisted = loadPersisted;
+        }
+    }
+
+    private record Flushed(Key key, Boolean persisted, Boolean current) {
+        VoteCounts delta() {
+            return VoteBuffer.delta(persisted, current);
+        }
+    }
+
+    private static final class Stripe {
+        private Map<Key, Pending> pending = new HashMap<>();
+        // states taken by a running flush, still visible to readers until the flush has committed
+        private final Map<Key, Boolean> inFlight = new HashMap<>();
+        private long flushes;
+    }
+
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostCache postCache;
+    private final boolean enabled;
+    private final int maxPending;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ConcurrentHashMap<UUID, VoteCounts> pendingDeltas = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    // held for the whole database write, so not a monitor: a virtual thread blocked on JDBC inside synchronized pins its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    public VoteBuffer(JdbcTemplate jdbcTemplate,
+                      TransactionTemplate transactionTemplate,
+                      PostCache postCache,
+                      @Value("${insiders.votes.write-behind.enabled:false}") boolean enabled,
+                      @Value("${insiders.votes.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                      @Value("${insiders.votes.write-behind.max-pending:1000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.postCache = postCache;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        if (enabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "vote-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+            logger.log(LogLevel.INFO, "Vote write-behind enabled: flush every {} ms or {} votes", flushIntervalMs, maxPending);
+        } else {
+            flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Moves the user's vote on a post (commentId null) or comment (postId null) to
+     * change(currentState). loadPersisted reads the state stored in the database and is
+     * only called when nothing is buffered for the pair yet. Returns how the target's
+     * counters moved; inside a transaction, how they will move once it commits.
+     */
+    public VoteCounts apply(UUID userId, UUID postId, UUID commentId,
+                      UnaryOperator<Boolean> change, Supplier<Boolean> loadPersisted) {
+        Key key = key(userId, postId, commentId);
+        Map<Key, Staged> staged = staged(true);
+        if (staged == null) {
+            return applyNow(key, change, loadPersisted);
+        }
+
+        Staged entry = staged.get(key);
+        Boolean previous;
+        if (entry == null) {
+            previous = visibleState(key, loadPersisted);
+            entry = new Staged(change, loadPersisted);
+            staged.put(key, entry);
+        } else {
+            previous = entry.state;
+            UnaryOperator<Boolean> earlier = entry.change;
+            entry.change = state -> change.apply(earlier.apply(state));
+        }
+        entry.state = change.apply(previous);
+        VoteCounts delta = delta(previous, entry.state);
+        entry.delta = entry.delta.plus(delta);
+        return delta;
+    }
+
+    private VoteCounts applyNow(Key key, UnaryOperator<Boolean> change, Supplier<Boolean> loadPersisted) {
+        Stripe stripe = stripeFor(key);
+
+        // the database read happens outside the stripe lock and is only trusted if no flush of
+        // this stripe completed meanwhile, since it could otherwise predate that flush's commit
+        Boolean persisted = null;
+        long readAt = -1;
+        VoteCounts delta;
+        while (true) {
+            synchronized (stripe) {
+                Pending entry = stripe.pending.get(key);
+                if (entry == null && !stripe.inFlight.containsKey(key) && readAt != stripe.flushes) {
+                    readAt = stripe.flushes;
+                } else {
+                    if (entry == null) {
+                        entry = new Pending(stripe.inFlight.containsKey(key) ? stripe.inFlight.get(key) : persisted);
+                        stripe.pending.put(key, entry);
+                        pendingCount.incrementAndGet();
+                    }
+                    Boolean previous = entry.current;
+                    entry.current = change.apply(previous);
+                    delta = delta(previous, entry.current);
+                    shiftPending(key.targetId(), delta);
+                    break;
+                }
+            }
+            persisted = loadPersisted.get();
+        }
+
+        if (pendingCount.get() >= maxPending) {
+            requestFlush();
+        }
+        return delta;
+    }
+
+    /**
+     * The buffered vote type ("up", "down" or "none") of the user on a post or comment,
+     * empty when nothing is buffered and the database holds the current state.
+     */
+    public Optional<String> voteTypeOf(UUID userId, UUID postId, UUID commentId) {
+        Key key = key(userId, postId, commentId);
+        Map<Key, Staged> staged = staged(false);
+        if (staged != null && staged.containsKey(key)) {
+            return Optional.of(voteType(staged.get(key).state));
+        }
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Pending entry = stripe.pending.get(key);
+            if (entry != null) {
+                return Optional.of(voteType(entry.current));
+            }
+            if (stripe.inFlight.containsKey(key)) {
+                return Optional.of(voteType(stripe.inFlight.get(key)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // the state readers see: buffered, in flight, or else the one stored in the database
+    private Boolean visibleState(Key key, Supplier<Boolean> loadPersisted) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Pending entry = stripe.pending.get(key);
+            if (entry != null) {
+                return entry.current;
+            }
+            if (stripe.inFlight.containsKey(key)) {
+                return stripe.inFlight.get(key);
+            }
+        }
+        return loadPersisted.get();
+    }
+
+    /**
+     * Changes staged by the current transaction, null outside of one. With create set, the
+     * first call of a transaction binds the map and registers its release after completion.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Key, Staged> staged(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<Key, Staged> staged = (Map<Key, Staged>) TransactionSynchronizationManager.getResource(this);
+        if (staged != null || !create) {
+            return staged;
+        }
+        Map<Key, Staged> changes = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changes.forEach((key, change) -> applyNow(key, change.change, change.loadPersisted));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(VoteBuffer.this);
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Every buffered comment vote of the user, keyed by comment id.
+     */
+    public Map<UUID, String> commentVoteTypesOf(UUID userId) {
+        Map<UUID, String> result = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.inFlight.forEach((key, state) -> {
+                    if (key.comment() && key.userId().equals(userId)) {
+                        result.put(key.targetId(), voteType(state));
+                    }
+                });
+                stripe.pending.forEach((key, entry) -> {
+                    if (key.comment() && key.userId().equals(userId)) {
+                        result.put(key.targetId(), voteType(entry.current));
+                    }
+                });
+            }
+        }
+        Map<Key, Staged> staged = staged(false);
+        if (staged != null) {
+            staged.forEach((key, entry) -> {
+                if (key.comment() && key.userId().equals(userId)) {
+                    result.put(key.targetId(), voteType(entry.state));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Stored counters of a post or comment plus the buffered votes not yet flushed.
+     */
+    public VoteCounts withPending(UUID targetId, VoteCounts persisted) {
+        VoteCounts delta = pendingDeltas.get(targetId);
+        VoteCounts counts = delta == null ? persisted : persisted.plus(delta);
+        Map<Key, Staged> staged = staged(false);
+        if (staged != null) {
+            for (Map.Entry<Key, Staged> entry : staged.entrySet()) {
+                if (entry.getKey().targetId().equals(targetId)) {
+                    counts = counts.plus(entry.getValue().delta);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Writes every buffered vote and the matching counter shifts in one transaction. If the
+     * batch fails (typically a post or comment deleted in the meantime) the votes are retried
+     * one by one and the ones that still fail are dropped, together with any later change of
+     * the same vote buffered on top of them, so the next change rereads the stored state.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Flushed> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Flushed> dropped = new ArrayList<>();
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                logger.log(LogLevel.ERROR, "Vote batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+                for (Flushed vote : batch) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> write(List.of(vote)));
+                    } catch (RuntimeException voteError) {
+                        logger.log(LogLevel.ERROR, "Dropping buffered vote of user {} on {}: {}", vote.key().userId(), vote.key().targetId(), voteError.getMessage());
+                        dropped.add(vote);
+                    }
+                }
+            } finally {
+                complete(batch, dropped);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        logger.log(LogLevel.INFO, "Vote write-behind buffer flushed on shutdown");
+    }
+
+    private List<Flushed> drain() {
+        List<Flushed> batch = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                stripe.pending.forEach((key, entry) -> {
+                    stripe.inFlight.put(key, entry.current);
+                    batch.add(new Flushed(key, entry.persisted, entry.current));
+                });
+                stripe.pending = new HashMap<>();
+            }
+        }
+        pendingCount.addAndGet(-batch.size());
+        return batch;
+    }
+
+    // between the commit and this point readers may count a flushed vote twice; the window is
+    // one flush wide and the counters settle as soon as the deltas are taken back
+    private void complete(List<Flushed> batch, List<Flushed> dropped) {
+        Set<UUID> posts = new HashSet<>();
+        for (Flushed vote : batch) {
+            shiftPending(vote.key().targetId(), VoteCounts.NONE.minus(vote.delta()));
+            if (!vote.key().comment()) {
+                posts.add(vote.key().targetId());
+            }
+        }
+        // a change buffered during the flush took the dropped state as what the database holds
+        for (Flushed vote : dropped) {
+            Stripe stripe = stripeFor(vote.key());
+            synchronized (stripe) {
+                Pending later = stripe.pending.remove(vote.key());
+                if (later != null) {
+                    pendingCount.decrementAndGet();
+                    shiftPending(vote.key().targetId(), VoteCounts.NONE.minus(delta(later.persisted, later.current)));
+                }
+            }
+        }
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (!stripe.inFlight.isEmpty()) {
+                    stripe.inFlight.clear();
+                    stripe.flushes++;
+                }
+            }
+        }
+        // cached posts carry the counters read before this flush
+        posts.forEach(postCache::invalidate);
+    }
+
+    private void write(List<Flushed> batch) {
+        List<Object[]> postInserts = new ArrayList<>();
+        List<Object[]> commentInserts = new ArrayList<>();
+        List<Object[]> postUpdates = new ArrayList<>();
+        List<Object[]> commentUpdates = new ArrayList<>();
+        List<Object[]> postDeletes = new ArrayList<>();
+        List<Object[]> commentDeletes = new ArrayList<>();
+        // sorted so concurrent flushes and synchronous writers lock counter rows in the same order
+        Map<UUID, VoteCounts> postShifts = new TreeMap<>();
+        Map<UUID, VoteCounts> commentShifts = new TreeMap<>();
+
+        for (Flushed vote : batch) {
+            if (Objects.equals(vote.persisted(), vote.current())) {
+                continue;
+            }
+            Key key = vote.key();
+            boolean comment = key.comment();
+            if (vote.persisted() == null) {
+                (comment ? commentInserts : postInserts).add(
+                        new Object[]{UUID.randomUUID(), key.targetId(), key.userId(), vote.current()});
+            } else if (vote.current() == null) {
+                (comment ? commentDeletes : postDeletes).add(new Object[]{key.targetId(), key.userId()});
+            } else {
+                (comment ? commentUpdates : postUpdates).add(new Object[]{vote.current(), key.targetId(), key.userId()});
+            }
+            (comment ? commentShifts : postShifts).merge(key.targetId(), vote.delta(), VoteCounts::plus);
+        }
+
+        batchUpdate(DELETE_POST_VOTE, postDeletes);
+        batchUpdate(DELETE_COMMENT_VOTE, commentDeletes);
+        batchUpdate(UPDATE_POST_VOTE, postUpdates);
+        batchUpdate(UPDATE_COMMENT_VOTE, commentUpdates);
+        batchUpdate(INSERT_POST_VOTE, postInserts);
+        batchUpdate(INSERT_COMMENT_VOTE, commentInserts);
+        batchUpdate(SHIFT_POST_COUNTERS, counterShifts(postShifts));
+        batchUpdate(SHIFT_COMMENT_COUNTERS, counterShifts(commentShifts));
+    }
+
+    private List<Object[]> counterShifts(Map<UUID, VoteCounts> shifts) {
+        List<Object[]> rows = new ArrayList<>();
+        shifts.forEach((id, delta) -> {
+            if (!delta.equals(VoteCounts.NONE)) {
+                rows.add(new Object[]{delta.upvotes(), delta.downvotes(), id});
+            }
+        });
+        return rows;
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private void requestFlush() {
+        if (flusher != null && flushQueued.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushQueued.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down, the final flush picks these up
+                flushQueued.set(false);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.log(LogLevel.ERROR, "Vote flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void shiftPending(UUID targetId, VoteCounts delta) {
+        if (delta.equals(VoteCounts.NONE)) {
+            return;
+        }
+        pendingDeltas.merge(targetId, delta, (current, change) -> {
+            VoteCounts sum = current.plus(change);
+            return sum.equals(VoteCounts.NONE) ? null : sum;
+        });
+    }
+
+    private static String voteType(Boolean state) {
+        if (state == null) {
+            return "none";
+        }
+        return state ? "up" : "down";
+    }
+
+    private Key key(UUID userId, UUID postId, UUID commentId) {
+        if ((postId == null) == (commentId == null)) {
+            throw new IllegalArgumentException("Trebuie sa specifici fie postId, fie commentId.");
+        }
+        return postId != null ? new Key(userId, postId, false) : new Key(userId, commentId, true);
+    }
+
+    private Stripe stripeFor(Key key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static VoteCounts delta(Boolean from, Boolean to) {
+        return new VoteCounts(indicator(to, true) - indicator(from, true), indicator(to, false) - indicator(from, false));
+    }
+
+    private static int indicator(Boolean state, boolean upvote) {
+        return state != null && state == upvote ? 1 : 0;
+    }
+}
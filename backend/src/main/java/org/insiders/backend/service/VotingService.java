@@ -9,14 +9,21 @@ import org.insiders.backend.entity.User;
 import org.insiders.backend.entity.Vote;
 import org.insiders.backend.exceptions.InvalidVoteTypeException;
 import org.insiders.backend.exceptions.NotFoundException;
+import org.insiders.backend.model.UserIdentity;
+import org.insiders.backend.model.UserVote;
+import org.insiders.backend.model.VoteCounts;
 import org.insiders.backend.repository.CommentRepository;
 import org.insiders.backend.repository.PostRepository;
 import org.insiders.backend.repository.VoteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class VotingService {
@@ -25,37 +32,54 @@ public class VotingService {
     private final PostRepository postRepository;
     private final UserManagementService userManagementService;
     private final CommentRepository commentRepository;
+    private final VoteBuffer voteBuffer;
+    private final RankingIndex rankingIndex;
 
     @Autowired
-    public VotingService(VoteRepository voteRepository, PostRepository postRepository, UserManagementService userManagementService, CommentRepository commentRepository) {
+    public VotingService(VoteRepository voteRepository, PostRepository postRepository, UserManagementService userManagementService, CommentRepository commentRepository, VoteBuffer voteBuffer, RankingIndex rankingIndex) {
         this.voteRepository = voteRepository;
         this.postRepository = postRepository;
         this.userManagementService = userManagementService;
         this.commentRepository = commentRepository;
+        this.voteBuffer = voteBuffer;
+        this.rankingIndex = rankingIndex;
     }
 
     @Transactional
-    public VoteResponseDto voteComment(UUID commentId, VoteRequestDto request, String username) {
-        User user = userManagementService.findByUsername(username);
+    public VoteResponseDto voteComment(UUID commentId, VoteRequestDto request, UserIdentity user) {
         String voteType = request.voteType();
 
         switch (voteType.toLowerCase()) {
-            case "up" -> createVote(user.getId(), null, commentId, true);
-            case "down" -> createVote(user.getId(), null, commentId, false);
-            case "none" -> deleteVoteForComment(commentId, user);
+            case "up" -> createVote(user.id(), null, commentId, true);
+            case "down" -> createVote(user.id(), null, commentId, false);
+            case "none" -> deleteVoteForComment(commentId, user.id());
             default -> throw new InvalidVoteTypeException("Tipul de vot este invalid: " + voteType);
         }
 
-        int upvotes = countUpvotesForComment(commentId);
-        int downvotes = countDownvotesForComment(commentId);
-        int score = upvotes - downvotes;
-        String userVote = getVoteTypeForUser(user.getId(), null, commentId);
+        VoteCounts counts = getVoteCountsForComment(commentId);
+        String userVote = getVoteTypeForUser(user.id(), null, commentId);
 
-        return new VoteResponseDto(upvotes, downvotes, score, userVote);
+        return new VoteResponseDto(counts.upvotes(), counts.downvotes(), counts.score(), userVote);
     }
 
+    /**
+     * Inserts, flips or toggles off the user's vote and moves the target's counters
+     * by the same amount in the same transaction. With the write-behind buffer enabled the
+     * new state is only buffered and written by the next flush.
+     */
     public void createVote(UUID userId, UUID postId, UUID commentId, boolean isUpvote) {
-        User user = userManagementService.findById(userId);
+        if (voteBuffer.isEnabled()) {
+            requireTarget(postId, commentId);
+            VoteCounts delta = voteBuffer.apply(userId, postId, commentId,
+                    current -> Boolean.valueOf(isUpvote).equals(current) ? null : isUpvote,
+                    () -> findPersistedVote(userId, postId, commentId));
+            if (postId != null) {
+                rankingIndex.shiftScore(postId, delta.score());
+            }
+            return;
+        }
+
+        User user = userManagementService.getReference(userId);
 
         if (postId != null && commentId != null) {
             throw new IllegalArgumentException("Un vot nu poate fi aplicat simultan la o postare si un comentariu.");
@@ -67,14 +91,18 @@ public class VotingService {
                 Vote vote = existingVote.get();
                 if (vote.isUpvote() == isUpvote) {
                     voteRepository.delete(vote);
+                    shiftPostVotes(postId, isUpvote, -1);
                 } else {
                     vote.setUpvote(isUpvote);
                     voteRepository.save(vote);
+                    shiftPostVotes(postId, isUpvote, 1);
+                    shiftPostVotes(postId, !isUpvote, -1);
                 }
             } else {
                 Post post = postRepository.getPostById(postId);
                 Vote vote = new Vote(post, null, user, isUpvote);
                 voteRepository.save(vote);
+                shiftPostVotes(postId, isUpvote, 1);
             }
         } else if (commentId != null) {
             Optional<Vote> existingVote = voteRepository.findByUserIdAndCommentId(userId, commentId);
@@ -82,9 +110,12 @@ public class VotingService {
                 Vote vote = existingVote.get();
                 if (vote.isUpvote() == isUpvote) {
                     voteRepository.delete(vote);
+                    shiftCommentVotes(commentId, isUpvote, -1);
                 } else {
                     vote.setUpvote(isUpvote);
                     voteRepository.save(vote);
+                    shiftCommentVotes(commentId, isUpvote, 1);
+                    shiftCommentVotes(commentId, !isUpvote, -1);
                 }
             } else {
                 Comment comment = commentRepository.findById(commentId)
@@ -92,6 +123,7 @@ public class VotingService {
 
                 Vote vote = new Vote(null, comment, user, isUpvote);
                 voteRepository.save(vote);
+                shiftCommentVotes(commentId, isUpvote, 1);
             }
         } else {
             throw new IllegalArgumentException("Trebuie sa specifici fie postId, fie commentId.");
@@ -99,19 +131,31 @@ public class VotingService {
     }
 
 
-    public void deleteVoteForComment(UUID commentId, User user) {
-        voteRepository.deleteByUserIdAndCommentId(user.getId(), commentId);
-    }
-
-    public int countUpvotesForComment(UUID commentId) {
-        return voteRepository.countByCommentIdAndUpvoteTrue(commentId);
+    public void deleteVoteForComment(UUID commentId, UUID userId) {
+        if (voteBuffer.isEnabled()) {
+            voteBuffer.apply(userId, null, commentId, current -> null,
+                    () -> findPersistedVote(userId, null, commentId));
+            return;
+        }
+        voteRepository.findByUserIdAndCommentId(userId, commentId).ifPresent(vote -> {
+            voteRepository.delete(vote);
+            shiftCommentVotes(commentId, vote.isUpvote(), -1);
+        });
     }
 
-    public int countDownvotesForComment(UUID commentId) {
-        return voteRepository.countByCommentIdAndUpvoteFalse(commentId);
+    public VoteCounts getVoteCountsForComment(UUID commentId) {
+        VoteCounts counts = commentRepository.findVoteCountsById(commentId)
+                .orElseThrow(() -> new NotFoundException("Comentariul nu a fost gasit"));
+        return voteBuffer.withPending(commentId, counts);
     }
 
     public String getVoteTypeForUser(UUID userId, UUID postId, UUID commentId) {
+        if (voteBuffer.isEnabled() && (postId != null || commentId != null)) {
+            Optional<String> buffered = voteBuffer.voteTypeOf(userId, postId, commentId);
+            if (buffered.isPresent()) {
+                return buffered.get();
+            }
+        }
         if (postId != null) {
             return voteRepository.findByUserIdAndPostId(userId, postId)
                     .map(v -> v.isUpvote() ? "up" : "down")
@@ -124,15 +168,78 @@ public class VotingService {
         throw new IllegalArgumentException("Trebuie să specifici postId sau commentId");
     }
 
-    public int countUpvotesForPost(UUID postId) {
-        return voteRepository.countByPostIdAndUpvoteTrue(postId);
+    /**
+     * All of the user's comment votes on one post, keyed by comment id, in a single query.
+     */
+    public Map<UUID, String> getCommentVoteTypesForUser(UUID userId, UUID postId) {
+        Map<UUID, String> voteTypes = voteRepository.findCommentVotesOnPost(userId, postId).stream()
+                .collect(Collectors.toMap(UserVote::targetId, UserVote::voteType, (first, second) -> first, HashMap::new));
+        if (voteBuffer.isEnabled()) {
+            // may include comments of other posts; callers only look up ids from their own tree
+            voteTypes.putAll(voteBuffer.commentVoteTypesOf(userId));
+        }
+        return voteTypes;
+    }
+
+    /**
+     * The user's votes on the given comments only, for trees that do not span the whole post.
+     */
+    public Map<UUID, String> getCommentVoteTypesForUser(UUID userId, Collection<UUID> commentIds) {
+        Map<UUID, String> voteTypes = voteRepository.findCommentVotesIn(userId, commentIds).stream()
+                .collect(Collectors.toMap(UserVote::targetId, UserVote::voteType, (first, second) -> first, HashMap::new));
+        if (voteBuffer.isEnabled()) {
+            voteTypes.putAll(voteBuffer.commentVoteTypesOf(userId));
+        }
+        return voteTypes;
+    }
+
+    public VoteCounts getVoteCountsForPost(UUID postId) {
+        VoteCounts counts = postRepository.findVoteCountsById(postId)
+                .orElseThrow(() -> new NotFoundException("Postarea nu a fost gasita"));
+        return voteBuffer.withPending(postId, counts);
+    }
+
+    public void deleteVoteForPost(Post post, UUID userId) {
+        if (voteBuffer.isEnabled()) {
+            VoteCounts delta = voteBuffer.apply(userId, post.getId(), null, current -> null,
+                    () -> findPersistedVote(userId, post.getId(), null));
+            rankingIndex.shiftScore(post.getId(), delta.score());
+            return;
+        }
+        voteRepository.findByUserIdAndPostId(userId, post.getId()).ifPresent(vote -> {
+            voteRepository.delete(vote);
+            shiftPostVotes(post.getId(), vote.isUpvote(), -1);
+        });
+    }
+
+    private void requireTarget(UUID postId, UUID commentId) {
+        if (postId != null && commentId != null) {
+            throw new IllegalArgumentException("Un vot nu poate fi aplicat simultan la o postare si un comentariu.");
+        }
+        if (postId != null && !postRepository.existsById(postId)) {
+            throw new NotFoundException("Postarea nu a fost gasita");
+        }
+        if (commentId != null && !commentRepository.existsById(commentId)) {
+            throw new NotFoundException("Comentariul nu a fost gasit");
+        }
+        if (postId == null && commentId == null) {
+            throw new IllegalArgumentException("Trebuie sa specifici fie postId, fie commentId.");
+        }
+    }
+
+    private Boolean findPersistedVote(UUID userId, UUID postId, UUID commentId) {
+        Optional<Vote> vote = postId != null
+                ? voteRepository.findByUserIdAndPostId(userId, postId)
+                : voteRepository.findByUserIdAndCommentId(userId, commentId);
+        return vote.map(Vote::isUpvote).orElse(null);
     }
 
-    public int countDownvotesForPost(UUID postId) {
-        return voteRepository.countByPostIdAndUpvoteFalse(postId);
+    private void shiftPostVotes(UUID postId, boolean upvote, int delta) {
+        postRepository.shiftVotes(postId, upvote ? delta : 0, upvote ? 0 : delta);
+        rankingIndex.shiftScore(postId, upvote ? delta : -delta);
     }
 
-    public void deleteVoteForPost(Post post, User user) {
-        voteRepository.deleteByUserIdAndPostId(user.getId(), post.getId());
+    private void shiftCommentVotes(UUID commentId, boolean upvote, int delta) {
+        commentRepository.shiftVotes(commentId, upvote ? delta : 0, upvote ? 0 : delta);
     }
 }
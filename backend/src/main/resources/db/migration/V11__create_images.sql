@@ -0,0 +1,10 @@
+-- content-addressed image files, shared by every post that uploaded the same bytes with the same filter
+CREATE TABLE images
+(
+    key        VARCHAR(64)  NOT NULL PRIMARY KEY,
+    path       VARCHAR(200) NOT NULL,
+    ref_count  INTEGER      DEFAULT 0 NOT NULL,
+    created_at TIMESTAMPTZ  DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS image_key VARCHAR(64);
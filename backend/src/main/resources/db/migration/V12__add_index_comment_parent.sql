@@ -0,0 +1,3 @@
+-- replies of one comment in (created_at desc, id desc) order, walked by the subtree query of GET /comments/{id}
+CREATE INDEX IF NOT EXISTS idx_comments_parent_created_at_id
+    ON comments (parent_comment_id, created_at DESC, id DESC);
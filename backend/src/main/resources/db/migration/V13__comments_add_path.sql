@@ -0,0 +1,35 @@
+-- materialized path: the ancestor chain of a comment as fixed-width segments, one per level.
+-- A segment is 10 hex digits of (2^40 - 1 - n), n taken from comment_path_seq in insertion order,
+-- so within one parent the newest reply sorts first and "order by path" is the thread in display order.
+-- "C" collation keeps the comparison bytewise, which lets subtree range scans use the index.
+CREATE SEQUENCE comment_path_seq;
+
+ALTER TABLE comments
+    ADD COLUMN path  text COLLATE "C",
+    ADD COLUMN depth integer;
+
+WITH RECURSIVE numbered AS (
+    SELECT id, parent_comment_id, row_number() OVER (ORDER BY created_at, id) AS n
+    FROM comments
+), tree AS (
+    SELECT n.id, lpad(to_hex(1099511627775 - n.n), 10, '0') AS path, 0 AS depth
+    FROM numbered n
+    WHERE n.parent_comment_id IS NULL
+    UNION ALL
+    SELECT n.id, t.path || lpad(to_hex(1099511627775 - n.n), 10, '0'), t.depth + 1
+    FROM numbered n
+    JOIN tree t ON n.parent_comment_id = t.id
+)
+UPDATE comments c
+SET path = t.path, depth = t.depth
+FROM tree t
+WHERE t.id = c.id;
+
+SELECT setval('comment_path_seq', greatest((SELECT count(*) FROM comments), 1), (SELECT count(*) FROM comments) > 0);
+
+ALTER TABLE comments
+    ALTER COLUMN path SET NOT NULL,
+    ALTER COLUMN depth SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_comments_post_path
+    ON comments (post_id, path);
@@ -0,0 +1,4 @@
+-- keyset pages of top-level comments for GET /posts/{id}/comments
+CREATE INDEX IF NOT EXISTS idx_comments_roots_post_created_at_id
+    ON comments (post_id, created_at DESC, id DESC)
+    WHERE parent_comment_id IS NULL;
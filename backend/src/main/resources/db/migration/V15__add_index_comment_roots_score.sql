@@ -0,0 +1,5 @@
+-- keyset pages of top-level comments sorted by score for GET /posts/{id}/comments?sort=top;
+-- the expression must match the ORDER BY and row comparison in CommentRepository
+CREATE INDEX IF NOT EXISTS idx_comments_roots_post_score_created_at_id
+    ON comments (post_id, (upvotes - downvotes) DESC, created_at DESC, id DESC)
+    WHERE parent_comment_id IS NULL;
@@ -0,0 +1,6 @@
+-- keyset pagination on (created_at, id) for GET /posts and GET /subreddits/{name}/posts
+CREATE INDEX IF NOT EXISTS idx_posts_created_at_id
+    ON posts (created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_posts_subreddit_created_at_id
+    ON posts (subreddit_id, created_at DESC, id DESC);
@@ -0,0 +1,39 @@
+-- denormalized counters, kept in sync by VotingService / CommentService
+ALTER TABLE posts
+    ADD COLUMN IF NOT EXISTS upvotes       INTEGER DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS downvotes     INTEGER DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS comment_count INTEGER DEFAULT 0 NOT NULL;
+
+ALTER TABLE comments
+    ADD COLUMN IF NOT EXISTS upvotes   INTEGER DEFAULT 0 NOT NULL,
+    ADD COLUMN IF NOT EXISTS downvotes INTEGER DEFAULT 0 NOT NULL;
+
+-- backfill from the existing votes / comments
+UPDATE posts p
+SET upvotes   = v.up,
+    downvotes = v.down
+FROM (SELECT post_id,
+             COUNT(*) FILTER (WHERE is_upvote)     AS up,
+             COUNT(*) FILTER (WHERE NOT is_upvote) AS down
+      FROM votes
+      WHERE post_id IS NOT NULL
+      GROUP BY post_id) v
+WHERE p.id = v.post_id;
+
+UPDATE posts p
+SET comment_count = c.total
+FROM (SELECT post_id, COUNT(*) AS total
+      FROM comments
+      GROUP BY post_id) c
+WHERE p.id = c.post_id;
+
+UPDATE comments c
+SET upvotes   = v.up,
+    downvotes = v.down
+FROM (SELECT comment_id,
+             COUNT(*) FILTER (WHERE is_upvote)     AS up,
+             COUNT(*) FILTER (WHERE NOT is_upvote) AS down
+      FROM votes
+      WHERE comment_id IS NOT NULL
+      GROUP BY comment_id) v
+WHERE c.id = v.comment_id;
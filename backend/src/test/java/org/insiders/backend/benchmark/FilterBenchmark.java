@@ -0,0 +1,82 @@
+package org.insiders.backend.benchmark;
+
+import org.insiders.backend.image.FilterPipeline;
+import org.insiders.backend.image.ImageFilters;
+import org.insiders.backend.image.PixelImage;
+import org.insiders.backend.image.StripeExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 1920x1080 frame through the local filter engine, on the calling thread and split into
+ * stripes on a pool with one worker per processor. Filters work in place, so the pixels are
+ * restored before every invocation.
+ * <p>
+ * {@code mvn -Pbenchmarks test -Djmh.args="Filter -f 1"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    @Param({"GrayscaleFilter", "BlurFilter", "SharpenFilter"})
+    public String filter;
+
+    @Param({"sequential", "striped"})
+    public String mode;
+
+    private PixelImage source;
+    private PixelImage image;
+    private FilterPipeline pipeline;
+    private StripeExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = PixelImage.create(WIDTH, HEIGHT);
+        int[] pixels = source.pixels();
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        image = PixelImage.create(WIDTH, HEIGHT);
+        pipeline = FilterPipeline.of(ImageFilters.byName(filter).orElseThrow());
+        executor = mode.equals("striped")
+                ? StripeExecutor.create(0, Runtime.getRuntime().availableProcessors())
+                : StripeExecutor.SEQUENTIAL;
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        System.arraycopy(source.pixels(), 0, image.pixels(), 0, source.pixels().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public PixelImage filter() {
+        pipeline.apply(image, executor);
+        return image;
+    }
+}
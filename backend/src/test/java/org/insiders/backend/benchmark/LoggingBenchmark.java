@@ -0,0 +1,98 @@
+package org.insiders.backend.benchmark;
+
+import org.insiders.backend.logger.AsyncLogManager;
+import org.insiders.backend.logger.ILogger;
+import org.insiders.backend.logger.LogLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a log call on the request path. With one logger registered at INFO, a DEBUG call
+ * is measured written three ways: concatenated by the caller, with {} placeholders, and as a
+ * supplier. The enabled INFO call shows what a message that is actually queued costs.
+ * <p>
+ * {@code mvn -Pbenchmarks test -Djmh.args="Logging -f 1"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private final AsyncLogManager logger = AsyncLogManager.getInstance();
+    private final ILogger sink = new DiscardingLogger();
+    private UUID postId;
+    private int votes;
+
+    @Setup(Level.Trial)
+    public void register() {
+        logger.addLogger(sink, LogLevel.INFO);
+        postId = UUID.randomUUID();
+        votes = 42;
+    }
+
+    @TearDown(Level.Trial)
+    public void unregister() {
+        logger.removeLogger(sink);
+    }
+
+    @Benchmark
+    public void disabledConcatenated() {
+        logger.log(LogLevel.DEBUG, "Vote on post " + postId + " now at " + votes);
+    }
+
+    @Benchmark
+    public void disabledParameterized() {
+        logger.log(LogLevel.DEBUG, "Vote on post {} now at {}", postId, votes);
+    }
+
+    @Benchmark
+    public void disabledSupplier() {
+        logger.log(LogLevel.DEBUG, () -> "Vote on post " + postId + " now at " + votes);
+    }
+
+    @Benchmark
+    public void enabledParameterized() {
+        logger.log(LogLevel.INFO, "Vote on post {} now at {}", postId, votes);
+    }
+
+    private static final class DiscardingLogger implements ILogger {
+        @Override
+        public void log(String message) {
+        }
+
+        @Override
+        public void logDebug(String message) {
+        }
+
+        @Override
+        public void logInfo(String message) {
+        }
+
+        @Override
+        public void logWarning(String message) {
+        }
+
+        @Override
+        public void logError(String message) {
+        }
+
+        @Override
+        public void logFatal(String message) {
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.insiders.backend.benchmark;
+
+import org.insiders.backend.image.AreaAverageScaler;
+import org.insiders.backend.image.PixelImage;
+import org.insiders.backend.image.StripeExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The area-average downscale behind the stored derivatives, from a 1920x1080 frame to each
+ * derivative width, on the calling thread and striped.
+ * <p>
+ * {@code mvn -Pbenchmarks test -Djmh.args="Scaling -f 1"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+    @Param({"1080", "480", "160"})
+    public int width;
+
+    @Param({"sequential", "striped"})
+    public String mode;
+
+    private PixelImage source;
+    private StripeExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = PixelImage.create(1920, 1080);
+        int[] pixels = source.pixels();
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        executor = mode.equals("striped")
+                ? StripeExecutor.create(0, Runtime.getRuntime().availableProcessors())
+                : StripeExecutor.SEQUENTIAL;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public PixelImage scale() {
+        return AreaAverageScaler.scaleToWidth(source, width, executor);
+    }
+}
@@ -0,0 +1,73 @@
+package org.insiders.backend.controller;
+
+import org.insiders.backend.service.ImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageControllerTest {
+    private static final String KEY = "ab".repeat(32);
+
+    @TempDir
+    Path root;
+
+    private ImageController controller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        controller = new ImageController(new ImageStore(null, null, root.toString(), "http://localhost/images/"));
+        store(KEY + ".jpg", "full");
+    }
+
+    private void store(String name, String content) throws IOException {
+        Path shard = root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4));
+        Files.createDirectories(shard);
+        Files.writeString(shard.resolve(name), content);
+    }
+
+    private MockHttpServletResponse get(String key, String ifNoneMatch) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + key);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getImage(key, request, response);
+        return response;
+    }
+
+    @Test
+    void storedImagesAreImmutable() throws IOException {
+        MockHttpServletResponse response = get(KEY, null);
+
+        assertThat(response.getContentAsString()).isEqualTo("full");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + KEY + "\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(response.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+    }
+
+    @Test
+    void aMissingDerivativeFallsBackWithoutBeingCachedForever() throws IOException {
+        MockHttpServletResponse fallback = get(KEY + "_w480", null);
+
+        assertThat(fallback.getContentAsString()).isEqualTo("full");
+        assertThat(fallback.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + KEY + "\"");
+        assertThat(fallback.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+
+        // once written, the thumbnail replaces the fallback on revalidation
+        store(KEY + "_w480.jpg", "thumbnail");
+        MockHttpServletResponse derivative = get(KEY + "_w480", "\"" + KEY + "\"");
+        assertThat(derivative.getStatus()).isEqualTo(200);
+        assertThat(derivative.getContentAsString()).isEqualTo("thumbnail");
+        assertThat(derivative.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + KEY + "_w480\"");
+        assertThat(derivative.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+    }
+}
@@ -0,0 +1,87 @@
+package org.insiders.backend.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AreaAverageScalerTest {
+
+    private static PixelImage gray(int width, int height, int... values) {
+        PixelImage image = PixelImage.create(width, height);
+        for (int i = 0; i < values.length; i++) {
+            image.pixels()[i] = PixelImage.pack(values[i], values[i], values[i]);
+        }
+        return image;
+    }
+
+    private static int grayAt(PixelImage image, int x, int y) {
+        return image.pixels()[y * image.width() + x] & 0xFF;
+    }
+
+    @Test
+    void halvingAveragesPairsOfPixels() {
+        PixelImage source = gray(4, 2,
+                0, 100, 200, 50,
+                100, 200, 0, 50);
+        PixelImage scaled = AreaAverageScaler.scale(source, 2, 1, StripeExecutor.SEQUENTIAL);
+        assertThat(grayAt(scaled, 0, 0)).isEqualTo(100);
+        assertThat(grayAt(scaled, 1, 0)).isEqualTo(75);
+    }
+
+    @Test
+    void partiallyCoveredPixelsCountByTheirOverlap() {
+        // 3 -> 2: each target pixel covers one and a half source pixels
+        PixelImage scaled = AreaAverageScaler.scale(gray(3, 1, 0, 90, 180), 2, 1, StripeExecutor.SEQUENTIAL);
+        assertThat(grayAt(scaled, 0, 0)).isEqualTo(30);
+        assertThat(grayAt(scaled, 1, 0)).isEqualTo(150);
+    }
+
+    @Test
+    void aSinglePixelIsTheMeanOfTheWholeImage() {
+        PixelImage scaled = AreaAverageScaler.scale(gray(3, 3, 0, 0, 0, 90, 90, 90, 180, 180, 180), 1, 1, StripeExecutor.SEQUENTIAL);
+        assertThat(grayAt(scaled, 0, 0)).isEqualTo(90);
+    }
+
+    @Test
+    void keepsChannelsApart() {
+        PixelImage source = PixelImage.create(2, 2);
+        Arrays.fill(source.pixels(), PixelImage.pack(255, 0, 10));
+        PixelImage scaled = AreaAverageScaler.scale(source, 1, 1, StripeExecutor.SEQUENTIAL);
+        assertThat(scaled.pixels()[0]).isEqualTo(PixelImage.pack(255, 0, 10));
+    }
+
+    @Test
+    void scaleToWidthKeepsTheAspectRatio() {
+        PixelImage scaled = AreaAverageScaler.scaleToWidth(PixelImage.create(1920, 1080), 480, StripeExecutor.SEQUENTIAL);
+        assertThat(scaled.width()).isEqualTo(480);
+        assertThat(scaled.height()).isEqualTo(270);
+
+        PixelImage strip = AreaAverageScaler.scaleToWidth(PixelImage.create(1000, 1), 10, StripeExecutor.SEQUENTIAL);
+        assertThat(strip.height()).isEqualTo(1);
+    }
+
+    @Test
+    void imagesNoWiderThanTheTargetAreReturnedAsIs() {
+        PixelImage source = PixelImage.create(160, 90);
+        assertThat(AreaAverageScaler.scaleToWidth(source, 160, StripeExecutor.SEQUENTIAL)).isSameAs(source);
+        assertThat(AreaAverageScaler.scaleToWidth(source, 1080, StripeExecutor.SEQUENTIAL)).isSameAs(source);
+    }
+
+    @Test
+    void stripedScalingMatchesSequential() {
+        PixelImage source = PixelImage.create(1200, 900);
+        Random random = new Random(7);
+        for (int i = 0; i < source.pixels().length; i++) {
+            source.pixels()[i] = random.nextInt(0x1000000);
+        }
+
+        PixelImage sequential = AreaAverageScaler.scaleToWidth(source, 333, StripeExecutor.SEQUENTIAL);
+        try (StripeExecutor executor = StripeExecutor.create(4, 4, 1)) {
+            PixelImage striped = AreaAverageScaler.scaleToWidth(source, 333, executor);
+            assertThat(striped.pixels()).isEqualTo(sequential.pixels());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.insiders.backend.image;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PixelImageTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String format, int width, int height) throws IOException {
+        Path file = dir.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, file.toFile());
+        return file;
+    }
+
+    @Test
+    void probeReadsFormatAndSizeFromTheContent() throws IOException {
+        assertThat(PixelImage.probe(write("a.jpg", "jpg", 640, 480))).contains(new ImageHeader("jpg", 640, 480));
+        assertThat(PixelImage.probe(write("b.bmp", "bmp", 20, 10))).contains(new ImageHeader("bmp", 20, 10));
+        // the name does not matter, only the bytes
+        assertThat(PixelImage.probe(write("c.html", "png", 3, 7))).contains(new ImageHeader("png", 3, 7));
+    }
+
+    @Test
+    void probeRejectsMarkupAndOtherFormats() throws IOException {
+        Path html = dir.resolve("x.png");
+        Files.writeString(html, "<html><script>alert(1)</script></html>", StandardCharsets.UTF_8);
+        assertThat(PixelImage.probe(html)).isEmpty();
+
+        Path svg = dir.resolve("x.svg");
+        Files.writeString(svg, "<svg xmlns=\"http://www.w3.org/2000/svg\" onload=\"alert(1)\"/>", StandardCharsets.UTF_8);
+        assertThat(PixelImage.probe(svg)).isEmpty();
+
+        assertThat(PixelImage.probe(write("y.gif", "gif", 5, 5))).isEmpty();
+    }
+
+    @Test
+    void probeRejectsTruncatedImages() throws IOException {
+        Path png = write("z.png", "png", 50, 50);
+        Path truncated = dir.resolve("t.png");
+        Files.write(truncated, java.util.Arrays.copyOf(Files.readAllBytes(png), 12));
+        assertThat(PixelImage.probe(truncated)).isEmpty();
+    }
+}
@@ -0,0 +1,93 @@
+package org.insiders.backend.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.insiders.backend.Main;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The backend started on a random port against an embedded Postgres, for the load tests. Each
+ * test starts one per configuration it compares; they share the database.
+ */
+final class LoadTestBackend implements AutoCloseable {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ConfigurableApplicationContext context;
+    private final int port;
+
+    /**
+     * properties are passed as command line arguments, since builder properties are only
+     * defaults and application.properties wins over them.
+     */
+    LoadTestBackend(EmbeddedPostgres postgres, Path images, String profile, Map<String, String> properties) {
+        Map<String, String> arguments = new LinkedHashMap<>(Map.of(
+                "server.port", "0",
+                "spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"),
+                "spring.datasource.username", "postgres",
+                "spring.datasource.password", "postgres",
+                "insiders.images.dir", images.toString(),
+                "insiders.logging.console-level", "ERROR",
+                "insiders.logging.file-level", "ERROR"));
+        arguments.putAll(properties);
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Main.class);
+        if (profile != null) {
+            builder.profiles(profile);
+        }
+        this.context = builder.run(arguments.entrySet().stream()
+                .map(argument -> "--" + argument.getKey() + "=" + argument.getValue())
+                .toArray(String[]::new));
+        this.port = ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Creates the user and a subreddit of the same name, then posts count posts in it. Returns
+     * the user's session token.
+     */
+    String seed(HttpClient client, String username, int posts) throws IOException, InterruptedException {
+        send(client, "POST", "/users", "{\"username\":\"" + username + "\",\"email\":\"" + username + "@insiders.io\",\"password\":\"secret1\"}", null);
+        send(client, "POST", "/subreddits", "{\"name\":\"" + username + "\",\"displayName\":\"Load\",\"description\":\"d\"}", null);
+        String token = login(client, username);
+        for (int i = 0; i < posts; i++) {
+            send(client, "POST", "/posts", "{\"title\":\"Post " + i + "\",\"content\":\"c\",\"subreddit\":\"" + username + "\"}", token);
+        }
+        return token;
+    }
+
+    String login(HttpClient client, String username) throws IOException, InterruptedException {
+        HttpResponse<String> login = send(client, "POST", "/users/login",
+                "{\"email\":\"" + username + "@insiders.io\",\"password\":\"secret1\"}", null);
+        return JSON.readTree(login.body()).path("data").path("token").asText();
+    }
+
+    HttpResponse<String> send(HttpClient client, String method, String path, String body, String token)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
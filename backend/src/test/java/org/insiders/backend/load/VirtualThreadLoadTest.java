@@ -0,0 +1,126 @@
+package org.insiders.backend.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Platform threads against the "virtual" profile under the same load: the backend is started once
+ * per mode on an embedded Postgres and a growing number of clients read the feed concurrently.
+ * Each mode runs with its shipped settings (the virtual profile also raises the connection pool).
+ * Requests per second and latency percentiles are printed; only errors fail the test, timings
+ * depend on the machine. Virtual threads need Java 21, so that half is skipped on older runtimes.
+ * <p>
+ * {@code mvn -Pload-test test}, or {@code mvn -Pvirtual-threads,load-test test} for both modes.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+    private static final int[] CONNECTIONS = {50, 400, 1000};
+    private static final int REQUESTS_PER_CONNECTION = 20;
+    private static final int POSTS = 30;
+
+    private static EmbeddedPostgres postgres;
+
+    @TempDir
+    static Path images;
+
+    private record Result(String mode, int connections, long requestsPerSecond, long p50Ms, long p99Ms, int errors) {
+    }
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        List<Result> results = new ArrayList<>(run("platform", null, true));
+        if (Runtime.version().feature() >= 21) {
+            results.addAll(run("virtual", "virtual", false));
+        } else {
+            System.out.println("Virtual threads need Java 21, running on " + Runtime.version() + ": only the platform mode was measured");
+        }
+
+        System.out.printf("%-9s %6s %9s %7s %7s %7s%n", "mode", "conns", "req/s", "p50 ms", "p99 ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-9s %6d %9d %7d %7d %7d%n", result.mode(), result.connections(), result.requestsPerSecond(),
+                    result.p50Ms(), result.p99Ms(), result.errors());
+        }
+        assertThat(results).allSatisfy(result -> assertThat(result.errors()).isZero());
+    }
+
+    private List<Result> run(String mode, String profile, boolean seed) throws Exception {
+        try (LoadTestBackend backend = new LoadTestBackend(postgres, images, profile, Map.of())) {
+            HttpClient client = HttpClient.newHttpClient();
+            String token = seed ? backend.seed(client, "load", POSTS) : backend.login(client, "load");
+
+            List<Result> results = new ArrayList<>();
+            for (int connections : CONNECTIONS) {
+                results.add(measure(mode, backend, token, connections));
+            }
+            return results;
+        }
+    }
+
+    private Result measure(String mode, LoadTestBackend backend, String token, int connections) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(connections);
+        AtomicInteger errors = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            running.add(clients.submit(() -> {
+                HttpClient client = HttpClient.newHttpClient();
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_CONNECTION; i++) {
+                    long sent = System.nanoTime();
+                    try {
+                        if (backend.send(client, "GET", "/posts?limit=20", null, token).statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - sent);
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> client : running) {
+            client.get();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        clients.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(mode, connections, (long) (sorted.size() / seconds),
+                sorted.get(sorted.size() / 2) / 1_000_000, sorted.get(sorted.size() * 99 / 100) / 1_000_000, errors.get());
+    }
+}
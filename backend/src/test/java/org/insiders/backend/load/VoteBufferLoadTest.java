@@ -0,0 +1,116 @@
+package org.insiders.backend.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.insiders.backend.model.UserIdentity;
+import org.insiders.backend.service.PostManagementService;
+import org.insiders.backend.service.UserManagementService;
+import org.insiders.backend.service.VoteBuffer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vote throughput with the write-behind buffer off and on: VOTERS threads vote up or down at
+ * random on a small set of posts, so most votes flip or toggle a row that already exists, then
+ * the post counters are checked against the votes table. Votes per second are printed; only an
+ * inconsistency fails the test.
+ * <p>
+ * {@code mvn -Pload-test test}
+ */
+@Tag("load")
+class VoteBufferLoadTest {
+    private static final int VOTERS = 16;
+    private static final int VOTES_PER_VOTER = 400;
+    private static final int POSTS = 30;
+
+    private static final String COUNTER_MISMATCHES =
+            "select count(*) from posts p where p.upvotes <> (select count(*) from votes v where v.post_id = p.id and v.is_upvote) "
+                    + "or p.downvotes <> (select count(*) from votes v where v.post_id = p.id and not v.is_upvote)";
+    private static final String DUPLICATE_VOTES =
+            "select count(*) from (select 1 from votes where post_id is not null group by user_id, post_id having count(*) > 1) duplicates";
+
+    private static EmbeddedPostgres postgres;
+
+    @TempDir
+    static Path images;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void compareSynchronousAndBufferedVotes() throws Exception {
+        long synchronous = run(false, true);
+        long buffered = run(true, false);
+
+        System.out.printf("%-13s %8s%n", "mode", "votes/s");
+        System.out.printf("%-13s %8d%n", "synchronous", synchronous);
+        System.out.printf("%-13s %8d%n", "write-behind", buffered);
+    }
+
+    private long run(boolean writeBehind, boolean seed) throws Exception {
+        // a long flush interval leaves flushing to max-pending, as under sustained load
+        Map<String, String> properties = Map.of(
+                "insiders.votes.write-behind.enabled", String.valueOf(writeBehind),
+                "insiders.votes.write-behind.flush-interval-ms", "600000");
+        try (LoadTestBackend backend = new LoadTestBackend(postgres, images, null, properties)) {
+            UserManagementService users = backend.bean(UserManagementService.class);
+            if (seed) {
+                backend.seed(HttpClient.newHttpClient(), "votes", POSTS);
+                for (int v = 0; v < VOTERS; v++) {
+                    users.saveUser("voter" + v, "voter" + v + "@insiders.io", "secret1");
+                }
+            }
+            JdbcTemplate jdbcTemplate = backend.bean(JdbcTemplate.class);
+            PostManagementService posts = backend.bean(PostManagementService.class);
+            List<UUID> postIds = jdbcTemplate.queryForList("select id from posts", UUID.class);
+
+            ExecutorService voters = Executors.newFixedThreadPool(VOTERS);
+            List<Future<?>> running = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int v = 0; v < VOTERS; v++) {
+                UserIdentity voter = users.findIdentity("voter" + v);
+                running.add(voters.submit(() -> {
+                    Random random = new Random(voter.username().hashCode());
+                    for (int i = 0; i < VOTES_PER_VOTER; i++) {
+                        posts.votePost(postIds.get(random.nextInt(postIds.size())), random.nextBoolean() ? "up" : "down", voter);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> voter : running) {
+                voter.get();
+            }
+            long votesPerSecond = (long) (VOTERS * VOTES_PER_VOTER / ((System.nanoTime() - start) / 1e9));
+            voters.shutdown();
+
+            backend.bean(VoteBuffer.class).flush();
+            assertThat(jdbcTemplate.queryForObject(COUNTER_MISMATCHES, Integer.class)).isZero();
+            assertThat(jdbcTemplate.queryForObject(DUPLICATE_VOTES, Integer.class)).isZero();
+            return votesPerSecond;
+        }
+    }
+}
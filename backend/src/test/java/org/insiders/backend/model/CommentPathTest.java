@@ -0,0 +1,85 @@
+package org.insiders.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Paths compare with String.compareTo, which orders ASCII the way the column's "C" collation does.
+ */
+class CommentPathTest {
+
+    private static boolean inSubtree(String path, String root) {
+        return path.compareTo(root) >= 0 && path.compareTo(CommentPath.end(root)) < 0;
+    }
+
+    @Test
+    void everyLevelAddsOneFixedWidthSegment() {
+        String root = CommentPath.child(null, 1);
+        String reply = CommentPath.child(root, 2);
+        assertThat(root).hasSize(CommentPath.SEGMENT_WIDTH).matches("[0-9a-f]+");
+        assertThat(reply).hasSize(2 * CommentPath.SEGMENT_WIDTH).startsWith(root);
+    }
+
+    @Test
+    void newerSiblingsSortFirst() {
+        String root = CommentPath.child(null, 1);
+        assertThat(CommentPath.child(root, 10)).isLessThan(CommentPath.child(root, 9));
+        assertThat(CommentPath.child(null, 10)).isLessThan(root);
+    }
+
+    @Test
+    void sortingByPathListsTheThreadDepthFirst() {
+        String older = CommentPath.child(null, 1);
+        String newer = CommentPath.child(null, 2);
+        String olderReply = CommentPath.child(older, 3);
+        String olderReplyReply = CommentPath.child(olderReply, 5);
+        String newerReply = CommentPath.child(newer, 4);
+
+        List<String> sorted = new ArrayList<>(List.of(olderReplyReply, older, newerReply, olderReply, newer));
+        sorted.sort(null);
+        assertThat(sorted).containsExactly(newer, newerReply, older, olderReply, olderReplyReply);
+    }
+
+    @Test
+    void theSubtreeRangeHoldsTheCommentAndAllItsDescendants() {
+        String root = CommentPath.child(null, 7);
+        String path = root;
+        for (int depth = 0; depth < 20; depth++) {
+            path = CommentPath.child(path, 100 + depth);
+            assertThat(inSubtree(path, root)).isTrue();
+        }
+        assertThat(inSubtree(root, root)).isTrue();
+    }
+
+    @Test
+    void theSubtreeRangeExcludesParentsSiblingsAndTheirReplies() {
+        String parent = CommentPath.child(null, 1);
+        String comment = CommentPath.child(parent, 5);
+        String newerSibling = CommentPath.child(parent, 6);
+        String olderSibling = CommentPath.child(parent, 4);
+
+        assertThat(inSubtree(parent, comment)).isFalse();
+        assertThat(inSubtree(newerSibling, comment)).isFalse();
+        assertThat(inSubtree(CommentPath.child(newerSibling, 7), comment)).isFalse();
+        assertThat(inSubtree(olderSibling, comment)).isFalse();
+        assertThat(inSubtree(CommentPath.child(olderSibling, 8), comment)).isFalse();
+    }
+
+    @Test
+    void theRangeHoldsAtTheEdgesOfTheSequence() {
+        // n = 0 gives the all-f segment, the last one below the 'g' bound
+        String last = CommentPath.child(null, 0);
+        assertThat(last).isEqualTo("ffffffffff");
+        assertThat(inSubtree(CommentPath.child(last, 0), last)).isTrue();
+        assertThat(inSubtree(CommentPath.child(null, 1), last)).isFalse();
+
+        String first = CommentPath.child(null, (1L << 40) - 1);
+        assertThat(first).isEqualTo("0000000000");
+        assertThat(inSubtree(CommentPath.child(first, (1L << 40) - 1), first)).isTrue();
+        assertThat(inSubtree(last, first)).isFalse();
+    }
+}
@@ -0,0 +1,62 @@
+package org.insiders.backend.model;
+
+import org.insiders.backend.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 5, 123_456_000), UUID.randomUUID());
+        assertThat(FeedCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void keepsWholeSecondsAndMidnight() {
+        // LocalDateTime.toString drops zero seconds, the token must still parse back
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(2024, 1, 1, 0, 0), UUID.randomUUID());
+        assertThat(FeedCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokensAreUrlSafe() {
+        for (int i = 0; i < 100; i++) {
+            String token = new FeedCursor(LocalDateTime.now().minusSeconds(i), UUID.randomUUID()).encode();
+            assertThat(token).matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @Test
+    void startsAfterThePostItWasTakenFrom() {
+        PostModel post = new PostModel(UUID.randomUUID(), "titlu", "continut", null, "ana", "java",
+                0, 0, 0, null, LocalDateTime.now(), LocalDateTime.now());
+        FeedCursor cursor = FeedCursor.after(post);
+        assertThat(cursor.id()).isEqualTo(post.getId());
+        assertThat(cursor.createdAt()).isEqualTo(post.getCreatedAt());
+    }
+
+    @Test
+    void malformedTokensAreBadRequests() {
+        String noSeparator = encode("2024-01-01T00:00");
+        String badDate = encode("ieri|" + UUID.randomUUID());
+        String badId = encode("2024-01-01T00:00|nu-e-uuid");
+
+        for (String token : new String[]{"%%%", "", noSeparator, badDate, badId}) {
+            assertThatThrownBy(() -> FeedCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,45 @@
+package org.insiders.backend.model;
+
+import org.insiders.backend.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScoreCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        for (int score : new int[]{0, 17, -5, Integer.MIN_VALUE}) {
+            ScoreCursor cursor = new ScoreCursor(score, LocalDateTime.of(2024, 3, 1, 12, 30, 5, 123_456_000), UUID.randomUUID());
+            assertThat(ScoreCursor.decode(cursor.encode())).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void tokensAreUrlSafe() {
+        assertThat(new ScoreCursor(-3, LocalDateTime.now(), UUID.randomUUID()).encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void feedCursorsAndOffsetsAreBadRequests() {
+        String feed = new FeedCursor(LocalDateTime.now(), UUID.randomUUID()).encode();
+        String noId = encode("3|2024-01-01T00:00");
+        String badScore = encode("trei|2024-01-01T00:00|" + UUID.randomUUID());
+
+        for (String token : new String[]{"20", "", "%%%", feed, noId, badScore}) {
+            assertThatThrownBy(() -> ScoreCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
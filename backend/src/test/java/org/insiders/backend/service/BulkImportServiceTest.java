@@ -0,0 +1,335 @@
+package org.insiders.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.insiders.backend.exceptions.ForbiddenException;
+import org.insiders.backend.exceptions.NotFoundException;
+import org.insiders.backend.model.CommentPath;
+import org.insiders.backend.model.ImportError;
+import org.insiders.backend.model.ImportReport;
+import org.insiders.backend.model.UserIdentity;
+import org.insiders.backend.repository.SubredditRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkImportServiceTest {
+    private static final UserIdentity USER = new UserIdentity(UUID.randomUUID(), "ana");
+    private static final String INSERT_USER = "insert into users";
+    private static final String INSERT_POST = "insert into posts";
+    private static final String INSERT_COMMENT = "insert into comments";
+    private static final String INSERT_VOTE = "insert into votes";
+    private static final String ADD_POST_COMMENTS = "update posts set comment_count";
+    private static final String SHIFT_POST_COUNTERS = "update posts set upvotes";
+    private static final String SHIFT_COMMENT_COUNTERS = "update comments set upvotes";
+
+    private record Write(String sql, Object[] values) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // rows of committed transactions; a transaction that throws leaves nothing here
+    private final List<Write> written = new ArrayList<>();
+    private List<Write> transaction;
+    private final Map<String, UUID> existingUsers = new HashMap<>();
+    private final Map<String, UUID> existingSubreddits = new HashMap<>();
+    private long nextPathSequence = 100;
+    private String failingValue;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private UserManagementService userManagementService;
+    private UserIdentityCache identityCache;
+    private SubredditRepository subredditRepository;
+    private RankingIndex rankingIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            transaction = new ArrayList<>();
+            try {
+                invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                written.addAll(transaction);
+            } finally {
+                transaction = null;
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            record(invocation.getArgument(0), List.<Object[]>of((Object[]) invocation.getRawArguments()[1]));
+            return 1;
+        });
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            record(invocation.getArgument(0), rows);
+            return new int[rows.size()];
+        });
+        // handed out newest first, so the test sees whether the service sorts what it reserves
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenAnswer(invocation -> {
+            int count = (Integer) ((Object[]) invocation.getRawArguments()[2])[0];
+            long first = nextPathSequence;
+            nextPathSequence += count;
+            return LongStream.range(first, first + count).boxed().sorted((a, b) -> Long.compare(b, a)).toList();
+        });
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            String[] names = (String[]) ((Object[]) invocation.getRawArguments()[2])[0];
+            boolean users = sql.contains("from users");
+            for (Map.Entry<String, UUID> existing : (users ? existingUsers : existingSubreddits).entrySet()) {
+                String key = users ? existing.getKey() : existing.getKey().toLowerCase();
+                if (Arrays.asList(names).contains(key)) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getObject(1, UUID.class)).thenReturn(existing.getValue());
+                    when(rs.getString(2)).thenReturn(existing.getKey());
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        userManagementService = mock(UserManagementService.class);
+        when(userManagementService.findIdentity(anyString())).thenAnswer(invocation -> {
+            String username = invocation.getArgument(0);
+            UUID id = existingUsers.get(username);
+            if (id == null) {
+                throw new NotFoundException("Utilizatorul " + username + " nu a fost gasit");
+            }
+            return new UserIdentity(id, username);
+        });
+        identityCache = mock(UserIdentityCache.class);
+        subredditRepository = mock(SubredditRepository.class);
+        rankingIndex = mock(RankingIndex.class);
+    }
+
+    private void record(String sql, List<Object[]> rows) {
+        for (Object[] values : rows) {
+            if (failingValue != null && Arrays.asList(values).contains(failingValue)) {
+                throw new DataIntegrityViolationException("rand respins: " + failingValue);
+            }
+        }
+        for (Object[] values : rows) {
+            transaction.add(new Write(sql, values));
+        }
+    }
+
+    private List<Object[]> rows(String sqlPrefix) {
+        return written.stream().filter(write -> write.sql().startsWith(sqlPrefix)).map(Write::values).toList();
+    }
+
+    private Object[] commentWithContent(String content) {
+        return rows(INSERT_COMMENT).stream().filter(values -> values[3].equals(content)).findFirst().orElseThrow();
+    }
+
+    private BulkImportService service(int batchSize) {
+        return new BulkImportService(jdbcTemplate, transactionTemplate, objectMapper, userManagementService,
+                identityCache, subredditRepository, rankingIndex, batchSize, 100, "s3cret");
+    }
+
+    private ImportReport importLines(int batchSize, ObjectNode... lines) throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (ObjectNode line : lines) {
+            ndjson.append(line).append('\n');
+        }
+        return service(batchSize).importNdjson(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), USER);
+    }
+
+    private ObjectNode line(String type, String... fields) {
+        ObjectNode line = objectMapper.createObjectNode().put("type", type);
+        for (int i = 0; i < fields.length; i += 2) {
+            line.put(fields[i], fields[i + 1]);
+        }
+        return line;
+    }
+
+    private ObjectNode user(String username) {
+        return line("user", "username", username, "email", username + "@insiders.org", "password", "parola");
+    }
+
+    private ObjectNode post(String id, String author, String title) {
+        return line("post", "id", id, "author", author, "title", title, "createdAt", "2025-03-01T10:00:00");
+    }
+
+    private ObjectNode comment(String id, String parentId, String createdAt) {
+        ObjectNode comment = line("comment", "id", id, "postId", "p1", "author", "ana", "content", id, "createdAt", createdAt);
+        return parentId == null ? comment : comment.put("parentId", parentId);
+    }
+
+    private static BulkImportService service(String adminSecret) {
+        return new BulkImportService(null, null, null, null, null, null, null, 1000, 100, adminSecret);
+    }
+
+    @Test
+    void importIsDisabledWithoutAConfiguredSecret() {
+        assertThatThrownBy(() -> service("").authorize("", USER)).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service("").authorize(null, USER)).isInstanceOf(ForbiddenException.class);
+    }
+
+    @Test
+    void importRequiresTheConfiguredSecret() {
+        BulkImportService service = service("s3cret");
+        assertThatThrownBy(() -> service.authorize(null, USER)).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service.authorize("s3cre", USER)).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service.authorize("S3CRET", USER)).isInstanceOf(ForbiddenException.class);
+        assertThatCode(() -> service.authorize("s3cret", USER)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void placesRepliesUnderTheirParentEvenWhenListedBeforeIt() throws IOException {
+        ImportReport report = importLines(1000,
+                user("ana"),
+                line("subreddit", "name", "java"),
+                post("p1", "ana", "Salut"),
+                comment("c2", "c1", "2025-03-01T10:05:00"),
+                comment("c1", null, "2025-03-01T10:00:00"),
+                comment("c3", null, "2025-03-01T10:10:00"),
+                comment("c4", "lipsa", "2025-03-01T10:15:00"));
+
+        assertThat(report.comments()).isEqualTo(3);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.errors()).extracting(ImportError::line, ImportError::type).containsExactly(
+                tuple(7L, "comment"));
+
+        // sequence values go out oldest comment first: c1 100, c2 101, c3 102
+        UUID postId = (UUID) rows(INSERT_POST).get(0)[0];
+        Object[] c1 = commentWithContent("c1");
+        Object[] c2 = commentWithContent("c2");
+        Object[] c3 = commentWithContent("c3");
+        assertThat(c1[2]).isNull();
+        assertThat(c1[6]).isEqualTo(CommentPath.child(null, 100));
+        assertThat(c1[7]).isEqualTo(0);
+        assertThat(c2[2]).isEqualTo(c1[0]);
+        assertThat(c2[6]).isEqualTo(CommentPath.child(CommentPath.child(null, 100), 101));
+        assertThat(c2[7]).isEqualTo(1);
+        assertThat(c3[6]).isEqualTo(CommentPath.child(null, 102));
+        assertThat(List.of(c1[1], c2[1], c3[1])).containsOnly(postId);
+
+        // newest top-level comment first, each reply right under its parent
+        assertThat(rows(INSERT_COMMENT).stream().map(values -> (String) values[6]).sorted().toList())
+                .containsExactly((String) c3[6], (String) c1[6], (String) c2[6]);
+
+        assertThat(rows(ADD_POST_COMMENTS)).singleElement().satisfies(values ->
+                assertThat(values).containsExactly(3, postId));
+        verify(rankingIndex, times(3)).shiftCommentCount(postId, 1);
+    }
+
+    @Test
+    void reusesExistingUsersAndSubreddits() throws IOException {
+        UUID ana = UUID.randomUUID();
+        UUID java = UUID.randomUUID();
+        existingUsers.put("ana", ana);
+        existingSubreddits.put("Java", java);
+
+        ImportReport report = importLines(1000,
+                user("ana"),
+                user("bob"),
+                line("subreddit", "name", "JAVA"),
+                post("p1", "ana", "Salut"),
+                post("p2", "bob", "Buna"));
+
+        assertThat(report.users()).isEqualTo(1);
+        assertThat(report.subreddits()).isZero();
+        assertThat(report.existing()).isEqualTo(2);
+        assertThat(report.posts()).isEqualTo(2);
+        assertThat(rows(INSERT_USER)).singleElement().satisfies(values -> assertThat(values[1]).isEqualTo("bob"));
+        assertThat(rows("insert into subreddits")).isEmpty();
+
+        UUID bob = (UUID) rows(INSERT_USER).get(0)[0];
+        assertThat(rows(INSERT_POST)).extracting(values -> values[3], values -> values[4]).containsExactly(
+                tuple(ana, java),
+                tuple(bob, java));
+        verify(identityCache).put(new UserIdentity(bob, "bob"));
+        verify(identityCache, never()).put(new UserIdentity(ana, "ana"));
+        verify(subredditRepository, never()).findByNameIgnoreCase(anyString());
+        verify(userManagementService, never()).findIdentity(anyString());
+    }
+
+    @Test
+    void aFailedBatchIsRetriedRowByRowAndReportsTheBadLine() throws IOException {
+        existingUsers.put("ana", UUID.randomUUID());
+        existingSubreddits.put("java", UUID.randomUUID());
+        failingValue = "Respins";
+
+        ImportReport report = importLines(1000,
+                line("subreddit", "name", "java"),
+                post("p1", "ana", "Unu"),
+                post("p2", "ana", "Respins"),
+                post("p3", "ana", "Trei"));
+
+        assertThat(report.posts()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.errors()).singleElement().isEqualTo(new ImportError(1, 3, "post", "rand respins: Respins"));
+        assertThat(rows(INSERT_POST)).extracting(values -> values[1]).containsExactly("Unu", "Trei");
+        verify(rankingIndex, times(2)).addPost(any(), eq("java"), any());
+        // one transaction for the batch, then one per row
+        verify(transactionTemplate, times(4)).executeWithoutResult(any());
+    }
+
+    @Test
+    void shiftsVoteCountersOncePerTargetInTheTransactionOfTheVotes() throws IOException {
+        existingSubreddits.put("java", UUID.randomUUID());
+
+        ImportReport report = importLines(1000,
+                user("ana"),
+                user("bob"),
+                user("dan"),
+                line("subreddit", "name", "java"),
+                post("p1", "ana", "Salut"),
+                comment("c1", null, "2025-03-01T10:00:00"),
+                line("vote", "user", "ana", "postId", "p1", "vote", "up"),
+                line("vote", "user", "bob", "postId", "p1", "vote", "up"),
+                line("vote", "user", "dan", "postId", "p1", "vote", "down"),
+                line("vote", "user", "bob", "commentId", "c1", "vote", "down"),
+                line("vote", "user", "ana", "postId", "p1", "vote", "down"));
+
+        UUID postId = (UUID) rows(INSERT_POST).get(0)[0];
+        UUID commentId = (UUID) commentWithContent("c1")[0];
+        assertThat(report.votes()).isEqualTo(4);
+        assertThat(report.errors()).singleElement().isEqualTo(new ImportError(null, 11, "vote", "Vot duplicat"));
+        assertThat(rows(INSERT_VOTE)).hasSize(4);
+        assertThat(rows(SHIFT_POST_COUNTERS)).singleElement().satisfies(values ->
+                assertThat(values).containsExactly(2, 1, postId));
+        assertThat(rows(SHIFT_COMMENT_COUNTERS)).singleElement().satisfies(values ->
+                assertThat(values).containsExactly(0, 1, commentId));
+        assertThat(rows(ADD_POST_COMMENTS)).singleElement().satisfies(values ->
+                assertThat(values).containsExactly(1, postId));
+        verify(rankingIndex, times(2)).shiftScore(postId, 1);
+        verify(rankingIndex).shiftScore(postId, -1);
+    }
+}
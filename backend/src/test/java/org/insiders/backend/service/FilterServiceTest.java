@@ -0,0 +1,123 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.model.SpooledUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FilterServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private FilterService filterService;
+
+    @BeforeEach
+    void setUp() {
+        ImageProcessorClient localOnly = new ImageProcessorClient("", 1000, 1000, 5, 1000);
+        filterService = new FilterService(dir.toString(), localOnly, 1, 1, 1000, 1000, 500_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filterService.shutdown();
+    }
+
+    private SpooledUpload upload(Path file) throws IOException {
+        return new SpooledUpload(file, file.getFileName().toString(), Files.size(file), "0".repeat(64));
+    }
+
+    private Path image(String name, int width, int height) throws IOException {
+        Path file = dir.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return file;
+    }
+
+    // a PNG whose header declares width x height but carries no pixel data: a few dozen bytes on disk
+    private Path declaredPng(int width, int height) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+        ByteArrayOutputStream ihdr = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(ihdr);
+        header.writeInt(width);
+        header.writeInt(height);
+        header.write(new byte[]{8, 2, 0, 0, 0});
+        chunk(out, "IHDR", ihdr.toByteArray());
+        chunk(out, "IEND", new byte[0]);
+        Path file = dir.resolve("bomb.png");
+        Files.write(file, bytes.toByteArray());
+        return file;
+    }
+
+    private static void chunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(name);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+
+    @Test
+    void filtersImagesWithinTheLimits() throws IOException {
+        Path target = dir.resolve("out.jpg");
+        filterService.render(upload(image("ok.png", 400, 300)), "GrayscaleFilter", target);
+        assertThat(ImageIO.read(target.toFile()).getWidth()).isEqualTo(400);
+    }
+
+    @Test
+    void refusesOversizedImagesBeforeDecoding() throws IOException {
+        // 60000 x 60000 would be 14 GB of int pixels; only the header is ever read
+        SpooledUpload bomb = upload(declaredPng(60_000, 60_000));
+        assertThatThrownBy(() -> filterService.render(bomb, "GrayscaleFilter", dir.resolve("a.jpg")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("60000x60000");
+
+        SpooledUpload tooManyPixels = upload(image("wide.png", 1000, 600));
+        assertThatThrownBy(() -> filterService.render(tooManyPixels, "GrayscaleFilter", dir.resolve("b.jpg")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void refusesContentThatIsNotAnImage() throws IOException {
+        Path html = dir.resolve("x.png");
+        Files.writeString(html, "<html></html>");
+        assertThatThrownBy(() -> filterService.verify(upload(html))).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> filterService.render(upload(html), "GrayscaleFilter", dir.resolve("c.jpg")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rendersDerivativesOnlyForVerifiedImages() throws IOException {
+        Path small = dir.resolve("small_w320.jpg");
+        filterService.renderDerivatives(image("ok.png", 640, 480), Map.of(320, small));
+        assertThat(ImageIO.read(small.toFile()).getWidth()).isEqualTo(320);
+
+        Path html = dir.resolve("page.png");
+        Files.writeString(html, "<html><script>alert(1)</script></html>");
+        filterService.renderDerivatives(html, Map.of(320, dir.resolve("page_w320.jpg")));
+        assertThat(dir.resolve("page_w320.jpg")).doesNotExist();
+
+        filterService.renderDerivatives(declaredPng(60_000, 60_000), Map.of(320, dir.resolve("bomb_w320.jpg")));
+        assertThat(dir.resolve("bomb_w320.jpg")).doesNotExist();
+    }
+}
@@ -0,0 +1,178 @@
+package org.insiders.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.exceptions.ImageProcessorUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ImageProcessorClient against a stub of the C# ProcessingController: POST api/ with a multipart
+ * "Image" file and an "Operations" JSON array of {Type, Parameters}, answered with image/jpeg,
+ * or 400 with the reason when the image is refused.
+ */
+class ImageProcessorClientTest {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Pattern BOUNDARY = Pattern.compile("multipart/form-data;.*boundary=\"?([^\";]+)\"?");
+    private static final Pattern PART_NAME = Pattern.compile("name=\"([^\"]+)\"(?:; filename=\"([^\"]*)\")?");
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xD9};
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile Handler handler;
+    private HttpServer server;
+
+    @TempDir
+    Path dir;
+
+    private Path upload;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/", exchange -> {
+            requests.incrementAndGet();
+            try (exchange) {
+                handler.handle(exchange);
+            }
+        });
+        server.start();
+        upload = Files.write(dir.resolve("upload"), "not really a png".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    private ImageProcessorClient client(long readTimeoutMs, int failureThreshold) {
+        return new ImageProcessorClient("http://localhost:" + server.getAddress().getPort() + "/api/",
+                2000, readTimeoutMs, failureThreshold, 60_000);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    @Test
+    void sendsTheImageAndOperationsTheProcessorExpects() {
+        Map<String, String> fields = new HashMap<>();
+        handler = exchange -> {
+            assertThat(exchange.getRequestMethod()).isEqualTo("POST");
+            fields.putAll(parts(exchange));
+            respond(exchange, 200, "image/jpeg", JPEG);
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        client(5000, 5).process(upload, "photo.png", "GrayscaleFilter", out);
+
+        assertThat(out.toByteArray()).isEqualTo(JPEG);
+        assertThat(fields).containsEntry("Image", "photo.png|not really a png");
+        JsonNode operations = readTree(fields.get("Operations"));
+        assertThat(operations.isArray()).isTrue();
+        assertThat(operations).hasSize(1);
+        assertThat(operations.get(0).path("Type").asText()).isEqualTo("GrayscaleFilter");
+        assertThat(operations.get(0).path("Parameters").isObject()).isTrue();
+    }
+
+    @Test
+    void aRefusedImageIsABadRequestAndLeavesTheBreakerClosed() {
+        handler = exchange -> respond(exchange, 400, "text/plain", "Invalid format".getBytes(StandardCharsets.UTF_8));
+        ImageProcessorClient client = client(5000, 1);
+
+        assertThatThrownBy(() -> client.process(upload, "photo.gif", "GrayscaleFilter", new ByteArrayOutputStream()))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(client.isAvailable()).isTrue();
+        assertThat(client.stats().state()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void serverErrorsOpenTheBreakerAndLaterCallsFailFast() {
+        handler = exchange -> respond(exchange, 500, "text/plain", new byte[0]);
+        ImageProcessorClient client = client(5000, 2);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> client.process(upload, "photo.png", "BlurFilter", new ByteArrayOutputStream()))
+                    .isInstanceOf(ImageProcessorUnavailableException.class);
+        }
+        assertThat(client.isAvailable()).isFalse();
+
+        assertThatThrownBy(() -> client.process(upload, "photo.png", "BlurFilter", new ByteArrayOutputStream()))
+                .isInstanceOf(ImageProcessorUnavailableException.class);
+        assertThat(requests).hasValue(2);
+        assertThat(client.stats().failures()).isEqualTo(2);
+        assertThat(client.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void aSlowProcessorCountsAsAFailure() {
+        handler = exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "image/jpeg", JPEG);
+        };
+        ImageProcessorClient client = client(100, 1);
+
+        assertThatThrownBy(() -> client.process(upload, "photo.png", "SepiaFilter", new ByteArrayOutputStream()))
+                .isInstanceOf(ImageProcessorUnavailableException.class);
+        assertThat(client.stats().state()).isEqualTo("OPEN");
+    }
+
+    // form fields by name; a file part maps to "filename|content"
+    private static Map<String, String> parts(HttpExchange exchange) throws IOException {
+        Matcher boundary = BOUNDARY.matcher(exchange.getRequestHeaders().getFirst("Content-Type"));
+        assertThat(boundary.matches()).isTrue();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+
+        Map<String, String> fields = new HashMap<>();
+        for (String part : body.split("--" + Pattern.quote(boundary.group(1)))) {
+            int headersEnd = part.indexOf("\r\n\r\n");
+            if (headersEnd < 0) {
+                continue;
+            }
+            Matcher name = PART_NAME.matcher(part.substring(0, headersEnd));
+            if (!name.find()) {
+                continue;
+            }
+            String content = part.substring(headersEnd + 4, part.length() - 2);
+            fields.put(name.group(1), name.group(2) == null ? content : name.group(2) + "|" + content);
+        }
+        return fields;
+    }
+
+    private static JsonNode readTree(String json) {
+        try {
+            return JSON.readTree(json);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.model.PostModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostCacheTest {
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final PostModel model = new PostModel(UUID.randomUUID(), "titlu", "continut", null, "ana", "java",
+            3, 1, 0, null, LocalDateTime.now(), LocalDateTime.now());
+
+    @Test
+    void aWriteOnlyRejectsLoadsOfTheSamePost() {
+        PostCache cache = new PostCache(10, 60);
+        long loadedAt = cache.version();
+        cache.invalidate(second);
+
+        cache.put(first, model, loadedAt);
+        cache.put(second, model, loadedAt);
+
+        assertThat(cache.get(first)).isSameAs(model);
+        assertThat(cache.get(second)).isNull();
+
+        cache.put(second, model, cache.version());
+        assertThat(cache.get(second)).isSameAs(model);
+    }
+
+    @Test
+    void forgottenInvalidationsStillRejectOlderLoads() {
+        PostCache cache = new PostCache(2, 60);
+        long loadedAt = cache.version();
+        cache.invalidate(first);
+        cache.invalidate(UUID.randomUUID());
+        cache.invalidate(UUID.randomUUID());
+
+        // first's own stamp has been dropped, the floor it left behind still covers it
+        cache.put(first, model, loadedAt);
+        assertThat(cache.get(first)).isNull();
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws InterruptedException {
+        PostCache cache = new PostCache(10, 0);
+        cache.put(first, model, cache.version());
+        Thread.sleep(1);
+        assertThat(cache.get(first)).isNull();
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+}
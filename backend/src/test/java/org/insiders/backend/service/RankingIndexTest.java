@@ -0,0 +1,115 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.exceptions.BadRequestException;
+import org.insiders.backend.model.PostRank;
+import org.insiders.backend.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RankingIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final RankingIndex index = new RankingIndex(postRepository);
+
+    private final UUID older = UUID.randomUUID();
+    private final UUID newer = UUID.randomUUID();
+
+    @Test
+    void ordersByScoreThenNewestFirst() {
+        when(postRepository.findAllRanks()).thenReturn(List.of(
+                new PostRank(older, "java", NOW.minusDays(1), 5, 0),
+                new PostRank(newer, "java", NOW, 5, 3)));
+        index.rebuild();
+
+        assertThat(top(null)).containsExactly(newer, older);
+        assertThat(top("java")).containsExactly(newer, older);
+        assertThat(top("go")).isEmpty();
+    }
+
+    @Test
+    void pagesASubredditByCursor() {
+        UUID other = UUID.randomUUID();
+        when(postRepository.findAllRanks()).thenReturn(List.of(
+                new PostRank(older, "java", NOW.minusDays(1), 1, 0),
+                new PostRank(other, "go", NOW, 7, 0),
+                new PostRank(newer, "java", NOW, 4, 0)));
+        index.rebuild();
+
+        RankingIndex.Page first = index.page(RankingIndex.Sort.TOP, "java", null, 1);
+        assertThat(first.ids()).containsExactly(newer);
+        RankingIndex.Cursor cursor = RankingIndex.Cursor.decode(first.next().encode(), RankingIndex.Sort.TOP);
+        RankingIndex.Page second = index.page(RankingIndex.Sort.TOP, "java", cursor, 1);
+        assertThat(second.ids()).containsExactly(older);
+        assertThat(second.next()).isNull();
+    }
+
+    @Test
+    void aCursorKeepsItsPlaceWhenAnotherPostMovesAhead() throws InterruptedException {
+        UUID third = UUID.randomUUID();
+        when(postRepository.findAllRanks()).thenReturn(List.of(
+                new PostRank(older, "java", NOW.minusDays(2), 9, 0),
+                new PostRank(newer, "java", NOW.minusDays(1), 5, 0),
+                new PostRank(third, "java", NOW, 1, 0)));
+        index.rebuild();
+        RankingIndex.Page first = index.page(RankingIndex.Sort.TOP, null, null, 2);
+        assertThat(first.ids()).containsExactly(older, newer);
+
+        // an offset of 2 would now serve newer again
+        index.shiftScore(third, 20);
+        Thread.sleep(1100);
+        assertThat(index.page(RankingIndex.Sort.TOP, null, null, 3).ids()).containsExactly(third, older, newer);
+        assertThat(index.page(RankingIndex.Sort.TOP, null, first.next(), 2).ids()).isEmpty();
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherOrder() {
+        when(postRepository.findAllRanks()).thenReturn(List.of(
+                new PostRank(older, "java", NOW.minusDays(1), 1, 0),
+                new PostRank(newer, "java", NOW, 4, 0)));
+        index.rebuild();
+        String token = index.page(RankingIndex.Sort.TOP, null, null, 1).next().encode();
+
+        assertThatThrownBy(() -> RankingIndex.Cursor.decode(token, RankingIndex.Sort.HOT)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> RankingIndex.Cursor.decode("20", RankingIndex.Sort.TOP)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void keepsChangesMadeWhileTheTableIsRead() {
+        index.addPost(older, "java", NOW.minusDays(1));
+        when(postRepository.findAllRanks()).thenAnswer(invocation -> {
+            // committed after the query read its rows, so only the journal carries it
+            index.shiftScore(older, 10);
+            index.addPost(newer, "java", NOW);
+            return List.of(new PostRank(older, "java", NOW.minusDays(1), 1, 0));
+        });
+        index.rebuild();
+
+        assertThat(top(null)).containsExactly(older, newer);
+        index.shiftScore(newer, 20);
+        index.rebuild();
+        assertThat(top(null)).containsExactly(older, newer);
+    }
+
+    @Test
+    void keepsThePreviousIndexWhenTheReloadFails() {
+        when(postRepository.findAllRanks()).thenReturn(List.of(new PostRank(older, "java", NOW, 1, 0)));
+        index.rebuild();
+        when(postRepository.findAllRanks()).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(index::rebuild).isInstanceOf(IllegalStateException.class);
+        assertThat(index.page(RankingIndex.Sort.HOT, null, null, 10).ids()).containsExactly(older);
+    }
+
+    private List<UUID> top(String subreddit) {
+        return index.page(RankingIndex.Sort.TOP, subreddit, null, 10).ids();
+    }
+}
@@ -0,0 +1,86 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.model.UserIdentity;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionTokenServiceTest {
+    private final UserIdentity ana = new UserIdentity(UUID.randomUUID(), "ana");
+    private final SessionTokenService tokens = new SessionTokenService("secret-de-test", 3600);
+
+    @Test
+    void aTokenNamesTheUserItWasIssuedTo() {
+        assertThat(tokens.verify(tokens.issue(ana))).isEqualTo(ana);
+    }
+
+    @Test
+    void keepsNonAsciiUsernames() {
+        UserIdentity stefan = new UserIdentity(UUID.randomUUID(), "ștefan");
+        assertThat(tokens.verify(tokens.issue(stefan))).isEqualTo(stefan);
+    }
+
+    @Test
+    void tokensFromAnotherSecretAreRejected() {
+        SessionTokenService other = new SessionTokenService("alt-secret", 3600);
+        assertThat(tokens.verify(other.issue(ana))).isNull();
+    }
+
+    @Test
+    void aChangedPayloadIsRejected() {
+        String token = tokens.issue(ana);
+        int dot = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+
+        byte[] renamed = payload.clone();
+        renamed[renamed.length - 1] = 'x';
+        assertThat(tokens.verify(encode(renamed) + token.substring(dot))).isNull();
+
+        // pushing the expiry out is the interesting forgery
+        byte[] extended = payload.clone();
+        extended[16] = 0x7f;
+        assertThat(tokens.verify(encode(extended) + token.substring(dot))).isNull();
+    }
+
+    @Test
+    void aSignatureFromAnotherTokenIsRejected() {
+        String mine = tokens.issue(ana);
+        String theirs = tokens.issue(new UserIdentity(UUID.randomUUID(), "admin"));
+        String spliced = theirs.substring(0, theirs.indexOf('.')) + mine.substring(mine.indexOf('.'));
+        assertThat(tokens.verify(spliced)).isNull();
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        SessionTokenService expired = new SessionTokenService("secret-de-test", -1);
+        String token = expired.issue(ana);
+        assertThat(expired.verify(token)).isNull();
+        assertThat(tokens.verify(token)).isNull();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String valid = tokens.issue(ana);
+        String shortPayload = encode(new byte[24]) + valid.substring(valid.indexOf('.'));
+
+        for (String token : new String[]{"", ".", "abc", ".abc", "abc.", "%%%.%%%", shortPayload}) {
+            assertThat(tokens.verify(token)).as(token).isNull();
+        }
+    }
+
+    @Test
+    void withoutAConfiguredSecretTokensOnlyHoldForThisInstance() {
+        SessionTokenService first = new SessionTokenService("", 3600);
+        SessionTokenService second = new SessionTokenService("", 3600);
+        String token = first.issue(ana);
+        assertThat(first.verify(token)).isEqualTo(ana);
+        assertThat(second.verify(token)).isNull();
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,168 @@
+package org.insiders.backend.service;
+
+import org.insiders.backend.model.VoteCounts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VoteBufferTest {
+    private static final UnaryOperator<Boolean> UP = current -> Boolean.TRUE.equals(current) ? null : true;
+    private static final UnaryOperator<Boolean> DOWN = current -> Boolean.FALSE.equals(current) ? null : false;
+    private static final VoteCounts STORED = new VoteCounts(10, 2);
+
+    private final UUID user = UUID.randomUUID();
+    private final UUID post = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<Boolean> noStoredVote = () -> {
+        loads.incrementAndGet();
+        return null;
+    };
+
+    private JdbcTemplate jdbcTemplate;
+    private PostCache postCache;
+    private VoteBuffer buffer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        // disabled only means no flusher thread; flush() is called by the tests
+        postCache = mock(PostCache.class);
+        buffer = new VoteBuffer(jdbcTemplate, transactionTemplate, postCache, false, 200, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(buffer);
+    }
+
+    @Test
+    void buffersChangesOutsideOfATransaction() {
+        assertThat(buffer.apply(user, post, null, UP, noStoredVote)).isEqualTo(new VoteCounts(1, 0));
+        assertThat(buffer.apply(user, post, null, DOWN, noStoredVote)).isEqualTo(new VoteCounts(-1, 1));
+
+        assertThat(loads).hasValue(1);
+        assertThat(buffer.voteTypeOf(user, post, null)).contains("down");
+        assertThat(buffer.withPending(post, STORED)).isEqualTo(new VoteCounts(10, 3));
+    }
+
+    @Test
+    void flushWritesTheNetChangeAndClearsTheBuffer() {
+        buffer.apply(user, post, null, UP, noStoredVote);
+        buffer.apply(user, post, null, DOWN, noStoredVote);
+        buffer.flush();
+
+        verify(jdbcTemplate).batchUpdate(eq("insert into votes (id, post_id, user_id, is_upvote) values (?, ?, ?, ?)"), anyList());
+        verify(jdbcTemplate).batchUpdate(eq("update posts set upvotes = upvotes + ?, downvotes = downvotes + ? where id = ?"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && Arrays.equals(rows.get(0), new Object[]{0, 1, post})));
+        assertThat(buffer.voteTypeOf(user, post, null)).isEmpty();
+        assertThat(buffer.withPending(post, STORED)).isEqualTo(STORED);
+        verify(postCache).invalidate(post);
+    }
+
+    @Test
+    void togglingBackToTheStoredStateWritesNothing() {
+        buffer.apply(user, post, null, UP, noStoredVote);
+        buffer.apply(user, post, null, UP, noStoredVote);
+        buffer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void stagesChangesUntilTheTransactionCommits() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.apply(user, post, null, UP, noStoredVote);
+
+        // the transaction sees its own vote, other threads do not until the commit
+        assertThat(buffer.voteTypeOf(user, post, null)).contains("up");
+        assertThat(buffer.withPending(post, STORED)).isEqualTo(new VoteCounts(11, 2));
+        assertThat(CompletableFuture.supplyAsync(() -> buffer.voteTypeOf(user, post, null)).get()).isEmpty();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(buffer.voteTypeOf(user, post, null)).contains("up");
+        assertThat(buffer.withPending(post, STORED)).isEqualTo(new VoteCounts(11, 2));
+    }
+
+    @Test
+    void discardsChangesOfARolledBackTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        buffer.apply(user, post, null, UP, noStoredVote);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(buffer.voteTypeOf(user, post, null)).isEmpty();
+        assertThat(buffer.withPending(post, STORED)).isEqualTo(STORED);
+        buffer.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void aDroppedVoteEvictsLaterChangesBuiltOnIt() {
+        buffer.apply(user, post, null, UP, noStoredVote);
+        List<Optional<String>> seenDuringFlush = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            // the user votes again while the flush is writing, on top of the in-flight "up"
+            if (seenDuringFlush.isEmpty()) {
+                buffer.apply(user, post, null, DOWN, noStoredVote);
+                seenDuringFlush.add(buffer.voteTypeOf(user, post, null));
+            }
+            throw new DataIntegrityViolationException("post deleted");
+        });
+
+        buffer.flush();
+
+        assertThat(seenDuringFlush).containsExactly(Optional.of("down"));
+        assertThat(buffer.voteTypeOf(user, post, null)).isEmpty();
+        assertThat(buffer.withPending(post, STORED)).isEqualTo(STORED);
+
+        // the next change starts again from the stored state instead of the dropped one
+        assertThat(buffer.apply(user, post, null, DOWN, noStoredVote)).isEqualTo(new VoteCounts(0, 1));
+        assertThat(loads).hasValue(2);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -14,6 +14,8 @@ import com.insiders.dto.vote.VoteResponseDto;
 import com.insiders.http.ApiClient;
 import com.insiders.http.ApiResult;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +23,9 @@ import java.util.UUID;
 import java.util.function.Supplier;
 
 public class PostClient {
+    private static final int PAGE_SIZE = 50;
+    private static final int COMMENTS_PAGE_SIZE = 20;
+    private static final int REPLIES_PER_COMMENT = 3;
     private final ApiClient api;
 
     public PostClient(String baseUrl, Supplier<Map<String,String>> headers) {
@@ -31,14 +36,21 @@ public class PostClient {
         return api.get("/posts/" + postId, new TypeReference<ResponseApi<PostResponseDto>>(){});
     }
 
-    public ApiResult<List<PostResponseDto>> getAllPosts() {
-        return api.get("/posts", new TypeReference<ResponseApi<List<PostResponseDto>>>(){});
+    public ApiResult<List<PostResponseDto>> getAllPosts(String cursor) {
+        return getAllPosts(cursor, null);
+    }
+
+    // sort is one of the server-side rankings (top, hot, comments); null keeps the newest-first feed
+    public ApiResult<List<PostResponseDto>> getAllPosts(String cursor, String sort) {
+        String query = "?limit=" + PAGE_SIZE
+                + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "")
+                + (sort != null ? "&sort=" + sort : "");
+        return api.get("/posts" + query, new TypeReference<ResponseApi<List<PostResponseDto>>>(){});
     }
 
     public ApiResult<PostResponseDto> createPost(PostCreateRequestDto createRequest) {
         Map<String, Object> formData = new HashMap<>();
         formData.put("title", createRequest.title());
-        formData.put("author", createRequest.author());
         formData.put("subreddit", createRequest.subreddit());
 
         if (createRequest.content() != null && !createRequest.content().isBlank()) {
@@ -77,8 +89,19 @@ public class PostClient {
         return votePost(postId, "down");
     }
 
-    public ApiResult<List<CommentResponseDto>> getCommentsForPost(UUID postId) {
-        return api.get("/posts/" + postId + "/comments",
+    // top-level comments a page at a time, each with its newest few replies; the others come from getReplies
+    public ApiResult<List<CommentResponseDto>> getCommentsForPost(UUID postId, String cursor) {
+        String query = "?limit=" + COMMENTS_PAGE_SIZE + "&replies=" + REPLIES_PER_COMMENT
+                + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+        return api.get("/posts/" + postId + "/comments" + query,
+                new TypeReference<ResponseApi<List<CommentResponseDto>>>(){});
+    }
+
+    // direct replies of a comment a page at a time, each again with its newest few replies
+    public ApiResult<List<CommentResponseDto>> getReplies(UUID commentId, String cursor) {
+        String query = "?limit=" + COMMENTS_PAGE_SIZE + "&replies=" + REPLIES_PER_COMMENT
+                + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+        return api.get("/comments/" + commentId + "/replies" + query,
                 new TypeReference<ResponseApi<List<CommentResponseDto>>>(){});
     }
 
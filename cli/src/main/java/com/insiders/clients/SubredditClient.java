@@ -10,11 +10,14 @@ import com.insiders.dto.subreddit.SubredditUpdateRequestDto;
 import com.insiders.http.ApiClient;
 import com.insiders.http.ApiResult;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
 public class SubredditClient {
+    private static final int PAGE_SIZE = 50;
     private final ApiClient api;
 
     public SubredditClient(String baseUrl, Supplier<Map<String,String>> headers) {
@@ -33,8 +36,12 @@ public class SubredditClient {
         return api.post("/subreddits", createRequest, new TypeReference<ResponseApi<SubredditResponseDto>>(){});
     }
 
-    public ApiResult<List<PostResponseDto>> getSubredditPosts(String subredditName) {
-        return api.get("/posts?subreddit=" + subredditName, new TypeReference<ResponseApi<List<PostResponseDto>>>(){});
+    // sort is one of the server-side rankings (top, comments); null keeps the newest-first listing
+    public ApiResult<List<PostResponseDto>> getSubredditPosts(String subredditName, String cursor, String sort) {
+        String query = "?subreddit=" + subredditName + "&limit=" + PAGE_SIZE
+                + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "")
+                + (sort != null ? "&sort=" + sort : "");
+        return api.get("/posts" + query, new TypeReference<ResponseApi<List<PostResponseDto>>>(){});
     }
 
     public ApiResult<SubredditResponseDto> updateSubreddit(String subredditName, SubredditUpdateRequestDto updateRequest) {
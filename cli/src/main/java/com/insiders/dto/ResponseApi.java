@@ -8,6 +8,7 @@ public record ResponseApi<T>(
         T data,
         String message,
         Long total,
+        String nextCursor,
         ErrorBody error
 ) {
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -4,7 +4,6 @@ import java.util.UUID;
 
 public record CommentCreateRequestDto(
         String content,
-        String author,
         UUID parentId
 ) {
 }
@@ -16,6 +16,8 @@ public record CommentResponseDto(
         String userVote,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        List<CommentResponseDto> replies
+        List<CommentResponseDto> replies,
+        int replyCount,
+        String moreReplies
 ) {
 }
@@ -5,16 +5,15 @@ import java.io.File;
 public record PostCreateRequestDto(
         String title,
         String content,
-        String author,
         String subreddit,
         File image,
         Integer filter
 ) {
-    public PostCreateRequestDto(String title, String content, String author, String subreddit) {
-        this(title, content, author, subreddit, null, null);
+    public PostCreateRequestDto(String title, String content, String subreddit) {
+        this(title, content, subreddit, null, null);
     }
 
-    public PostCreateRequestDto(String title, String content, String author, String subreddit, File image) {
-        this(title, content, author, subreddit, image, null);
+    public PostCreateRequestDto(String title, String content, String subreddit, File image) {
+        this(title, content, subreddit, image, null);
     }
 }
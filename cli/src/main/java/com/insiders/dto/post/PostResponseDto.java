@@ -1,6 +1,7 @@
 package com.insiders.dto.post;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 public record PostResponseDto(
@@ -8,6 +9,7 @@ public record PostResponseDto(
         String title,
         String content,
         String imageUrl,
+        Map<Integer, String> imageSizes,
         String author,
         String subreddit,
         int upvotes,
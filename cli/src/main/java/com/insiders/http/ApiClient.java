@@ -96,7 +96,7 @@ public class ApiClient {
             try {
                 ResponseApi<T> env = om.readValue(raw, type);
                 String msg = (env.message() != null && !env.message().isBlank()) ? env.message() : "OK";
-                if (sc >= 200 && sc < 300 && env.success()) return ApiResult.ok(env.data(), msg, sc);
+                if (sc >= 200 && sc < 300 && env.success()) return ApiResult.ok(env.data(), msg, sc, env.nextCursor());
                 return ApiResult.fail(msg, env.data(), sc);
             } catch (Exception parseEx) {
                 return ApiResult.fail(raw, null, sc);
@@ -5,10 +5,13 @@ public final class ApiResult<T> {
     public final String message;
     public final T data;
     public final int status;
+    public final String nextCursor;
 
-    private ApiResult(boolean s, String m, T d, int st){ success=s; message=m; data=d; status=st; }
+    private ApiResult(boolean s, String m, T d, int st, String nc){ success=s; message=m; data=d; status=st; nextCursor=nc; }
 
-    public static <T> ApiResult<T> ok(T d, String m, int s){ return new ApiResult<>(true, m, d, s); }
+    public static <T> ApiResult<T> ok(T d, String m, int s){ return new ApiResult<>(true, m, d, s, null); }
 
-    public static <T> ApiResult<T> fail(String m, T d, int s){ return new ApiResult<>(false, m, d, s); }
+    public static <T> ApiResult<T> ok(T d, String m, int s, String nextCursor){ return new ApiResult<>(true, m, d, s, nextCursor); }
+
+    public static <T> ApiResult<T> fail(String m, T d, int s){ return new ApiResult<>(false, m, d, s, null); }
 }
@@ -124,7 +124,7 @@ public class AuthMenu {
             MenuFormatter.printInfoMessage("Attempting automatic login...");
             var loginResponse = client.login(new LoginRequestDto(email, password));
             if(loginResponse.success){
-                sessionManager.set(loginResponse.data.userId(), loginResponse.data.username());
+                sessionManager.set(loginResponse.data.userId(), loginResponse.data.username(), loginResponse.data.token());
                 MenuFormatter.printSuccessMessage("You have been automatically logged in!");
                 MenuFormatter.printInfoMessage("Welcome to Insiders, " + username + "!");
                 return true;
@@ -167,7 +167,7 @@ public class AuthMenu {
         var response = client.login(new LoginRequestDto(email, password));
 
         if(response.success){
-            sessionManager.set(response.data.userId(), response.data.username());
+            sessionManager.set(response.data.userId(), response.data.username(), response.data.token());
             MenuFormatter.printSuccessMessage("Hello " + sessionManager.username() + "! You have been logged in successfully!");
             MenuFormatter.printInfoMessage("Welcome back to Insiders!");
             return true;
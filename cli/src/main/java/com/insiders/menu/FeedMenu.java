@@ -27,25 +27,35 @@ public class FeedMenu {
 
     private static final int POSTS_PER_PAGE = 10;
     private List<PostResponseDto> allPosts = null;
+    private String nextCursor = null;
     private int currentPage = 0;
 
     private SortType currentSortType = SortType.DATE_DESC;
 
+    // every order comes from the backend: pages arrive already ranked across all posts, so appending
+    // the next page keeps the list in order (no "oldest first", the feed is paged newest-first)
     public enum SortType {
-        DATE_DESC("Newest First"),
-        DATE_ASC("Oldest First"),
-        SCORE_DESC("Highest Score"),
-        COMMENTS_DESC("Most Comments");
+        DATE_DESC("Newest First", null),
+        SCORE_DESC("Highest Score", "top"),
+        HOT("Hot", "hot"),
+        COMMENTS_DESC("Most Comments", "comments");
 
         private final String displayName;
+        private final String serverSort;
 
-        SortType(String displayName) {
+        SortType(String displayName, String serverSort) {
             this.displayName = displayName;
+            this.serverSort = serverSort;
         }
 
         public String getDisplayName() {
             return displayName;
         }
+
+        // ranking done by the backend across all posts, not just the pages loaded so far
+        public String getServerSort() {
+            return serverSort;
+        }
     }
 
     public FeedMenu(PostClient postClient, SubredditClient subredditClient, SessionManager sessionManager) {
@@ -82,7 +92,7 @@ public class FeedMenu {
                 menuOptions.add(nextOptionNumber + ". Previous Page");
                 nextOptionNumber++;
             }
-            if (allPosts != null && (currentPage + 1) * POSTS_PER_PAGE < allPosts.size()) {
+            if (hasNextPage()) {
                 nextPageOption = nextOptionNumber;
                 menuOptions.add(nextOptionNumber + ". Next Page");
                 nextOptionNumber++;
@@ -106,7 +116,10 @@ public class FeedMenu {
                     if (choice == previousPageOption && currentPage > 0) {
                         currentPage--;
                         MenuFormatter.printInfoMessage("Going to previous page...");
-                    } else if (choice == nextPageOption && allPosts != null && (currentPage + 1) * POSTS_PER_PAGE < allPosts.size()) {
+                    } else if (choice == nextPageOption && hasNextPage()) {
+                        if ((currentPage + 1) * POSTS_PER_PAGE >= allPosts.size()) {
+                            loadMorePosts();
+                        }
                         currentPage++;
                         MenuFormatter.printInfoMessage("Going to next page...");
                     } else if (choice == 0) {
@@ -120,16 +133,31 @@ public class FeedMenu {
     }
 
     private void viewAllPosts() {
-        ApiResult<List<PostResponseDto>> result = postClient.getAllPosts();
+        ApiResult<List<PostResponseDto>> result = postClient.getAllPosts(null, currentSortType.getServerSort());
         if (result.success) {
-            allPosts = result.data;
+            allPosts = new java.util.ArrayList<>(result.data);
+            nextCursor = result.nextCursor;
             currentPage = 0;
-            applySort();
         } else {
             MenuFormatter.printErrorMessage("Error loading posts: " + result.message);
         }
     }
 
+    // the backend pages the feed by cursor; further pages are fetched only when the user reaches them
+    private void loadMorePosts() {
+        ApiResult<List<PostResponseDto>> result = postClient.getAllPosts(nextCursor, currentSortType.getServerSort());
+        if (result.success) {
+            allPosts.addAll(result.data);
+            nextCursor = result.nextCursor;
+        } else {
+            MenuFormatter.printErrorMessage("Error loading more posts: " + result.message);
+        }
+    }
+
+    private boolean hasNextPage() {
+        return allPosts != null && ((currentPage + 1) * POSTS_PER_PAGE < allPosts.size() || nextCursor != null);
+    }
+
     private void enterPostId() {
         String input = ConsoleIO.readLine("Enter post ID: ");
         try {
@@ -186,8 +214,13 @@ public class FeedMenu {
         }
 
         int totalPages = (int) Math.ceil((double) allPosts.size() / POSTS_PER_PAGE);
-        MenuFormatter.printInfoMessage(String.format("Showing page %d of %d (%d total posts)",
-                currentPage + 1, totalPages, allPosts.size()));
+        if (nextCursor != null) {
+            MenuFormatter.printInfoMessage(String.format("Showing page %d (%d posts loaded, more available)",
+                    currentPage + 1, allPosts.size()));
+        } else {
+            MenuFormatter.printInfoMessage(String.format("Showing page %d of %d (%d total posts)",
+                    currentPage + 1, totalPages, allPosts.size()));
+        }
 
         MenuFormatter.printInfoMessage("Currently sorted by: " + currentSortType.getDisplayName());
     }
@@ -261,9 +294,7 @@ public class FeedMenu {
             }
         }
 
-        String author = sessionManager.username();
-
-        PostCreateRequestDto createRequest = new PostCreateRequestDto(title, content, author, subreddit);
+        PostCreateRequestDto createRequest = new PostCreateRequestDto(title, content, subreddit);
 
         MenuFormatter.printInfoMessage("Creating post...");
         ApiResult<PostResponseDto> result = postClient.createPost(createRequest);
@@ -299,7 +330,8 @@ public class FeedMenu {
         if (choice >= 1 && choice <= SortType.values().length) {
             currentSortType = SortType.values()[choice - 1];
             MenuFormatter.printInfoMessage("Sorting posts by " + currentSortType.getDisplayName() + "...");
-            applySort();
+            viewAllPosts();
+            MenuFormatter.printInfoMessage("Posts sorted by " + currentSortType.getDisplayName() + ".");
         } else if (choice == 0) {
             MenuFormatter.printInfoMessage("Sort canceled.");
         } else {
@@ -307,20 +339,6 @@ public class FeedMenu {
         }
     }
 
-    private void applySort() {
-        if (allPosts == null) return;
-
-        switch (currentSortType) {
-            case DATE_DESC -> allPosts.sort((a, b) -> b.createdAt().compareTo(a.createdAt()));
-            case DATE_ASC -> allPosts.sort((a, b) -> a.createdAt().compareTo(b.createdAt()));
-            case SCORE_DESC -> allPosts.sort((a, b) -> (b.upvotes() - b.downvotes()) - (a.upvotes() - a.downvotes()));
-            case COMMENTS_DESC -> allPosts.sort((a, b) -> b.commentCount() - a.commentCount());
-        }
-
-        MenuFormatter.printInfoMessage("Posts sorted by " + currentSortType.getDisplayName() + ".");
-        currentPage = 0;
-    }
-
     private boolean createSubredditPrompt(String subredditName) {
         MenuFormatter.printMenuHeader("Quick Subreddit Creation");
         MenuFormatter.printInfoMessage("Creating subreddit: r/" + subredditName);
@@ -15,7 +15,10 @@ import com.insiders.util.MenuFormatter;
 import com.insiders.util.ContentValidator;
 import com.insiders.util.InputValidator;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -23,6 +26,12 @@ public class PostMenu {
     private final PostClient client;
     private final SessionManager sessionManager;
     private final java.util.Map<Integer, UUID> commentIdMapping = new java.util.HashMap<>();
+    // comments are loaded a page at a time; replies beyond the first few are fetched per comment on demand
+    private final List<CommentResponseDto> loadedComments = new ArrayList<>();
+    private String commentsCursor = null;
+    private final Map<UUID, List<CommentResponseDto>> extraReplies = new HashMap<>();
+    private final Map<UUID, String> replyCursors = new HashMap<>();
+    private final Map<UUID, CommentResponseDto> shownComments = new HashMap<>();
 
     public PostMenu(PostClient client, SessionManager sessionManager) {
         this.client = client;
@@ -277,36 +286,117 @@ public class PostMenu {
     }
 
     private void viewComments(UUID postId) {
-        MenuFormatter.printInfoMessage("Loading all comments for this post...");
+        MenuFormatter.printInfoMessage("Loading comments for this post...");
 
-        ApiResult<List<CommentResponseDto>> result = client.getCommentsForPost(postId);
+        ApiResult<List<CommentResponseDto>> result = client.getCommentsForPost(postId, null);
 
         if (result.success) {
-            List<CommentResponseDto> comments = result.data;
-            if (comments == null) {
+            loadedComments.clear();
+            extraReplies.clear();
+            replyCursors.clear();
+            commentsCursor = result.nextCursor;
+            if (result.data == null) {
                 MenuFormatter.printInfoMessage("No comments data received.");
-            } else if (comments.isEmpty()) {
-                MenuFormatter.printCommentsHeader(0);
-            } else {
-                commentIdMapping.clear();
-                MenuFormatter.printCommentsHeader(comments.size());
-                displayCommentsHierarchy(comments, 0, new AtomicInteger(1));
+                return;
             }
+            loadedComments.addAll(result.data);
+            displayLoadedComments();
         } else {
             MenuFormatter.printErrorMessage("Error loading comments: " + result.message + " (Status: " + result.status + ")");
         }
     }
 
+    private void displayLoadedComments() {
+        commentIdMapping.clear();
+        shownComments.clear();
+        if (loadedComments.isEmpty()) {
+            MenuFormatter.printCommentsHeader(0);
+            return;
+        }
+        MenuFormatter.printCommentsHeader(loadedComments.size());
+        displayCommentsHierarchy(loadedComments, 0, new AtomicInteger(1));
+        if (commentsCursor != null) {
+            MenuFormatter.printInfoMessage("More comments available - Comment Actions > Load more comments");
+        }
+    }
+
     private void displayCommentsHierarchy(List<CommentResponseDto> comments, int indentLevel, AtomicInteger simpleIdCounter) {
         for (CommentResponseDto comment : comments) {
             int simpleId = simpleIdCounter.getAndIncrement();
             commentIdMapping.put(simpleId, comment.id());
+            shownComments.put(comment.id(), comment);
 
             displaySingleComment(comment, indentLevel, simpleId);
 
-            if (comment.replies() != null && !comment.replies().isEmpty()) {
-                displayCommentsHierarchy(comment.replies(), indentLevel + 1, simpleIdCounter);
+            List<CommentResponseDto> replies = repliesOf(comment);
+            if (!replies.isEmpty()) {
+                displayCommentsHierarchy(replies, indentLevel + 1, simpleIdCounter);
             }
+            int hidden = comment.replyCount() - replies.size();
+            if (hidden > 0) {
+                MenuFormatter.printMoreRepliesHint(simpleId, hidden, indentLevel + 1);
+            }
+        }
+    }
+
+    // the replies that came with the comment followed by the ones loaded later through "Show more replies"
+    private List<CommentResponseDto> repliesOf(CommentResponseDto comment) {
+        List<CommentResponseDto> replies = new ArrayList<>();
+        if (comment.replies() != null) {
+            replies.addAll(comment.replies());
+        }
+        replies.addAll(extraReplies.getOrDefault(comment.id(), List.of()));
+        return replies;
+    }
+
+    private void showMoreReplies() {
+        String commentIdStr = ConsoleIO.readLine("Enter the comment ID whose replies you want to see: ");
+        try {
+            UUID commentId = commentIdMapping.get(Integer.parseInt(commentIdStr));
+            if (commentId == null) {
+                MenuFormatter.printErrorMessage("Invalid comment ID! Please choose a number from the comments list above.");
+                return;
+            }
+
+            CommentResponseDto comment = shownComments.get(commentId);
+            List<CommentResponseDto> shown = repliesOf(comment);
+            if (comment.replyCount() <= shown.size()) {
+                MenuFormatter.printInfoMessage("All replies to this comment are already shown.");
+                return;
+            }
+
+            // the first request continues after the replies that came with the comment
+            String cursor = replyCursors.containsKey(commentId) ? replyCursors.get(commentId) : comment.moreReplies();
+            ApiResult<List<CommentResponseDto>> result = client.getReplies(commentId, cursor);
+            if (result.success) {
+                if (result.data != null) {
+                    extraReplies.computeIfAbsent(commentId, k -> new ArrayList<>()).addAll(result.data);
+                }
+                replyCursors.put(commentId, result.nextCursor);
+                displayLoadedComments();
+            } else {
+                MenuFormatter.printErrorMessage("Error loading replies: " + result.message + " (Status: " + result.status + ")");
+            }
+        } catch (NumberFormatException e) {
+            MenuFormatter.printErrorMessage("Please enter a valid number from the comments list.");
+        }
+    }
+
+    private void loadMoreComments(UUID postId) {
+        if (commentsCursor == null) {
+            MenuFormatter.printInfoMessage("All comments are already loaded.");
+            return;
+        }
+
+        ApiResult<List<CommentResponseDto>> result = client.getCommentsForPost(postId, commentsCursor);
+        if (result.success) {
+            if (result.data != null) {
+                loadedComments.addAll(result.data);
+            }
+            commentsCursor = result.nextCursor;
+            displayLoadedComments();
+        } else {
+            MenuFormatter.printErrorMessage("Error loading comments: " + result.message + " (Status: " + result.status + ")");
         }
     }
 
@@ -340,6 +430,8 @@ public class PostMenu {
             case 4 -> deleteComment(postId);
             case 5 -> voteOnComment(postId, "UPVOTE");
             case 6 -> voteOnComment(postId, "DOWNVOTE");
+            case 7 -> showMoreReplies();
+            case 8 -> loadMoreComments(postId);
             case 0 -> MenuFormatter.printInfoMessage("Returning to post management...");
             default -> MenuFormatter.printErrorMessage("Invalid choice!");
         }
@@ -358,8 +450,7 @@ public class PostMenu {
             }
         }
 
-        String author = sessionManager.username();
-        CommentCreateRequestDto commentRequest = new CommentCreateRequestDto(content, author, null);
+        CommentCreateRequestDto commentRequest = new CommentCreateRequestDto(content, null);
 
         ApiResult<CommentResponseDto> result = client.createComment(postId, commentRequest);
         if (result.success) {
@@ -393,8 +484,7 @@ public class PostMenu {
                 }
             }
 
-            String author = sessionManager.username();
-            CommentCreateRequestDto commentRequest = new CommentCreateRequestDto(content, author, parentCommentId);
+            CommentCreateRequestDto commentRequest = new CommentCreateRequestDto(content, parentCommentId);
 
             ApiResult<CommentResponseDto> result = client.createComment(postId, commentRequest);
             if (result.success) {
@@ -425,15 +515,8 @@ public class PostMenu {
                 return;
             }
 
-            ApiResult<List<CommentResponseDto>> commentsResult = client.getCommentsForPost(postId);
-            String currentVote = null;
-
-            if (commentsResult.success && commentsResult.data != null) {
-                CommentResponseDto targetComment = findCommentInHierarchy(commentsResult.data, commentId);
-                if (targetComment != null) {
-                    currentVote = targetComment.userVote();
-                }
-            }
+            CommentResponseDto targetComment = shownComments.get(commentId);
+            String currentVote = targetComment != null ? targetComment.userVote() : null;
 
             String actualVoteType = voteType.equals("UPVOTE") ? "up" : "down";
 
@@ -478,21 +561,6 @@ public class PostMenu {
         }
     }
 
-    private CommentResponseDto findCommentInHierarchy(List<CommentResponseDto> comments, UUID commentId) {
-        for (CommentResponseDto comment : comments) {
-            if (comment.id().equals(commentId)) {
-                return comment;
-            }
-            if (comment.replies() != null && !comment.replies().isEmpty()) {
-                CommentResponseDto found = findCommentInHierarchy(comment.replies(), commentId);
-                if (found != null) {
-                    return found;
-                }
-            }
-        }
-        return null;
-    }
-
     private void editComment(UUID postId) {
         String commentIdStr = ConsoleIO.readLine("Enter the comment ID you want to edit: ");
         try {
@@ -504,13 +572,7 @@ public class PostMenu {
                 return;
             }
 
-            ApiResult<List<CommentResponseDto>> commentsResult = client.getCommentsForPost(postId);
-            if (!commentsResult.success) {
-                MenuFormatter.printErrorMessage("Error loading comments: " + commentsResult.message);
-                return;
-            }
-
-            CommentResponseDto targetComment = findCommentInHierarchy(commentsResult.data, commentId);
+            CommentResponseDto targetComment = shownComments.get(commentId);
             if (targetComment == null) {
                 MenuFormatter.printErrorMessage("Comment not found!");
                 return;
@@ -564,13 +626,7 @@ public class PostMenu {
                 return;
             }
 
-            ApiResult<List<CommentResponseDto>> commentsResult = client.getCommentsForPost(postId);
-            if (!commentsResult.success) {
-                MenuFormatter.printErrorMessage("Error loading comments: " + commentsResult.message);
-                return;
-            }
-
-            CommentResponseDto targetComment = findCommentInHierarchy(commentsResult.data, commentId);
+            CommentResponseDto targetComment = shownComments.get(commentId);
             if (targetComment == null) {
                 MenuFormatter.printErrorMessage("Comment not found!");
                 return;
@@ -50,26 +50,33 @@ public class SubredditMenu {
 
     private static final int POSTS_PER_PAGE = 10;
     private List<PostResponseDto> allSubredditPosts = null;
+    private String nextPostCursor = null;
     private int currentPostPage = 0;
     private String currentSubredditName = null;
 
     private PostSortType currentPostSortType = PostSortType.DATE_DESC;
 
+    // ranked by the backend like the feed's orders, so later pages append in order
     public enum PostSortType {
-        DATE_DESC("Newest First"),
-        DATE_ASC("Oldest First"),
-        SCORE_DESC("Highest Score"),
-        COMMENTS_DESC("Most Comments");
+        DATE_DESC("Newest First", null),
+        SCORE_DESC("Highest Score", "top"),
+        COMMENTS_DESC("Most Comments", "comments");
 
         private final String displayName;
+        private final String serverSort;
 
-        PostSortType(String displayName) {
+        PostSortType(String displayName, String serverSort) {
             this.displayName = displayName;
+            this.serverSort = serverSort;
         }
 
         public String getDisplayName() {
             return displayName;
         }
+
+        public String getServerSort() {
+            return serverSort;
+        }
     }
 
     public SubredditMenu(PostClient postClient, SubredditClient subredditClient, SessionManager sessionManager) {
@@ -382,13 +389,13 @@ public class SubredditMenu {
     private void viewSubredditPosts(String subredditName) {
         MenuFormatter.printInfoMessage("Loading posts...");
 
-        ApiResult<List<PostResponseDto>> result = subredditClient.getSubredditPosts(subredditName);
+        ApiResult<List<PostResponseDto>> result = subredditClient.getSubredditPosts(subredditName, null, currentPostSortType.getServerSort());
 
         if (result.success) {
-            allSubredditPosts = result.data;
+            allSubredditPosts = new java.util.ArrayList<>(result.data);
+            nextPostCursor = result.nextCursor;
             currentPostPage = 0;
             currentSubredditName = subredditName;
-            applyPostSort();
 
             if (allSubredditPosts.isEmpty()) {
                 MenuFormatter.printInfoMessage("No posts found in subreddit 'r/" + subredditName + "'.");
@@ -422,7 +429,7 @@ public class SubredditMenu {
                 menuOptions.add(nextOptionNumber + ". Previous Page");
                 nextOptionNumber++;
             }
-            if (allSubredditPosts != null && (currentPostPage + 1) * POSTS_PER_PAGE < allSubredditPosts.size()) {
+            if (hasNextPostPage()) {
                 nextPageOption = nextOptionNumber;
                 menuOptions.add(nextOptionNumber + ". Next Page");
                 nextOptionNumber++;
@@ -441,7 +448,10 @@ public class SubredditMenu {
                     if (choice == previousPageOption && currentPostPage > 0) {
                         currentPostPage--;
                         MenuFormatter.printInfoMessage("Going to previous page...");
-                    } else if (choice == nextPageOption && allSubredditPosts != null && (currentPostPage + 1) * POSTS_PER_PAGE < allSubredditPosts.size()) {
+                    } else if (choice == nextPageOption && hasNextPostPage()) {
+                        if ((currentPostPage + 1) * POSTS_PER_PAGE >= allSubredditPosts.size()) {
+                            loadMoreSubredditPosts();
+                        }
                         currentPostPage++;
                         MenuFormatter.printInfoMessage("Going to next page...");
                     } else if (choice == 0) {
@@ -455,6 +465,21 @@ public class SubredditMenu {
         }
     }
 
+    private void loadMoreSubredditPosts() {
+        ApiResult<List<PostResponseDto>> result = subredditClient.getSubredditPosts(currentSubredditName, nextPostCursor, currentPostSortType.getServerSort());
+        if (result.success) {
+            allSubredditPosts.addAll(result.data);
+            nextPostCursor = result.nextCursor;
+        } else {
+            MenuFormatter.printErrorMessage("Error loading more posts: " + result.message);
+        }
+    }
+
+    private boolean hasNextPostPage() {
+        return allSubredditPosts != null
+                && ((currentPostPage + 1) * POSTS_PER_PAGE < allSubredditPosts.size() || nextPostCursor != null);
+    }
+
     private void displaySubredditPostsList() {
         if (allSubredditPosts == null || allSubredditPosts.isEmpty()) {
             MenuFormatter.printInfoMessage("No posts available to display.");
@@ -465,7 +490,8 @@ public class SubredditMenu {
         int end = Math.min(start + POSTS_PER_PAGE, allSubredditPosts.size());
 
         postIdMapping.clear();
-        MenuFormatter.printMenuHeader("Posts in r/" + currentSubredditName + " (" + allSubredditPosts.size() + " total)");
+        MenuFormatter.printMenuHeader("Posts in r/" + currentSubredditName + " (" + allSubredditPosts.size()
+                + (nextPostCursor != null ? " loaded)" : " total)"));
 
         MenuFormatter.printInfoMessage("Currently sorted by: " + currentPostSortType.getDisplayName());
 
@@ -493,8 +519,13 @@ public class SubredditMenu {
         }
 
         int totalPages = (int) Math.ceil((double) allSubredditPosts.size() / POSTS_PER_PAGE);
-        MenuFormatter.printInfoMessage(String.format("Showing page %d of %d (%d total posts)",
-            currentPostPage + 1, totalPages, allSubredditPosts.size()));
+        if (nextPostCursor != null) {
+            MenuFormatter.printInfoMessage(String.format("Showing page %d (%d posts loaded, more available)",
+                currentPostPage + 1, allSubredditPosts.size()));
+        } else {
+            MenuFormatter.printInfoMessage(String.format("Showing page %d of %d (%d total posts)",
+                currentPostPage + 1, totalPages, allSubredditPosts.size()));
+        }
     }
 
     private void selectPostToManage() {
@@ -721,7 +752,7 @@ public class SubredditMenu {
         if (choice >= 1 && choice <= PostSortType.values().length) {
             currentPostSortType = PostSortType.values()[choice - 1];
             MenuFormatter.printInfoMessage("Sorting posts by " + currentPostSortType.getDisplayName() + "...");
-            applyPostSort();
+            reloadSubredditPosts();
         } else if (choice == 0) {
             MenuFormatter.printInfoMessage("Sort canceled.");
         } else {
@@ -729,17 +760,16 @@ public class SubredditMenu {
         }
     }
 
-    private void applyPostSort() {
-        if (allSubredditPosts == null) return;
-
-        switch (currentPostSortType) {
-            case DATE_DESC -> allSubredditPosts.sort((a, b) -> b.createdAt().compareTo(a.createdAt()));
-            case DATE_ASC -> allSubredditPosts.sort((a, b) -> a.createdAt().compareTo(b.createdAt()));
-            case SCORE_DESC -> allSubredditPosts.sort((a, b) -> (b.upvotes() - b.downvotes()) - (a.upvotes() - a.downvotes()));
-            case COMMENTS_DESC -> allSubredditPosts.sort((a, b) -> b.commentCount() - a.commentCount());
+    // a new order starts over from the first page the backend ranks that way
+    private void reloadSubredditPosts() {
+        ApiResult<List<PostResponseDto>> result = subredditClient.getSubredditPosts(currentSubredditName, null, currentPostSortType.getServerSort());
+        if (result.success) {
+            allSubredditPosts = new java.util.ArrayList<>(result.data);
+            nextPostCursor = result.nextCursor;
+            currentPostPage = 0;
+            MenuFormatter.printSuccessMessage("Posts sorted by " + currentPostSortType.getDisplayName() + ".");
+        } else {
+            MenuFormatter.printErrorMessage("Error loading posts: " + result.message);
         }
-
-        MenuFormatter.printSuccessMessage("Posts sorted by " + currentPostSortType.getDisplayName() + ".");
-        currentPostPage = 0;
     }
 }
@@ -8,9 +8,10 @@ public class SessionManager {
     private String username;
     private String token;
 
-    public void set(UUID id, String user){
+    public void set(UUID id, String user, String token){
         this.userId = id;
         this.username = user;
+        this.token = token;
     }
 
     public boolean isLoggedIn(){
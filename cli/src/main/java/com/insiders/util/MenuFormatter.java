@@ -231,6 +231,13 @@ public class MenuFormatter {
         System.out.println();
     }
 
+    public static void printMoreRepliesHint(int parentId, int hiddenReplies, int indentLevel) {
+        String indent = "  ".repeat(indentLevel);
+        System.out.println(indent + String.format("%s↳ %d more %s to comment %d%s",
+                CYAN, hiddenReplies, hiddenReplies == 1 ? "reply" : "replies", parentId, RESET));
+        System.out.println();
+    }
+
     private static void printBoxedHeader(String title, String subtitle, int width, String color, String style) {
         System.out.println(color + style + TOP_LEFT + HORIZONTAL_LINE.repeat(width - 2) + TOP_RIGHT + RESET);
 
@@ -399,6 +406,8 @@ public class MenuFormatter {
                 "4. Delete comment",
                 "5. Upvote comment",
                 "6. Downvote comment",
+                "7. Show more replies",
+                "8. Load more comments",
                 "0. Back"
         );
     }